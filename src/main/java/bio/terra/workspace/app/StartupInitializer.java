@@ -1,33 +1,76 @@
 package bio.terra.workspace.app;
 
+import bio.terra.workspace.app.configuration.external.StartupConfiguration;
 import bio.terra.workspace.app.configuration.external.WorkspaceDatabaseConfiguration;
 import bio.terra.workspace.service.job.JobService;
+import bio.terra.workspace.service.migrate.MigrateOptions;
 import bio.terra.workspace.service.migrate.MigrateService;
+import java.time.Duration;
+import java.util.Map;
 import org.springframework.context.ApplicationContext;
 
 public final class StartupInitializer {
   private static final String changelogPath = "db/changelog.xml";
 
+  // Names of the startup phases, as they appear in logs and metrics.
+  public static final String WORKSPACE_MIGRATION_PHASE = "workspace-migration";
+  public static final String STAIRWAY_INITIALIZE_PHASE = "stairway-initialize";
+  public static final String STAIRWAY_RECOVERY_PHASE = "stairway-recovery";
+
   public static void initialize(ApplicationContext applicationContext) {
-    // Initialize or upgrade the database depending on the configuration
     MigrateService migrateService = (MigrateService) applicationContext.getBean("migrateService");
     WorkspaceDatabaseConfiguration workspaceDatabaseConfiguration =
         (WorkspaceDatabaseConfiguration)
             applicationContext.getBean("workspaceDatabaseConfiguration");
     JobService jobService = (JobService) applicationContext.getBean("jobService");
+    StartupConfiguration startupConfiguration =
+        (StartupConfiguration) applicationContext.getBean("startupConfiguration");
+    StartupTimings startupTimings = (StartupTimings) applicationContext.getBean("startupTimings");
 
-    if (workspaceDatabaseConfiguration.isInitializeOnStart()) {
-      migrateService.initialize(changelogPath, workspaceDatabaseConfiguration.getDataSource());
-    } else if (workspaceDatabaseConfiguration.isUpgradeOnStart()) {
-      migrateService.upgrade(changelogPath, workspaceDatabaseConfiguration.getDataSource());
-    }
-
-    // The JobService initialization also handles Stairway initialization.
-    jobService.initialize();
+    // The workspace and Stairway databases are independent, so they are set up at the same time.
+    // Recovered flights may use the workspace database, so recovery waits for both.
+    Map<String, Duration> phaseDurations =
+        new StartupPhases()
+            .add(
+                WORKSPACE_MIGRATION_PHASE,
+                Duration.ofSeconds(startupConfiguration.getWorkspaceMigrationTimeoutSeconds()),
+                () -> migrateWorkspaceDatabase(migrateService, workspaceDatabaseConfiguration))
+            .add(
+                STAIRWAY_INITIALIZE_PHASE,
+                Duration.ofSeconds(startupConfiguration.getStairwayInitializeTimeoutSeconds()),
+                jobService::initializeStairway)
+            .add(
+                STAIRWAY_RECOVERY_PHASE,
+                Duration.ofSeconds(startupConfiguration.getStairwayRecoveryTimeoutSeconds()),
+                jobService::recoverAndStartStairway,
+                WORKSPACE_MIGRATION_PHASE,
+                STAIRWAY_INITIALIZE_PHASE)
+            .run();
+    startupTimings.record(phaseDurations);
 
     // TODO: Fill in this method with any other initialization that needs to happen
     //  between the point of having the entire application initialized and
     //  the point of opening the port to start accepting REST requests.
 
   }
+
+  // Initialize or upgrade the database depending on the configuration
+  private static void migrateWorkspaceDatabase(
+      MigrateService migrateService,
+      WorkspaceDatabaseConfiguration workspaceDatabaseConfiguration) {
+    if (workspaceDatabaseConfiguration.isInitializeOnStart()) {
+      migrateService.initialize(changelogPath, workspaceDatabaseConfiguration.getDataSource());
+    } else if (workspaceDatabaseConfiguration.isUpgradeOnStart()) {
+      MigrateOptions migrateOptions =
+          MigrateOptions.builder()
+              .skipIfCurrent(workspaceDatabaseConfiguration.isSkipMigrationIfCurrent())
+              .electLeader(workspaceDatabaseConfiguration.isElectMigrationLeader())
+              .leaderWait(
+                  Duration.ofSeconds(
+                      workspaceDatabaseConfiguration.getMigrationLeaderWaitSeconds()))
+              .build();
+      migrateService.upgrade(
+          changelogPath, workspaceDatabaseConfiguration.getDataSource(), migrateOptions);
+    }
+  }
 }
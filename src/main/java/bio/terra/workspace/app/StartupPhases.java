@@ -0,0 +1,129 @@
+package bio.terra.workspace.app;
+
+import bio.terra.workspace.app.exception.StartupException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the phases of application startup, each as soon as the phases it depends on have finished,
+ * so that independent phases run at the same time.
+ *
+ * <p>Each phase has its own timeout, counted from when it starts. A phase that fails or times out
+ * fails startup; phases depending on it do not run.
+ */
+public class StartupPhases {
+  private static final Logger logger = LoggerFactory.getLogger(StartupPhases.class);
+
+  private final Map<String, Phase> phases = new LinkedHashMap<>();
+
+  /**
+   * Adds a phase. Its dependencies must already have been added, which keeps the phases free of
+   * cycles.
+   */
+  public StartupPhases add(String name, Duration timeout, Runnable work, String... dependencies) {
+    for (String dependency : dependencies) {
+      if (!phases.containsKey(dependency)) {
+        throw new IllegalArgumentException(
+            String.format("Startup phase %s depends on unknown phase %s", name, dependency));
+      }
+    }
+    phases.put(name, new Phase(name, timeout, work, List.of(dependencies)));
+    return this;
+  }
+
+  /**
+   * Runs all phases and waits for them to finish. Returns how long each phase took, in the order
+   * the phases were added.
+   */
+  public Map<String, Duration> run() {
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, phases.size()),
+            new ThreadFactoryBuilder().setNameFormat("startup-%d").setDaemon(true).build());
+    Map<String, CompletableFuture<Void>> phaseFutures = new LinkedHashMap<>();
+    Map<String, Duration> durations = new ConcurrentHashMap<>();
+    long startNanos = System.nanoTime();
+    try {
+      for (Phase phase : phases.values()) {
+        CompletableFuture<?>[] dependencyFutures =
+            phase.dependencies.stream().map(phaseFutures::get).toArray(CompletableFuture[]::new);
+        phaseFutures.put(
+            phase.name,
+            CompletableFuture.allOf(dependencyFutures)
+                .thenCompose(ignored -> runPhase(phase, executor, durations)));
+      }
+      CompletableFuture.allOf(phaseFutures.values().toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof StartupException) {
+        throw (StartupException) e.getCause();
+      }
+      throw new StartupException("Startup failed", e.getCause());
+    } finally {
+      // Interrupts any phase that is still running after another phase failed or timed out.
+      executor.shutdownNow();
+    }
+    logger.info(
+        String.format(
+            "Startup phases completed in %d ms",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+
+    Map<String, Duration> orderedDurations = new LinkedHashMap<>();
+    phases.keySet().forEach(name -> orderedDurations.put(name, durations.get(name)));
+    return orderedDurations;
+  }
+
+  private static CompletableFuture<Void> runPhase(
+      Phase phase, ExecutorService executor, Map<String, Duration> durations) {
+    return CompletableFuture.runAsync(
+            () -> {
+              logger.info(String.format("Starting startup phase %s", phase.name));
+              long phaseStartNanos = System.nanoTime();
+              phase.work.run();
+              Duration duration = Duration.ofNanos(System.nanoTime() - phaseStartNanos);
+              durations.put(phase.name, duration);
+              logger.info(
+                  String.format(
+                      "Startup phase %s completed in %d ms", phase.name, duration.toMillis()));
+            },
+            executor)
+        .orTimeout(phase.timeout.toMillis(), TimeUnit.MILLISECONDS)
+        .exceptionally(
+            e -> {
+              Throwable cause = (e instanceof CompletionException) ? e.getCause() : e;
+              if (cause instanceof TimeoutException) {
+                throw new StartupException(
+                    String.format(
+                        "Startup phase %s did not complete within %d seconds",
+                        phase.name, phase.timeout.toSeconds()));
+              }
+              throw new StartupException(
+                  String.format("Startup phase %s failed", phase.name), cause);
+            });
+  }
+
+  private static class Phase {
+    private final String name;
+    private final Duration timeout;
+    private final Runnable work;
+    private final List<String> dependencies;
+
+    private Phase(String name, Duration timeout, Runnable work, List<String> dependencies) {
+      this.name = name;
+      this.timeout = timeout;
+      this.work = work;
+      this.dependencies = dependencies;
+    }
+  }
+}
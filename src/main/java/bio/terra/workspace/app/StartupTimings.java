@@ -0,0 +1,37 @@
+package bio.terra.workspace.app;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/** Holds how long each startup phase of this instance took, for reporting as metrics. */
+@Component
+public class StartupTimings {
+  private volatile Map<String, Duration> phaseDurations = Map.of();
+
+  private final Logger logger = LoggerFactory.getLogger(StartupTimings.class);
+
+  /**
+   * Records the durations of the startup phases, in the order they were defined, and logs them on
+   * one line.
+   */
+  public void record(Map<String, Duration> phaseDurations) {
+    this.phaseDurations = Collections.unmodifiableMap(new LinkedHashMap<>(phaseDurations));
+    logger.info(
+        String.format(
+            "Startup phase durations: %s",
+            phaseDurations.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue().toMillis() + "ms")
+                .collect(Collectors.joining(", "))));
+  }
+
+  /** Duration of each completed startup phase. Empty until startup has finished. */
+  public Map<String, Duration> getPhaseDurations() {
+    return phaseDurations;
+  }
+}
@@ -8,10 +8,15 @@ import org.apache.commons.dbcp2.PoolableConnectionFactory;
 import org.apache.commons.dbcp2.PoolingDataSource;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
-import org.apache.commons.pool2.ObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPool;
-
-/** Base class for accessing database connection configuration properties. */
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+/**
+ * Base class for accessing database connection configuration properties.
+ *
+ * <p>Each database gets its own connection pool. The pool settings below default to values that
+ * suit a small deployment; each database can override them in its own configuration section.
+ */
 public class BaseDatabaseConfiguration {
   /** URI of the database */
   private String uri;
@@ -19,9 +24,40 @@ public class BaseDatabaseConfiguration {
   private String username;
   /** Password for the database */
   private String password;
-
-  // Not a property
+  /** Maximum number of connections open at once, both in use and idle */
+  private int poolMaxTotal = 8;
+  /** Number of idle connections the pool tries to keep open */
+  private int poolMinIdle = 0;
+  /** How long a caller waits for a free connection before failing, in milliseconds */
+  private long poolMaxWaitMillis = 30000;
+  /** How often idle connections are checked and evicted, in milliseconds; -1 disables eviction */
+  private long poolEvictionIntervalMillis = 60000;
+  /** How long a connection may sit idle before it can be evicted, in milliseconds */
+  private long poolMinEvictableIdleMillis = 600000;
+  /** Query used to validate connections; if empty, the JDBC driver's validity check is used */
+  private String poolValidationQuery = "";
+  /** How long a validation query may run, in seconds */
+  private int poolValidationTimeoutSeconds = 5;
+  /** If true, connections are validated before they are handed out */
+  private boolean poolTestOnBorrow = true;
+  /** If true, prepared statements are cached per connection */
+  private boolean poolPreparedStatements = true;
+  /** Maximum number of prepared statements cached per connection */
+  private int poolMaxOpenPreparedStatements = 100;
+
+  // Not properties
   private PoolingDataSource<PoolableConnection> dataSource;
+  private GenericObjectPool<PoolableConnection> connectionPool;
+  private final String poolName;
+
+  public BaseDatabaseConfiguration() {
+    this("database");
+  }
+
+  /** @param poolName identifies this database's connection pool in JMX and in metrics */
+  protected BaseDatabaseConfiguration(String poolName) {
+    this.poolName = poolName;
+  }
 
   public String getUri() {
     return uri;
@@ -49,8 +85,92 @@ public class BaseDatabaseConfiguration {
     this.password = password;
   }
 
+  public int getPoolMaxTotal() {
+    return poolMaxTotal;
+  }
+
+  public void setPoolMaxTotal(int poolMaxTotal) {
+    this.poolMaxTotal = poolMaxTotal;
+  }
+
+  public int getPoolMinIdle() {
+    return poolMinIdle;
+  }
+
+  public void setPoolMinIdle(int poolMinIdle) {
+    this.poolMinIdle = poolMinIdle;
+  }
+
+  public long getPoolMaxWaitMillis() {
+    return poolMaxWaitMillis;
+  }
+
+  public void setPoolMaxWaitMillis(long poolMaxWaitMillis) {
+    this.poolMaxWaitMillis = poolMaxWaitMillis;
+  }
+
+  public long getPoolEvictionIntervalMillis() {
+    return poolEvictionIntervalMillis;
+  }
+
+  public void setPoolEvictionIntervalMillis(long poolEvictionIntervalMillis) {
+    this.poolEvictionIntervalMillis = poolEvictionIntervalMillis;
+  }
+
+  public long getPoolMinEvictableIdleMillis() {
+    return poolMinEvictableIdleMillis;
+  }
+
+  public void setPoolMinEvictableIdleMillis(long poolMinEvictableIdleMillis) {
+    this.poolMinEvictableIdleMillis = poolMinEvictableIdleMillis;
+  }
+
+  public String getPoolValidationQuery() {
+    return poolValidationQuery;
+  }
+
+  public void setPoolValidationQuery(String poolValidationQuery) {
+    this.poolValidationQuery = poolValidationQuery;
+  }
+
+  public int getPoolValidationTimeoutSeconds() {
+    return poolValidationTimeoutSeconds;
+  }
+
+  public void setPoolValidationTimeoutSeconds(int poolValidationTimeoutSeconds) {
+    this.poolValidationTimeoutSeconds = poolValidationTimeoutSeconds;
+  }
+
+  public boolean isPoolTestOnBorrow() {
+    return poolTestOnBorrow;
+  }
+
+  public void setPoolTestOnBorrow(boolean poolTestOnBorrow) {
+    this.poolTestOnBorrow = poolTestOnBorrow;
+  }
+
+  public boolean isPoolPreparedStatements() {
+    return poolPreparedStatements;
+  }
+
+  public void setPoolPreparedStatements(boolean poolPreparedStatements) {
+    this.poolPreparedStatements = poolPreparedStatements;
+  }
+
+  public int getPoolMaxOpenPreparedStatements() {
+    return poolMaxOpenPreparedStatements;
+  }
+
+  public void setPoolMaxOpenPreparedStatements(int poolMaxOpenPreparedStatements) {
+    this.poolMaxOpenPreparedStatements = poolMaxOpenPreparedStatements;
+  }
+
+  public String getPoolName() {
+    return poolName;
+  }
+
   // Main use of the configuration is this pooling data source object.
-  public PoolingDataSource<PoolableConnection> getDataSource() {
+  public synchronized PoolingDataSource<PoolableConnection> getDataSource() {
     // Lazy allocation of the data source
     if (dataSource == null) {
       configureDataSource();
@@ -58,6 +178,24 @@ public class BaseDatabaseConfiguration {
     return dataSource;
   }
 
+  /**
+   * Returns the current state of this database's connection pool. This is deliberately not named
+   * like a getter, so that configuration binding never creates the pool.
+   */
+  public ConnectionPoolStats currentPoolStats() {
+    // Creates the pool if it does not exist yet, so that stats are never missing.
+    getDataSource();
+    return ConnectionPoolStats.builder()
+        .poolName(poolName)
+        .active(connectionPool.getNumActive())
+        .idle(connectionPool.getNumIdle())
+        .waiters(connectionPool.getNumWaiters())
+        .maxTotal(connectionPool.getMaxTotal())
+        .meanBorrowWaitMillis(connectionPool.getMeanBorrowWaitTimeMillis())
+        .maxBorrowWaitMillis(connectionPool.getMaxBorrowWaitTimeMillis())
+        .build();
+  }
+
   private void configureDataSource() {
     Properties props = new Properties();
     props.setProperty("user", getUsername());
@@ -67,9 +205,27 @@ public class BaseDatabaseConfiguration {
 
     PoolableConnectionFactory poolableConnectionFactory =
         new PoolableConnectionFactory(connectionFactory, null);
-
-    ObjectPool<PoolableConnection> connectionPool =
-        new GenericObjectPool<>(poolableConnectionFactory);
+    if (!poolValidationQuery.isEmpty()) {
+      poolableConnectionFactory.setValidationQuery(poolValidationQuery);
+    }
+    poolableConnectionFactory.setValidationQueryTimeout(poolValidationTimeoutSeconds);
+    poolableConnectionFactory.setPoolStatements(poolPreparedStatements);
+    poolableConnectionFactory.setMaxOpenPreparedStatements(poolMaxOpenPreparedStatements);
+
+    GenericObjectPoolConfig<PoolableConnection> poolConfig = new GenericObjectPoolConfig<>();
+    poolConfig.setMaxTotal(poolMaxTotal);
+    // Idle connections above the minimum are only closed by eviction, not as soon as they are
+    // returned, so that bursts do not open and close connections.
+    poolConfig.setMaxIdle(poolMaxTotal);
+    poolConfig.setMinIdle(poolMinIdle);
+    poolConfig.setMaxWaitMillis(poolMaxWaitMillis);
+    poolConfig.setTestOnBorrow(poolTestOnBorrow);
+    poolConfig.setTestWhileIdle(true);
+    poolConfig.setTimeBetweenEvictionRunsMillis(poolEvictionIntervalMillis);
+    poolConfig.setMinEvictableIdleTimeMillis(poolMinEvictableIdleMillis);
+    poolConfig.setJmxNamePrefix(poolName);
+
+    connectionPool = new GenericObjectPool<>(poolableConnectionFactory, poolConfig);
 
     poolableConnectionFactory.setPool(connectionPool);
 
@@ -81,6 +237,9 @@ public class BaseDatabaseConfiguration {
     return new ToStringBuilder(this, ToStringStyle.JSON_STYLE)
         .append("uri", uri)
         .append("username", username)
+        .append("poolMaxTotal", poolMaxTotal)
+        .append("poolMinIdle", poolMinIdle)
+        .append("poolMaxWaitMillis", poolMaxWaitMillis)
         // .append("password", password) NOTE: password is not printed; that avoids it showing up in
         // logs
         .toString();
@@ -0,0 +1,52 @@
+package bio.terra.workspace.app.configuration;
+
+import com.google.auto.value.AutoValue;
+
+/** A point-in-time view of one database connection pool. */
+@AutoValue
+public abstract class ConnectionPoolStats {
+
+  /** Name of the pool, as set by its database configuration. */
+  public abstract String poolName();
+
+  /** Number of connections currently handed out. */
+  public abstract int active();
+
+  /** Number of open connections waiting in the pool. */
+  public abstract int idle();
+
+  /** Number of callers currently waiting for a connection. */
+  public abstract int waiters();
+
+  /** Maximum number of connections the pool will open. */
+  public abstract int maxTotal();
+
+  /** Mean time recent callers waited for a connection, in milliseconds. */
+  public abstract long meanBorrowWaitMillis();
+
+  /** Longest time any caller has waited for a connection, in milliseconds. */
+  public abstract long maxBorrowWaitMillis();
+
+  public static Builder builder() {
+    return new AutoValue_ConnectionPoolStats.Builder();
+  }
+
+  @AutoValue.Builder
+  public abstract static class Builder {
+    public abstract Builder poolName(String value);
+
+    public abstract Builder active(int value);
+
+    public abstract Builder idle(int value);
+
+    public abstract Builder waiters(int value);
+
+    public abstract Builder maxTotal(int value);
+
+    public abstract Builder meanBorrowWaitMillis(long value);
+
+    public abstract Builder maxBorrowWaitMillis(long value);
+
+    public abstract ConnectionPoolStats build();
+  }
+}
@@ -5,6 +5,10 @@ import bio.terra.cloudres.common.cleanup.CleanupConfig;
 import bio.terra.cloudres.google.billing.CloudBillingClientCow;
 import bio.terra.cloudres.google.cloudresourcemanager.CloudResourceManagerCow;
 import bio.terra.cloudres.google.serviceusage.ServiceUsageCow;
+import bio.terra.workspace.common.utils.OutboundCallMetrics;
+import bio.terra.workspace.service.workspace.polling.OperationPoller;
+import bio.terra.workspace.service.workspace.pool.CrlGoogleProjectClient;
+import bio.terra.workspace.service.workspace.pool.GoogleProjectClient;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.auth.oauth2.ServiceAccountCredentials;
 import java.io.FileInputStream;
@@ -104,6 +108,18 @@ public class CrlConfiguration {
     return ServiceUsageCow.create(clientConfig(), GoogleCredentials.getApplicationDefault());
   }
 
+  /** The {@link GoogleProjectClient} setting up workspace projects with the CRL clients. */
+  @Bean
+  @Lazy
+  public GoogleProjectClient googleProjectClient(
+      CloudResourceManagerCow resourceManager,
+      ServiceUsageCow serviceUsage,
+      OperationPoller operationPoller,
+      OutboundCallMetrics outboundCallMetrics) {
+    return new CrlGoogleProjectClient(
+        resourceManager, serviceUsage, operationPoller, outboundCallMetrics);
+  }
+
   private static ServiceAccountCredentials getGoogleCredentialsOrDie(String serviceAccountPath) {
     try {
       return ServiceAccountCredentials.fromStream(new FileInputStream(serviceAccountPath));
@@ -11,6 +11,14 @@ import org.springframework.context.annotation.Configuration;
 public class DataRepoConfiguration {
   /** A map of valid names for data repo instances to their urls */
   private HashMap<String, String> instances;
+  /** Maximum number of snapshots checked against Data Repo at once when validating references */
+  private int validationParallelism;
+  /** If true, snapshots a user was recently found to have access to are cached in memory */
+  private boolean snapshotCacheEnabled;
+  /** How long a snapshot found to exist stays cached, in seconds */
+  private long snapshotCacheTtlSeconds;
+  /** Maximum number of (user, snapshot) pairs held in the snapshot cache */
+  private long snapshotCacheMaximumSize;
 
   public HashMap<String, String> getInstances() {
     return instances;
@@ -19,4 +27,36 @@ public class DataRepoConfiguration {
   public void setInstances(HashMap<String, String> instances) {
     this.instances = instances;
   }
+
+  public int getValidationParallelism() {
+    return validationParallelism;
+  }
+
+  public void setValidationParallelism(int validationParallelism) {
+    this.validationParallelism = validationParallelism;
+  }
+
+  public boolean isSnapshotCacheEnabled() {
+    return snapshotCacheEnabled;
+  }
+
+  public void setSnapshotCacheEnabled(boolean snapshotCacheEnabled) {
+    this.snapshotCacheEnabled = snapshotCacheEnabled;
+  }
+
+  public long getSnapshotCacheTtlSeconds() {
+    return snapshotCacheTtlSeconds;
+  }
+
+  public void setSnapshotCacheTtlSeconds(long snapshotCacheTtlSeconds) {
+    this.snapshotCacheTtlSeconds = snapshotCacheTtlSeconds;
+  }
+
+  public long getSnapshotCacheMaximumSize() {
+    return snapshotCacheMaximumSize;
+  }
+
+  public void setSnapshotCacheMaximumSize(long snapshotCacheMaximumSize) {
+    this.snapshotCacheMaximumSize = snapshotCacheMaximumSize;
+  }
 }
@@ -0,0 +1,62 @@
+package bio.terra.workspace.app.configuration.external;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Configuration for the pool of Google projects created ahead of workspace cloud contexts. */
+@Configuration
+@EnableConfigurationProperties
+@ConfigurationProperties(prefix = "workspace.google.project-pool")
+public class GoogleProjectPoolConfiguration {
+  /** Whether to keep a pool of projects; if not, every cloud context creates its own project */
+  private boolean enabled = false;
+  /** Number of unclaimed projects, ready or being created, to keep in the pool */
+  private int targetSize = 10;
+  /** Maximum number of projects one instance creates in each refill */
+  private int refillBatchSize = 2;
+  /** Seconds between the end of one refill and the start of the next */
+  private int refillIntervalSeconds = 60;
+  /** Seconds after which a project still being created is assumed abandoned and deleted */
+  private int creatingAbandonSeconds = 1800;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getTargetSize() {
+    return targetSize;
+  }
+
+  public void setTargetSize(int targetSize) {
+    this.targetSize = targetSize;
+  }
+
+  public int getRefillBatchSize() {
+    return refillBatchSize;
+  }
+
+  public void setRefillBatchSize(int refillBatchSize) {
+    this.refillBatchSize = refillBatchSize;
+  }
+
+  public int getRefillIntervalSeconds() {
+    return refillIntervalSeconds;
+  }
+
+  public void setRefillIntervalSeconds(int refillIntervalSeconds) {
+    this.refillIntervalSeconds = refillIntervalSeconds;
+  }
+
+  public int getCreatingAbandonSeconds() {
+    return creatingAbandonSeconds;
+  }
+
+  public void setCreatingAbandonSeconds(int creatingAbandonSeconds) {
+    this.creatingAbandonSeconds = creatingAbandonSeconds;
+  }
+}
@@ -8,14 +8,22 @@ import org.springframework.context.annotation.Configuration;
 @EnableConfigurationProperties
 @ConfigurationProperties(prefix = "workspace.job")
 public class JobConfiguration {
-  /** Number of threads to keep available */
-  private int maxThreads;
   /** Timeout in seconds */
   private int timeoutSeconds;
-  /** Polling interval in seconds */
+  /**
+   * Interval in seconds between database checks of a flight that is being waited on. Flights that
+   * finish on this node signal their waiters immediately, so this only bounds the wait for flights
+   * running elsewhere.
+   */
   private int pollingIntervalSeconds;
   /** For identifying the application to SAM */
   private String resourceId;
+  /** If true, short flights that support it run in-process instead of through Stairway */
+  private boolean localFlightsEnabled;
+  /** Seconds without progress after which an in-process flight is considered abandoned */
+  private int localFlightAbandonSeconds;
+  /** Seconds a Stairway step may run before it is logged and counted as slow */
+  private int slowStepThresholdSeconds;
 
   public int getTimeoutSeconds() {
     return timeoutSeconds;
@@ -33,14 +41,6 @@ public class JobConfiguration {
     this.pollingIntervalSeconds = pollingIntervalSeconds;
   }
 
-  public int getMaxThreads() {
-    return maxThreads;
-  }
-
-  public void setMaxThreads(int maxThreads) {
-    this.maxThreads = maxThreads;
-  }
-
   public String getResourceId() {
     return resourceId;
   }
@@ -48,4 +48,28 @@ public class JobConfiguration {
   public void setResourceId(String resourceId) {
     this.resourceId = resourceId;
   }
+
+  public boolean isLocalFlightsEnabled() {
+    return localFlightsEnabled;
+  }
+
+  public void setLocalFlightsEnabled(boolean localFlightsEnabled) {
+    this.localFlightsEnabled = localFlightsEnabled;
+  }
+
+  public int getLocalFlightAbandonSeconds() {
+    return localFlightAbandonSeconds;
+  }
+
+  public void setLocalFlightAbandonSeconds(int localFlightAbandonSeconds) {
+    this.localFlightAbandonSeconds = localFlightAbandonSeconds;
+  }
+
+  public int getSlowStepThresholdSeconds() {
+    return slowStepThresholdSeconds;
+  }
+
+  public void setSlowStepThresholdSeconds(int slowStepThresholdSeconds) {
+    this.slowStepThresholdSeconds = slowStepThresholdSeconds;
+  }
 }
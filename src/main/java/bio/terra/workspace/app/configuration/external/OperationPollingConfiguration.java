@@ -0,0 +1,62 @@
+package bio.terra.workspace.app.configuration.external;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Configuration for polling Google long-running operations started by workspace flights. */
+@Configuration
+@EnableConfigurationProperties
+@ConfigurationProperties(prefix = "workspace.operation-polling")
+public class OperationPollingConfiguration {
+  /** Milliseconds before the first poll of an operation */
+  private long initialIntervalMillis = 1000;
+  /** Maximum milliseconds between two polls of an operation */
+  private long maxIntervalMillis = 30000;
+  /** Factor by which the interval between polls grows after each poll */
+  private double multiplier = 2.0;
+  /** Fraction by which each interval is randomly lengthened or shortened */
+  private double jitterFraction = 0.2;
+  /** Seconds to wait for an operation before giving up on it */
+  private int timeoutSeconds = 300;
+
+  public long getInitialIntervalMillis() {
+    return initialIntervalMillis;
+  }
+
+  public void setInitialIntervalMillis(long initialIntervalMillis) {
+    this.initialIntervalMillis = initialIntervalMillis;
+  }
+
+  public long getMaxIntervalMillis() {
+    return maxIntervalMillis;
+  }
+
+  public void setMaxIntervalMillis(long maxIntervalMillis) {
+    this.maxIntervalMillis = maxIntervalMillis;
+  }
+
+  public double getMultiplier() {
+    return multiplier;
+  }
+
+  public void setMultiplier(double multiplier) {
+    this.multiplier = multiplier;
+  }
+
+  public double getJitterFraction() {
+    return jitterFraction;
+  }
+
+  public void setJitterFraction(double jitterFraction) {
+    this.jitterFraction = jitterFraction;
+  }
+
+  public int getTimeoutSeconds() {
+    return timeoutSeconds;
+  }
+
+  public void setTimeoutSeconds(int timeoutSeconds) {
+    this.timeoutSeconds = timeoutSeconds;
+  }
+}
@@ -10,6 +10,29 @@ import org.springframework.context.annotation.Configuration;
 public class SamConfiguration {
   /** URL of the SAM instance */
   private String basePath;
+  /** If true, authorization decisions from Sam are cached in memory */
+  private boolean authzCacheEnabled;
+  /** How long an allowed authorization decision stays cached, in seconds */
+  private long authzCacheAllowTtlSeconds;
+  /** How long a denied authorization decision stays cached, in seconds */
+  private long authzCacheDenyTtlSeconds;
+  /** Maximum number of decisions held in each of the allow and deny caches */
+  private long authzCacheMaximumSize;
+  /**
+   * Maximum number of calls to Sam in flight at once, and so of connections open to it. Further
+   * calls wait for one to finish.
+   */
+  private int maxConnectionsPerRoute;
+  /** Maximum number of idle connections kept open to Sam for reuse */
+  private int maxIdleConnections;
+  /** Maximum number of authorization checks a batch lookup sends to Sam at once */
+  private int authzCheckParallelism;
+  /** Timeout for establishing a connection to Sam, in milliseconds */
+  private int connectTimeoutMillis;
+  /** Timeout for reading a response from Sam, in milliseconds */
+  private int readTimeoutMillis;
+  /** How long an unused pooled connection is kept before it is evicted, in seconds */
+  private long idleConnectionTimeoutSeconds;
 
   public String getBasePath() {
     return basePath;
@@ -18,4 +41,84 @@ public class SamConfiguration {
   public void setBasePath(String basePath) {
     this.basePath = basePath;
   }
+
+  public boolean isAuthzCacheEnabled() {
+    return authzCacheEnabled;
+  }
+
+  public void setAuthzCacheEnabled(boolean authzCacheEnabled) {
+    this.authzCacheEnabled = authzCacheEnabled;
+  }
+
+  public long getAuthzCacheAllowTtlSeconds() {
+    return authzCacheAllowTtlSeconds;
+  }
+
+  public void setAuthzCacheAllowTtlSeconds(long authzCacheAllowTtlSeconds) {
+    this.authzCacheAllowTtlSeconds = authzCacheAllowTtlSeconds;
+  }
+
+  public long getAuthzCacheDenyTtlSeconds() {
+    return authzCacheDenyTtlSeconds;
+  }
+
+  public void setAuthzCacheDenyTtlSeconds(long authzCacheDenyTtlSeconds) {
+    this.authzCacheDenyTtlSeconds = authzCacheDenyTtlSeconds;
+  }
+
+  public long getAuthzCacheMaximumSize() {
+    return authzCacheMaximumSize;
+  }
+
+  public void setAuthzCacheMaximumSize(long authzCacheMaximumSize) {
+    this.authzCacheMaximumSize = authzCacheMaximumSize;
+  }
+
+  public int getMaxConnectionsPerRoute() {
+    return maxConnectionsPerRoute;
+  }
+
+  public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+    this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+  }
+
+  public int getMaxIdleConnections() {
+    return maxIdleConnections;
+  }
+
+  public void setMaxIdleConnections(int maxIdleConnections) {
+    this.maxIdleConnections = maxIdleConnections;
+  }
+
+  public int getAuthzCheckParallelism() {
+    return authzCheckParallelism;
+  }
+
+  public void setAuthzCheckParallelism(int authzCheckParallelism) {
+    this.authzCheckParallelism = authzCheckParallelism;
+  }
+
+  public int getConnectTimeoutMillis() {
+    return connectTimeoutMillis;
+  }
+
+  public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+    this.connectTimeoutMillis = connectTimeoutMillis;
+  }
+
+  public int getReadTimeoutMillis() {
+    return readTimeoutMillis;
+  }
+
+  public void setReadTimeoutMillis(int readTimeoutMillis) {
+    this.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  public long getIdleConnectionTimeoutSeconds() {
+    return idleConnectionTimeoutSeconds;
+  }
+
+  public void setIdleConnectionTimeoutSeconds(long idleConnectionTimeoutSeconds) {
+    this.idleConnectionTimeoutSeconds = idleConnectionTimeoutSeconds;
+  }
 }
@@ -17,6 +17,10 @@ public class StairwayDatabaseConfiguration extends BaseDatabaseConfiguration {
    */
   private boolean forceClean;
 
+  public StairwayDatabaseConfiguration() {
+    super("stairway-database");
+  }
+
   public boolean getMigrateUpgrade() {
     return migrateUpgrade;
   }
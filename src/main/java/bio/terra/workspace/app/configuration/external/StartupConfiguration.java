@@ -0,0 +1,41 @@
+package bio.terra.workspace.app.configuration.external;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties
+@ConfigurationProperties(prefix = "workspace.startup")
+public class StartupConfiguration {
+  /** Seconds allowed for migrating the workspace database, including waiting on other instances */
+  private int workspaceMigrationTimeoutSeconds = 900;
+  /** Seconds allowed for initializing Stairway and migrating its database */
+  private int stairwayInitializeTimeoutSeconds = 300;
+  /** Seconds allowed for recovering Stairway flights and starting Stairway */
+  private int stairwayRecoveryTimeoutSeconds = 300;
+
+  public int getWorkspaceMigrationTimeoutSeconds() {
+    return workspaceMigrationTimeoutSeconds;
+  }
+
+  public void setWorkspaceMigrationTimeoutSeconds(int workspaceMigrationTimeoutSeconds) {
+    this.workspaceMigrationTimeoutSeconds = workspaceMigrationTimeoutSeconds;
+  }
+
+  public int getStairwayInitializeTimeoutSeconds() {
+    return stairwayInitializeTimeoutSeconds;
+  }
+
+  public void setStairwayInitializeTimeoutSeconds(int stairwayInitializeTimeoutSeconds) {
+    this.stairwayInitializeTimeoutSeconds = stairwayInitializeTimeoutSeconds;
+  }
+
+  public int getStairwayRecoveryTimeoutSeconds() {
+    return stairwayRecoveryTimeoutSeconds;
+  }
+
+  public void setStairwayRecoveryTimeoutSeconds(int stairwayRecoveryTimeoutSeconds) {
+    this.stairwayRecoveryTimeoutSeconds = stairwayRecoveryTimeoutSeconds;
+  }
+}
@@ -0,0 +1,82 @@
+package bio.terra.workspace.app.configuration.external;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Configuration for the periodic checks of the subsystems reported by the status endpoint. */
+@Configuration
+@EnableConfigurationProperties
+@ConfigurationProperties(prefix = "workspace.status-check")
+public class StatusCheckConfiguration {
+  /** Cron expression for when to check subsystems; "-" disables the periodic check */
+  private String cron;
+  /** Milliseconds after the last check at which the status is reported as stale */
+  private long stalenessThresholdMs = 600000;
+  /** Number of threads running status checks; checks beyond this wait for a free thread */
+  private int checkThreads = 4;
+  /** Number of recent checks of each subsystem kept for the detailed status */
+  private int historySize = 60;
+  /** Seconds a Postgres status check may take before it is cancelled */
+  private int postgresTimeoutSeconds = 5;
+  /** Seconds a Sam status check may take before it is cancelled */
+  private int samTimeoutSeconds = 10;
+  /** Seconds a Data Repo status check may take before it is cancelled */
+  private int dataRepoTimeoutSeconds = 10;
+
+  public String getCron() {
+    return cron;
+  }
+
+  public void setCron(String cron) {
+    this.cron = cron;
+  }
+
+  public long getStalenessThresholdMs() {
+    return stalenessThresholdMs;
+  }
+
+  public void setStalenessThresholdMs(long stalenessThresholdMs) {
+    this.stalenessThresholdMs = stalenessThresholdMs;
+  }
+
+  public int getCheckThreads() {
+    return checkThreads;
+  }
+
+  public void setCheckThreads(int checkThreads) {
+    this.checkThreads = checkThreads;
+  }
+
+  public int getHistorySize() {
+    return historySize;
+  }
+
+  public void setHistorySize(int historySize) {
+    this.historySize = historySize;
+  }
+
+  public int getPostgresTimeoutSeconds() {
+    return postgresTimeoutSeconds;
+  }
+
+  public void setPostgresTimeoutSeconds(int postgresTimeoutSeconds) {
+    this.postgresTimeoutSeconds = postgresTimeoutSeconds;
+  }
+
+  public int getSamTimeoutSeconds() {
+    return samTimeoutSeconds;
+  }
+
+  public void setSamTimeoutSeconds(int samTimeoutSeconds) {
+    this.samTimeoutSeconds = samTimeoutSeconds;
+  }
+
+  public int getDataRepoTimeoutSeconds() {
+    return dataRepoTimeoutSeconds;
+  }
+
+  public void setDataRepoTimeoutSeconds(int dataRepoTimeoutSeconds) {
+    this.dataRepoTimeoutSeconds = dataRepoTimeoutSeconds;
+  }
+}
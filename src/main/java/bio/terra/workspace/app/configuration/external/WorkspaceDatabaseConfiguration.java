@@ -24,6 +24,16 @@ public class WorkspaceDatabaseConfiguration extends BaseDatabaseConfiguration {
   private boolean initializeOnStart;
   /** If true, primary database will have changesets applied */
   private boolean upgradeOnStart;
+  /** If true, an upgrade is skipped when the database already records this changelog fingerprint */
+  private boolean skipMigrationIfCurrent;
+  /** If true, only one instance at a time upgrades the database while the others wait */
+  private boolean electMigrationLeader;
+  /** How long an instance waits for another instance to upgrade the database */
+  private int migrationLeaderWaitSeconds = 600;
+
+  public WorkspaceDatabaseConfiguration() {
+    super("workspace-database");
+  }
 
   public boolean isInitializeOnStart() {
     return initializeOnStart;
@@ -41,6 +51,30 @@ public class WorkspaceDatabaseConfiguration extends BaseDatabaseConfiguration {
     this.upgradeOnStart = upgradeOnStart;
   }
 
+  public boolean isSkipMigrationIfCurrent() {
+    return skipMigrationIfCurrent;
+  }
+
+  public void setSkipMigrationIfCurrent(boolean skipMigrationIfCurrent) {
+    this.skipMigrationIfCurrent = skipMigrationIfCurrent;
+  }
+
+  public boolean isElectMigrationLeader() {
+    return electMigrationLeader;
+  }
+
+  public void setElectMigrationLeader(boolean electMigrationLeader) {
+    this.electMigrationLeader = electMigrationLeader;
+  }
+
+  public int getMigrationLeaderWaitSeconds() {
+    return migrationLeaderWaitSeconds;
+  }
+
+  public void setMigrationLeaderWaitSeconds(int migrationLeaderWaitSeconds) {
+    this.migrationLeaderWaitSeconds = migrationLeaderWaitSeconds;
+  }
+
   // This bean plus the @EnableTransactionManagement annotation above enables the use of the
   // @Transaction annotation to control the transaction properties of the data source.
   @Bean("transactionManager")
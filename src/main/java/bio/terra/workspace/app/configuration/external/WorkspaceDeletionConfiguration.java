@@ -0,0 +1,62 @@
+package bio.terra.workspace.app.configuration.external;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Configuration for the background deletion of deleted workspaces' Google projects. */
+@Configuration
+@EnableConfigurationProperties
+@ConfigurationProperties(prefix = "workspace.deletion")
+public class WorkspaceDeletionConfiguration {
+  /** Whether the reaper runs periodically on this instance */
+  private boolean reaperEnabled = true;
+  /** Maximum number of projects one instance takes from the teardown queue at a time */
+  private int reaperBatchSize = 50;
+  /** Maximum number of projects one instance deletes at the same time */
+  private int reaperConcurrency = 4;
+  /** Seconds between the end of one batch and the start of the next */
+  private int reaperIntervalSeconds = 30;
+  /** Seconds after which a claimed project that is still queued is claimed again */
+  private int reaperClaimTimeoutSeconds = 600;
+
+  public boolean isReaperEnabled() {
+    return reaperEnabled;
+  }
+
+  public void setReaperEnabled(boolean reaperEnabled) {
+    this.reaperEnabled = reaperEnabled;
+  }
+
+  public int getReaperBatchSize() {
+    return reaperBatchSize;
+  }
+
+  public void setReaperBatchSize(int reaperBatchSize) {
+    this.reaperBatchSize = reaperBatchSize;
+  }
+
+  public int getReaperConcurrency() {
+    return reaperConcurrency;
+  }
+
+  public void setReaperConcurrency(int reaperConcurrency) {
+    this.reaperConcurrency = reaperConcurrency;
+  }
+
+  public int getReaperIntervalSeconds() {
+    return reaperIntervalSeconds;
+  }
+
+  public void setReaperIntervalSeconds(int reaperIntervalSeconds) {
+    this.reaperIntervalSeconds = reaperIntervalSeconds;
+  }
+
+  public int getReaperClaimTimeoutSeconds() {
+    return reaperClaimTimeoutSeconds;
+  }
+
+  public void setReaperClaimTimeoutSeconds(int reaperClaimTimeoutSeconds) {
+    this.reaperClaimTimeoutSeconds = reaperClaimTimeoutSeconds;
+  }
+}
@@ -0,0 +1,164 @@
+package bio.terra.workspace.app.configuration.spring;
+
+import bio.terra.workspace.app.StartupInitializer;
+import bio.terra.workspace.app.StartupTimings;
+import bio.terra.workspace.app.configuration.BaseDatabaseConfiguration;
+import bio.terra.workspace.app.configuration.ConnectionPoolStats;
+import bio.terra.workspace.app.configuration.external.StairwayDatabaseConfiguration;
+import bio.terra.workspace.app.configuration.external.WorkspaceDatabaseConfiguration;
+import bio.terra.workspace.service.datarepo.SnapshotExistenceCache;
+import bio.terra.workspace.service.iam.SamAuthorizationCache;
+import com.google.common.cache.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * Metrics beyond those Spring Boot records itself. They are served in the Prometheus format by the
+ * actuator on the management port.
+ *
+ * <p>Components that time their own work, such as the flight hook and the Google operation poller,
+ * record into the {@link MeterRegistry} directly; this class binds state that other components
+ * only hold.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean // tags request metrics with the API operation, which is the name of the handler method
+  public WebMvcTagsContributor operationTagsContributor() {
+    return new WebMvcTagsContributor() {
+      @Override
+      public Iterable<Tag> getTags(
+          HttpServletRequest request,
+          HttpServletResponse response,
+          Object handler,
+          Throwable exception) {
+        return Tags.of(operationTag(handler));
+      }
+
+      @Override
+      public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+        return Tags.of(operationTag(handler));
+      }
+    };
+  }
+
+  private static Tag operationTag(Object handler) {
+    return Tag.of(
+        "operation",
+        handler instanceof HandlerMethod
+            ? ((HandlerMethod) handler).getMethod().getName()
+            : "none");
+  }
+
+  @Bean
+  public MeterBinder connectionPoolMetrics(
+      WorkspaceDatabaseConfiguration workspaceDatabaseConfiguration,
+      StairwayDatabaseConfiguration stairwayDatabaseConfiguration) {
+    return registry -> {
+      for (BaseDatabaseConfiguration config :
+          List.of(workspaceDatabaseConfiguration, stairwayDatabaseConfiguration)) {
+        poolGauge(
+            registry, config, "active", "Connections handed out", ConnectionPoolStats::active);
+        poolGauge(
+            registry, config, "idle", "Open connections in the pool", ConnectionPoolStats::idle);
+        poolGauge(
+            registry,
+            config,
+            "waiters",
+            "Callers waiting for a connection",
+            ConnectionPoolStats::waiters);
+        poolGauge(registry, config, "max", "Maximum connections", ConnectionPoolStats::maxTotal);
+        poolGauge(
+            registry,
+            config,
+            "borrow.wait.mean",
+            "Mean time recent callers waited for a connection, in milliseconds",
+            ConnectionPoolStats::meanBorrowWaitMillis);
+      }
+    };
+  }
+
+  private static void poolGauge(
+      MeterRegistry registry,
+      BaseDatabaseConfiguration config,
+      String name,
+      String description,
+      ToDoubleFunction<ConnectionPoolStats> stat) {
+    Gauge.builder("wsm.db.pool." + name, config, c -> stat.applyAsDouble(c.currentPoolStats()))
+        .description(description)
+        .tag("pool", config.getPoolName())
+        .register(registry);
+  }
+
+  @Bean
+  public MeterBinder cacheMetrics(
+      SamAuthorizationCache samAuthorizationCache, SnapshotExistenceCache snapshotExistenceCache) {
+    return registry -> {
+      cacheCounters(
+          registry, "sam-authorization", samAuthorizationCache, SamAuthorizationCache::stats);
+      cacheCounters(
+          registry, "snapshot-existence", snapshotExistenceCache, SnapshotExistenceCache::stats);
+      FunctionCounter.builder(
+              "wsm.cache.coalesced",
+              snapshotExistenceCache,
+              SnapshotExistenceCache::getCoalescedCount)
+          .tag("cache", "snapshot-existence")
+          .register(registry);
+    };
+  }
+
+  private static <T> void cacheCounters(
+      MeterRegistry registry, String cache, T source, Function<T, CacheStats> stats) {
+    FunctionCounter.builder("wsm.cache.hits", source, s -> stats.apply(s).hitCount())
+        .tag("cache", cache)
+        .register(registry);
+    FunctionCounter.builder("wsm.cache.misses", source, s -> stats.apply(s).missCount())
+        .tag("cache", cache)
+        .register(registry);
+    FunctionCounter.builder("wsm.cache.evictions", source, s -> stats.apply(s).evictionCount())
+        .tag("cache", cache)
+        .register(registry);
+  }
+
+  /** Durations of this instance's startup phases; not a number until startup has finished. */
+  @Bean
+  public MeterBinder startupMetrics(StartupTimings startupTimings) {
+    return registry -> {
+      for (String phase :
+          List.of(
+              StartupInitializer.WORKSPACE_MIGRATION_PHASE,
+              StartupInitializer.STAIRWAY_INITIALIZE_PHASE,
+              StartupInitializer.STAIRWAY_RECOVERY_PHASE)) {
+        TimeGauge.builder(
+                "wsm.startup.phase.duration",
+                startupTimings,
+                TimeUnit.MILLISECONDS,
+                timings -> phaseMillis(timings, phase))
+            .description("How long a startup phase of this instance took")
+            .tag("phase", phase)
+            .register(registry);
+      }
+    };
+  }
+
+  private static double phaseMillis(StartupTimings startupTimings, String phase) {
+    Duration duration = startupTimings.getPhaseDurations().get(phase);
+    return (duration == null) ? Double.NaN : duration.toMillis();
+  }
+}
@@ -1,12 +1,14 @@
 package bio.terra.workspace.app.controller;
 
 import bio.terra.workspace.app.configuration.external.VersionConfiguration;
+import bio.terra.workspace.common.utils.StatusSnapshot;
 import bio.terra.workspace.generated.controller.UnauthenticatedApi;
-import bio.terra.workspace.generated.model.SystemStatus;
+import bio.terra.workspace.generated.model.SystemStatusDetails;
 import bio.terra.workspace.generated.model.SystemVersion;
 import bio.terra.workspace.service.status.WorkspaceManagerStatusService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 
@@ -18,7 +20,8 @@ public class UnauthenticatedApiController implements UnauthenticatedApi {
 
   @Autowired
   public UnauthenticatedApiController(
-      WorkspaceManagerStatusService statusService, VersionConfiguration versionConfiguration) {
+      WorkspaceManagerStatusService statusService,
+      VersionConfiguration versionConfiguration) {
     this.statusService = statusService;
 
     this.currentVersion =
@@ -32,10 +35,19 @@ public class UnauthenticatedApiController implements UnauthenticatedApi {
   }
 
   @Override
-  public ResponseEntity<SystemStatus> serviceStatus() {
-    SystemStatus currentStatus = statusService.getCurrentStatus();
-    return new ResponseEntity<>(
-        currentStatus, currentStatus.isOk() ? HttpStatus.valueOf(200) : HttpStatus.valueOf(500));
+  public ResponseEntity<Object> serviceStatus() {
+    // Load balancers probe this endpoint constantly, so return the status serialized when it was
+    // checked instead of serializing it for every request. The ByteArrayHttpMessageConverter
+    // writes these bytes as they are.
+    StatusSnapshot snapshot = statusService.getCurrentSnapshot();
+    return ResponseEntity.status(snapshot.isOk() ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(snapshot.getJson());
+  }
+
+  @Override
+  public ResponseEntity<SystemStatusDetails> serviceStatusDetails() {
+    return new ResponseEntity<>(statusService.getStatusDetails(), HttpStatus.valueOf(200));
   }
 
   @Override
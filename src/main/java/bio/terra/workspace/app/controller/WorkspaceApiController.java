@@ -1,14 +1,21 @@
 package bio.terra.workspace.app.controller;
 
+import bio.terra.workspace.common.exception.ErrorReportException;
+import bio.terra.workspace.common.exception.ValidationException;
 import bio.terra.workspace.common.utils.ControllerValidationUtils;
 import bio.terra.workspace.generated.controller.WorkspaceApi;
 import bio.terra.workspace.generated.model.*;
 import bio.terra.workspace.service.datareference.DataReferenceService;
 import bio.terra.workspace.service.datareference.model.CloningInstructions;
 import bio.terra.workspace.service.datareference.model.DataReference;
+import bio.terra.workspace.service.datareference.model.DataReferenceCreateResult;
+import bio.terra.workspace.service.datareference.model.DataReferenceExport;
+import bio.terra.workspace.service.datareference.model.DataReferenceId;
+import bio.terra.workspace.service.datareference.model.DataReferencePage;
 import bio.terra.workspace.service.datareference.model.DataReferenceRequest;
 import bio.terra.workspace.service.datareference.model.DataReferenceType;
 import bio.terra.workspace.service.datareference.model.SnapshotReference;
+import bio.terra.workspace.service.datareference.model.SnapshotReferencePage;
 import bio.terra.workspace.service.datareference.utils.DataReferenceValidationUtils;
 import bio.terra.workspace.service.iam.AuthenticatedUserRequest;
 import bio.terra.workspace.service.iam.AuthenticatedUserRequestFactory;
@@ -19,21 +26,37 @@ import bio.terra.workspace.service.workspace.WorkspaceService;
 import bio.terra.workspace.service.workspace.model.Workspace;
 import bio.terra.workspace.service.workspace.model.WorkspaceRequest;
 import bio.terra.workspace.service.workspace.model.WorkspaceStage;
+import bio.terra.workspace.service.workspace.model.WorkspaceWithCloudContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Controller
 public class WorkspaceApiController implements WorkspaceApi {
@@ -43,6 +66,14 @@ public class WorkspaceApiController implements WorkspaceApi {
   private JobService jobService;
   private AuthenticatedUserRequestFactory authenticatedUserRequestFactory;
   private final HttpServletRequest request;
+  private final ObjectMapper objectMapper;
+
+  /** Media type of newline-delimited JSON, one object per line. */
+  private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+  /** Size of the buffer between a reference export and the response stream. */
+  private static final int EXPORT_BUFFER_BYTES = 64 * 1024;
+  /** How long a reference export may stream before the container times the request out. */
+  private static final Duration EXPORT_TIMEOUT = Duration.ofMinutes(30);
 
   @Autowired
   public WorkspaceApiController(
@@ -51,13 +82,15 @@ public class WorkspaceApiController implements WorkspaceApi {
       DataReferenceValidationUtils dataReferenceValidation,
       JobService jobService,
       AuthenticatedUserRequestFactory authenticatedUserRequestFactory,
-      HttpServletRequest request) {
+      HttpServletRequest request,
+      ObjectMapper objectMapper) {
     this.workspaceService = workspaceService;
     this.dataReferenceService = dataReferenceService;
     this.dataReferenceValidation = dataReferenceValidation;
     this.jobService = jobService;
     this.authenticatedUserRequestFactory = authenticatedUserRequestFactory;
     this.request = request;
+    this.objectMapper = objectMapper;
   }
 
   private Logger logger = LoggerFactory.getLogger(WorkspaceApiController.class);
@@ -105,8 +138,10 @@ public class WorkspaceApiController implements WorkspaceApi {
   public ResponseEntity<WorkspaceDescription> getWorkspace(@PathVariable("id") UUID id) {
     AuthenticatedUserRequest userReq = getAuthenticatedInfo();
     logger.info(String.format("Getting workspace %s for %s", id.toString(), userReq.getEmail()));
-    Workspace workspace = workspaceService.getWorkspace(id, userReq);
-    WorkspaceCloudContext cloudContext = workspaceService.getCloudContext(id, userReq);
+    WorkspaceWithCloudContext workspaceWithContext =
+        workspaceService.getWorkspaceWithCloudContext(id, userReq);
+    Workspace workspace = workspaceWithContext.workspace();
+    WorkspaceCloudContext cloudContext = workspaceWithContext.cloudContext();
 
     Optional<GoogleContext> googleContext =
         cloudContext.googleProjectId().map(projectId -> new GoogleContext().projectId(projectId));
@@ -122,8 +157,24 @@ public class WorkspaceApiController implements WorkspaceApi {
   }
 
   @Override
-  public ResponseEntity<Void> deleteWorkspace(@PathVariable("id") UUID id) {
+  public ResponseEntity<JobModel> deleteWorkspace(
+      @PathVariable("id") UUID id,
+      @Valid @RequestParam(value = "async", required = false, defaultValue = "false")
+          Boolean async) {
     AuthenticatedUserRequest userReq = getAuthenticatedInfo();
+    if (async) {
+      String jobId = workspaceService.deleteWorkspaceAsync(id, userReq);
+      logger.info(
+          String.format(
+              "Started job %s deleting workspace %s for %s",
+              jobId, id.toString(), userReq.getEmail()));
+      // TODO(PF-221): Fix the jobs polling location once it exists.
+      // The job may have been started by another user deleting the same workspace; the caller's
+      // delete access to the workspace is enough to see it.
+      return ResponseEntity.status(HttpStatus.ACCEPTED)
+          .location(URI.create(String.format("/api/jobs/v1/%s", jobId)))
+          .body(jobService.retrieveJobWithoutUserCheck(jobId));
+    }
     logger.info(String.format("Deleting workspace %s for %s", id.toString(), userReq.getEmail()));
     workspaceService.deleteWorkspace(id, userReq);
     logger.info(String.format("Deleted workspace %s for %s", id.toString(), userReq.getEmail()));
@@ -140,6 +191,69 @@ public class WorkspaceApiController implements WorkspaceApi {
             "Creating data reference in workspace %s for %s with body %s",
             id.toString(), userReq.getEmail(), body.toString()));
 
+    DataReferenceRequest referenceRequest = toReferenceRequest(id, body);
+    dataReferenceValidation.validateReferenceObject(
+        referenceRequest.referenceObject(), referenceRequest.referenceType(), userReq);
+
+    DataReference reference = dataReferenceService.createDataReference(referenceRequest, userReq);
+    logger.info(
+        String.format(
+            "Created data reference %s in workspace %s for %s ",
+            reference.toString(), id.toString(), userReq.getEmail()));
+
+    return new ResponseEntity<>(reference.toApiModel(), HttpStatus.OK);
+  }
+
+  @Override
+  public ResponseEntity<CreateDataReferencesResult> createDataReferences(
+      @PathVariable("id") UUID id, @RequestBody CreateDataReferencesRequestBody body) {
+    AuthenticatedUserRequest userReq = getAuthenticatedInfo();
+    logger.info(
+        String.format(
+            "Creating %d data references in workspace %s for %s",
+            body.getReferences().size(), id.toString(), userReq.getEmail()));
+
+    // Malformed references fail the whole request; only validation against Data Repo and name
+    // conflicts are reported per reference.
+    List<DataReferenceRequest> referenceRequests = new ArrayList<>();
+    List<String> errors = new ArrayList<>();
+    for (int i = 0; i < body.getReferences().size(); i++) {
+      try {
+        referenceRequests.add(toReferenceRequest(id, body.getReferences().get(i)));
+      } catch (ErrorReportException e) {
+        errors.add(String.format("references[%d]: %s", i, e.getMessage()));
+      }
+    }
+    if (!errors.isEmpty()) {
+      throw new ValidationException("Invalid data references.", errors);
+    }
+
+    List<DataReferenceCreateResult> results =
+        dataReferenceService.createDataReferences(id, referenceRequests, userReq);
+    CreateDataReferencesResult response = new CreateDataReferencesResult();
+    for (DataReferenceCreateResult result : results) {
+      response.addResultsItem(
+          new CreateDataReferenceResult()
+              .reference(result.reference().map(DataReference::toApiModel).orElse(null))
+              .errorReport(result.error().map(WorkspaceApiController::toErrorReport).orElse(null)));
+    }
+    logger.info(
+        String.format(
+            "Created %d of %d data references in workspace %s for %s",
+            results.stream().filter(result -> result.reference().isPresent()).count(),
+            results.size(),
+            id.toString(),
+            userReq.getEmail()));
+
+    return new ResponseEntity<>(response, HttpStatus.OK);
+  }
+
+  /**
+   * Checks the fields of a create reference request body and translates it to an internal request.
+   * This does not validate the referenced object itself.
+   */
+  private static DataReferenceRequest toReferenceRequest(
+      UUID workspaceId, CreateDataReferenceRequestBody body) {
     ControllerValidationUtils.validate(body);
     DataReferenceValidationUtils.validateReferenceName(body.getName());
     // TODO: this will require more translation when we add additional reference types.
@@ -147,23 +261,21 @@ public class WorkspaceApiController implements WorkspaceApi {
     SnapshotReference snapshot =
         SnapshotReference.create(
             body.getReference().getInstanceName(), body.getReference().getSnapshot());
-    dataReferenceValidation.validateReferenceObject(snapshot, referenceType, userReq);
-
-    DataReferenceRequest referenceRequest =
-        DataReferenceRequest.builder()
-            .workspaceId(id)
-            .name(body.getName())
-            .referenceType(referenceType)
-            .cloningInstructions(CloningInstructions.fromApiModel(body.getCloningInstructions()))
-            .referenceObject(snapshot)
-            .build();
-    DataReference reference = dataReferenceService.createDataReference(referenceRequest, userReq);
-    logger.info(
-        String.format(
-            "Created data reference %s in workspace %s for %s ",
-            reference.toString(), id.toString(), userReq.getEmail()));
 
-    return new ResponseEntity<>(reference.toApiModel(), HttpStatus.OK);
+    return DataReferenceRequest.builder()
+        .workspaceId(workspaceId)
+        .name(body.getName())
+        .referenceType(referenceType)
+        .cloningInstructions(CloningInstructions.fromApiModel(body.getCloningInstructions()))
+        .referenceObject(snapshot)
+        .build();
+  }
+
+  private static ErrorReport toErrorReport(ErrorReportException exception) {
+    return new ErrorReport()
+        .message(exception.getMessage())
+        .statusCode(exception.getStatusCode().value())
+        .causes(exception.getCauses());
   }
 
   @Override
@@ -226,24 +338,104 @@ public class WorkspaceApiController implements WorkspaceApi {
   public ResponseEntity<DataReferenceList> enumerateReferences(
       @PathVariable("id") UUID id,
       @Valid @RequestParam(value = "offset", required = false, defaultValue = "0") Integer offset,
-      @Valid @RequestParam(value = "limit", required = false, defaultValue = "10") Integer limit) {
+      @Valid @RequestParam(value = "limit", required = false, defaultValue = "10") Integer limit,
+      @Valid @RequestParam(value = "pageToken", required = false) String pageToken) {
     AuthenticatedUserRequest userReq = getAuthenticatedInfo();
     logger.info(
         String.format(
             "Getting data references in workspace %s for %s", id.toString(), userReq.getEmail()));
-    ControllerValidationUtils.validatePaginationParams(offset, limit);
-    List<DataReference> enumerateResult =
-        dataReferenceService.enumerateDataReferences(id, offset, limit, userReq);
+    ControllerValidationUtils.validatePaginationParams(offset, limit, pageToken);
+    DataReferenceList responseList = new DataReferenceList();
+    List<DataReference> enumerateResult;
+    if (offset > 0) {
+      enumerateResult = dataReferenceService.enumerateDataReferences(id, offset, limit, userReq);
+    } else {
+      DataReferencePage page =
+          dataReferenceService.enumerateDataReferencePage(id, pageToken, limit, userReq);
+      enumerateResult = page.references();
+      responseList.nextPageToken(page.nextPageToken().orElse(null));
+    }
     logger.info(
         String.format(
             "Got data references in workspace %s for %s", id.toString(), userReq.getEmail()));
-    DataReferenceList responseList = new DataReferenceList();
     for (DataReference ref : enumerateResult) {
       responseList.addResourcesItem(ref.toApiModel());
     }
     return ResponseEntity.ok(responseList);
   }
 
+  @Override
+  public ResponseEntity<SnapshotReferenceList> enumerateSnapshotReferences(
+      @PathVariable("instanceName") String instanceName,
+      @PathVariable("snapshotId") String snapshotId,
+      @Valid @RequestParam(value = "limit", required = false, defaultValue = "10") Integer limit,
+      @Valid @RequestParam(value = "pageToken", required = false) String pageToken) {
+    AuthenticatedUserRequest userReq = getAuthenticatedInfo();
+    logger.info(
+        String.format(
+            "Getting references to snapshot %s on Data Repo instance %s for %s",
+            snapshotId, instanceName, userReq.getEmail()));
+    ControllerValidationUtils.validatePaginationParams(0, limit, pageToken);
+    SnapshotReferencePage page =
+        dataReferenceService.enumerateSnapshotReferencePage(
+            instanceName, snapshotId, pageToken, limit, userReq);
+    SnapshotReferenceList responseList =
+        new SnapshotReferenceList().nextPageToken(page.nextPageToken().orElse(null));
+    for (DataReferenceId reference : page.references()) {
+      responseList.addReferencesItem(
+          new SnapshotReferenceDescription()
+              .workspaceId(reference.workspaceId())
+              .referenceId(reference.referenceId()));
+    }
+    return ResponseEntity.ok(responseList);
+  }
+
+  /**
+   * Streams every data reference in a workspace as newline-delimited JSON, one
+   * DataReferenceDescription per line.
+   *
+   * <p>This endpoint is not part of the generated API: the response body is written while rows are
+   * read from the database, which the generated interfaces cannot express.
+   */
+  @GetMapping(value = "/api/workspaces/v1/{id}/datareferences/export", produces = NDJSON_MEDIA_TYPE)
+  public ResponseEntity<StreamingResponseBody> exportReferences(@PathVariable("id") UUID id) {
+    AuthenticatedUserRequest userReq = getAuthenticatedInfo();
+    logger.info(
+        String.format(
+            "Exporting data references in workspace %s for %s", id.toString(), userReq.getEmail()));
+    DataReferenceExport export = dataReferenceService.exportDataReferences(id, userReq);
+    WebAsyncUtils.getAsyncManager(request)
+        .registerCallableInterceptor(
+            ExportTimeoutInterceptor.class.getName(), new ExportTimeoutInterceptor());
+    StreamingResponseBody body =
+        outputStream -> {
+          BufferedOutputStream bufferedStream =
+              new BufferedOutputStream(outputStream, EXPORT_BUFFER_BYTES);
+          export.forEach(
+              reference -> {
+                try {
+                  bufferedStream.write(objectMapper.writeValueAsBytes(reference.toApiModel()));
+                  bufferedStream.write('\n');
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+          bufferedStream.flush();
+        };
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE)).body(body);
+  }
+
+  /**
+   * Extends the async timeout of a single export request. It runs after the handler returns and
+   * before the request is put into async mode, so other requests keep the container default.
+   */
+  private static class ExportTimeoutInterceptor implements CallableProcessingInterceptor {
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+      ((AsyncWebRequest) request).setTimeout(EXPORT_TIMEOUT.toMillis());
+    }
+  }
+
   /* Job endpoints disabled for now
   @Override
   public ResponseEntity<Void> deleteJob(@PathVariable("id") String id) {
@@ -288,4 +480,34 @@ public class WorkspaceApiController implements WorkspaceApi {
     workspaceService.deleteGoogleContext(id, userReq);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
+
+  @Override
+  public ResponseEntity<GoogleProjectWorkspace> getGoogleProjectWorkspace(
+      @PathVariable("projectId") String projectId) {
+    AuthenticatedUserRequest userReq = getAuthenticatedInfo();
+    logger.info(
+        String.format(
+            "Getting workspace of Google project %s for %s", projectId, userReq.getEmail()));
+    UUID workspaceId = workspaceService.getWorkspaceIdByGoogleProjectId(projectId, userReq);
+    return ResponseEntity.ok(
+        new GoogleProjectWorkspace().projectId(projectId).workspaceId(workspaceId));
+  }
+
+  @Override
+  public ResponseEntity<GoogleProjectWorkspaceList> getGoogleProjectWorkspaces(
+      @RequestBody GoogleProjectWorkspacesRequestBody body) {
+    AuthenticatedUserRequest userReq = getAuthenticatedInfo();
+    logger.info(
+        String.format(
+            "Getting workspaces of %d Google projects for %s",
+            body.getProjectIds().size(), userReq.getEmail()));
+    Map<String, UUID> workspaceIds =
+        workspaceService.getWorkspaceIdsByGoogleProjectIds(body.getProjectIds(), userReq);
+    GoogleProjectWorkspaceList responseList = new GoogleProjectWorkspaceList();
+    workspaceIds.forEach(
+        (projectId, workspaceId) ->
+            responseList.addWorkspacesItem(
+                new GoogleProjectWorkspace().projectId(projectId).workspaceId(workspaceId)));
+    return ResponseEntity.ok(responseList);
+  }
 }
@@ -0,0 +1,14 @@
+package bio.terra.workspace.app.exception;
+
+import bio.terra.workspace.common.exception.InternalServerErrorException;
+
+/** Thrown when a startup phase fails or does not finish in time. */
+public class StartupException extends InternalServerErrorException {
+  public StartupException(String message) {
+    super(message);
+  }
+
+  public StartupException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,12 @@
+package bio.terra.workspace.common.exception;
+
+public class StatusSerializationException extends InternalServerErrorException {
+
+  public StatusSerializationException(String message) {
+    super(message);
+  }
+
+  public StatusSerializationException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
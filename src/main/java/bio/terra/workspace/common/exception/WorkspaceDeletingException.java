@@ -0,0 +1,9 @@
+package bio.terra.workspace.common.exception;
+
+/** Exception for a change to a workspace that is being deleted. */
+public class WorkspaceDeletingException extends ConflictException {
+
+  public WorkspaceDeletingException(String message) {
+    super(message);
+  }
+}
@@ -1,91 +1,306 @@
 package bio.terra.workspace.common.utils;
 
+import bio.terra.workspace.generated.model.SubsystemStatusCheck;
+import bio.terra.workspace.generated.model.SubsystemStatusDetails;
 import bio.terra.workspace.generated.model.SystemStatus;
+import bio.terra.workspace.generated.model.SystemStatusDetails;
 import bio.terra.workspace.generated.model.SystemStatusSystems;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 
 /*
  BaseStatusService is a Spring replacement for workbench-libs' HealthMonitor utilities. It checks
  status information from subsystems asynchronously at regular intervals and provides a cached
  version of the latest statuses to support a high-traffic status endpoint.
+ Each round of checks is published as one immutable snapshot, serialized to JSON once, so readers
+ never see a partially updated status and status requests do no serialization.
  It also tracks time since the last update and returns an unhealthy status if subsystems are not
  checked after some amount of time, which indicates that something has gone wrong.
 
+ Status checks run on a small dedicated executor, so that a hung dependency cannot starve other
+ users of a shared pool. Each subsystem's check must finish within the subsystem's timeout,
+ measured from the start of the round of checks; checks that overrun are interrupted and reported
+ as not ok. The executor's queue is bounded, so checks that ignore interruption cannot pile up
+ work indefinitely. The most recent checks of each subsystem are kept for the detailed status.
+
  Specific services should extend this class with Component objects that register the appropriate
  subsystems.
 */
 public class BaseStatusService {
+  private static final int DEFAULT_CHECK_THREADS = 4;
+  private static final int DEFAULT_HISTORY_SIZE = 60;
+  /** Maximum number of checks waiting for an executor thread; more than any service registers. */
+  private static final int CHECK_QUEUE_CAPACITY = 32;
 
   private ConcurrentHashMap<String, StatusSubsystem> subsystems;
-  private long lastUpdatedTimestampMillis;
-  private SystemStatus currentStatus;
+  private ConcurrentHashMap<String, StatusCheckHistory> histories;
+  private ThreadPoolExecutor checkExecutor;
+  private int historySize;
+  private ObjectMapper objectMapper;
+  private AtomicReference<PublishedStatus> publishedStatus;
   private long staleThresholdMillis;
 
+  private final Logger logger = LoggerFactory.getLogger(BaseStatusService.class);
+
   public BaseStatusService(long staleThresholdMillis) {
+    this(staleThresholdMillis, DEFAULT_CHECK_THREADS, DEFAULT_HISTORY_SIZE);
+  }
+
+  public BaseStatusService(long staleThresholdMillis, int checkThreads, int historySize) {
+    this(staleThresholdMillis, checkThreads, historySize, new ObjectMapper());
+  }
+
+  /**
+   * @param objectMapper serializes the published statuses; it should be the mapper used for
+   *     responses, so that cached and serialized statuses match
+   */
+  public BaseStatusService(
+      long staleThresholdMillis, int checkThreads, int historySize, ObjectMapper objectMapper) {
     subsystems = new ConcurrentHashMap<>();
-    currentStatus = new SystemStatus().ok(false);
-    lastUpdatedTimestampMillis = 0;
+    histories = new ConcurrentHashMap<>();
+    checkExecutor =
+        new ThreadPoolExecutor(
+            checkThreads,
+            checkThreads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(CHECK_QUEUE_CAPACITY),
+            new ThreadFactoryBuilder().setNameFormat("status-check-%d").setDaemon(true).build());
+    this.historySize = historySize;
+    this.objectMapper = objectMapper;
     this.staleThresholdMillis = staleThresholdMillis;
+    publishedStatus =
+        new AtomicReference<>(
+            publish(/*lastUpdatedTimestampMillis=*/ 0, new SystemStatus().ok(false)));
   }
 
   protected void registerSubsystem(String name, StatusSubsystem subsystem) {
     subsystems.put(name, subsystem);
+    histories.put(name, new StatusCheckHistory(historySize));
   }
 
   @Scheduled(cron = "${workspace.status-check.cron}")
   public void checkSubsystems() {
-    // SystemStatus uses the thread-unsafe HashMap to hold SystemStatusSystems objects by default.
-    // Instead of calling putSystemsItems from multiple threads, we safely construct a subsystem
-    // status map here and then pass the complete map.
-    ConcurrentHashMap<String, SystemStatusSystems> tmpSubsystemStatusMap =
-        new ConcurrentHashMap<>();
-    AtomicBoolean systemOk = new AtomicBoolean(true);
+    Instant checked = Instant.now();
+    long startNanos = System.nanoTime();
+    Map<String, Future<StatusCheckResult>> checks = new HashMap<>();
+    Map<String, StatusCheckResult> results = new HashMap<>();
     subsystems.forEach(
-        /*parallelismThreshold=*/ 1,
         (name, subsystem) -> {
-          SystemStatusSystems subsystemStatus = null;
           try {
-            subsystemStatus = subsystem.getStatusCheckFn().get();
-            subsystemStatus.critical(subsystem.isCritical());
-          } catch (Exception e) {
-            subsystemStatus =
-                new SystemStatusSystems()
-                    .ok(false)
-                    .critical(subsystem.isCritical())
-                    .addMessagesItem("Error checking status: " + e.getLocalizedMessage());
-          }
-          tmpSubsystemStatusMap.put(name, subsystemStatus);
-          if (subsystem.isCritical() && !subsystemStatus.isOk()) {
-            systemOk.set(false);
+            checks.put(name, checkExecutor.submit(() -> runCheck(subsystem, checked)));
+          } catch (RejectedExecutionException e) {
+            results.put(
+                name,
+                notCompleted(
+                    checked,
+                    startNanos,
+                    StatusCheckResult.Outcome.SKIPPED,
+                    "Status check skipped: too many status checks are still running"));
           }
         });
-    lastUpdatedTimestampMillis = System.currentTimeMillis();
+
+    for (Map.Entry<String, Future<StatusCheckResult>> check : checks.entrySet()) {
+      Future<StatusCheckResult> future = check.getValue();
+      long deadlineNanos = startNanos + subsystems.get(check.getKey()).getTimeout().toNanos();
+      try {
+        results.put(
+            check.getKey(),
+            future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS));
+      } catch (TimeoutException e) {
+        future.cancel(/*mayInterruptIfRunning=*/ true);
+        StatusCheckResult result =
+            notCompleted(
+                checked,
+                startNanos,
+                StatusCheckResult.Outcome.TIMED_OUT,
+                "Status check timed out after "
+                    + subsystems.get(check.getKey()).getTimeout().toMillis()
+                    + " ms");
+        logger.warn(String.format("Status check of %s timed out", check.getKey()));
+        results.put(check.getKey(), result);
+      } catch (ExecutionException e) {
+        // runCheck catches the check's own exceptions, so this is unexpected.
+        results.put(
+            check.getKey(),
+            notCompleted(
+                checked,
+                startNanos,
+                StatusCheckResult.Outcome.ERROR,
+                "Error checking status: " + e.getCause().getLocalizedMessage()));
+      } catch (InterruptedException e) {
+        // Shutting down; keep the last complete status.
+        checks.values().forEach(f -> f.cancel(/*mayInterruptIfRunning=*/ true));
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+
+    // SystemStatus uses the thread-unsafe HashMap to hold SystemStatusSystems objects by default.
+    // Instead of calling putSystemsItems while checks are still running, we construct a subsystem
+    // status map here and then pass the complete map.
+    Map<String, SystemStatusSystems> tmpSubsystemStatusMap = new HashMap<>();
+    boolean systemOk = true;
+    for (Map.Entry<String, StatusCheckResult> entry : results.entrySet()) {
+      StatusCheckResult result = entry.getValue();
+      boolean critical = subsystems.get(entry.getKey()).isCritical();
+      histories.get(entry.getKey()).add(result);
+      SystemStatusSystems subsystemStatus =
+          new SystemStatusSystems().ok(result.isOk()).critical(critical);
+      result.messages().forEach(subsystemStatus::addMessagesItem);
+      tmpSubsystemStatusMap.put(entry.getKey(), subsystemStatus);
+      if (critical && !result.isOk()) {
+        systemOk = false;
+      }
+    }
+    long lastUpdatedTimestampMillis = System.currentTimeMillis();
     Date lastUpdatedDate = new Date(lastUpdatedTimestampMillis);
     tmpSubsystemStatusMap.put(
         "Staleness",
         new SystemStatusSystems()
             .ok(true)
             .addMessagesItem("Systems last checked " + lastUpdatedDate.toString()));
-    currentStatus.ok(systemOk.get()).setSystems(tmpSubsystemStatusMap);
+    publishedStatus.set(
+        publish(
+            lastUpdatedTimestampMillis,
+            new SystemStatus().ok(systemOk).systems(tmpSubsystemStatusMap)));
+  }
+
+  /**
+   * Builds the snapshots to publish for a round of checks: the status itself, and the status to
+   * report instead once the round is older than the staleness threshold.
+   */
+  private PublishedStatus publish(long lastUpdatedTimestampMillis, SystemStatus status) {
+    Date lastCheckDate = new Date(lastUpdatedTimestampMillis);
+    String timeoutMessage =
+        "Subsystem status has not been checked since "
+            + lastCheckDate.toString()
+            + ", exceeding deadline of "
+            + staleThresholdMillis
+            + " ms.";
+    SystemStatus staleStatus =
+        new SystemStatus()
+            .ok(false)
+            .putSystemsItem(
+                "Staleness", new SystemStatusSystems().ok(false).addMessagesItem(timeoutMessage));
+    return new PublishedStatus(
+        lastUpdatedTimestampMillis,
+        StatusSnapshot.of(status, objectMapper),
+        StatusSnapshot.of(staleStatus, objectMapper));
+  }
+
+  /** Runs one subsystem's status check, turning exceptions into an ERROR result. */
+  private StatusCheckResult runCheck(StatusSubsystem subsystem, Instant checked) {
+    long startNanos = System.nanoTime();
+    StatusCheckResult.Builder result = StatusCheckResult.builder().checked(checked);
+    try {
+      SystemStatusSystems status = subsystem.getStatusCheckFn().get();
+      result
+          .outcome(
+              status.isOk() ? StatusCheckResult.Outcome.OK : StatusCheckResult.Outcome.FAILED)
+          .messages(status.getMessages() == null ? List.of() : status.getMessages());
+    } catch (Exception e) {
+      result
+          .outcome(StatusCheckResult.Outcome.ERROR)
+          .messages(List.of("Error checking status: " + e.getLocalizedMessage()));
+    }
+    return result.latency(Duration.ofNanos(System.nanoTime() - startNanos)).build();
+  }
+
+  private static StatusCheckResult notCompleted(
+      Instant checked, long startNanos, StatusCheckResult.Outcome outcome, String message) {
+    return StatusCheckResult.builder()
+        .checked(checked)
+        .latency(Duration.ofNanos(System.nanoTime() - startNanos))
+        .outcome(outcome)
+        .messages(List.of(message))
+        .build();
   }
 
   public SystemStatus getCurrentStatus() {
-    if (System.currentTimeMillis() - lastUpdatedTimestampMillis > staleThresholdMillis) {
-      Date lastCheckDate = new Date(lastUpdatedTimestampMillis);
-      String timeoutMessage =
-          "Subsystem status has not been checked since "
-              + lastCheckDate.toString()
-              + ", exceeding deadline of "
-              + staleThresholdMillis
-              + " ms.";
-      return new SystemStatus()
-          .ok(false)
-          .putSystemsItem(
-              "Staleness", new SystemStatusSystems().ok(false).addMessagesItem(timeoutMessage));
+    return getCurrentSnapshot().getStatus();
+  }
+
+  /** Returns the current status with its JSON serialization, for serving the status endpoint. */
+  public StatusSnapshot getCurrentSnapshot() {
+    return currentSnapshot(publishedStatus.get());
+  }
+
+  private StatusSnapshot currentSnapshot(PublishedStatus published) {
+    if (System.currentTimeMillis() - published.lastUpdatedTimestampMillis > staleThresholdMillis) {
+      return published.stale;
+    }
+    return published.current;
+  }
+
+  /** Returns the recent checks of each subsystem, oldest first, keyed by subsystem name. */
+  public Map<String, List<StatusCheckResult>> getCheckHistory() {
+    Map<String, List<StatusCheckResult>> history = new TreeMap<>();
+    histories.forEach((name, subsystemHistory) -> history.put(name, subsystemHistory.getResults()));
+    return history;
+  }
+
+  /** Returns the current status along with each subsystem's configuration and recent checks. */
+  public SystemStatusDetails getStatusDetails() {
+    PublishedStatus published = publishedStatus.get();
+    SystemStatusDetails details =
+        new SystemStatusDetails()
+            .ok(currentSnapshot(published).isOk())
+            .lastChecked(Instant.ofEpochMilli(published.lastUpdatedTimestampMillis).toString());
+    getCheckHistory()
+        .forEach(
+            (name, results) ->
+                details.putSystemsItem(
+                    name,
+                    new SubsystemStatusDetails()
+                        .critical(subsystems.get(name).isCritical())
+                        .timeoutMillis(subsystems.get(name).getTimeout().toMillis())
+                        .checks(
+                            results.stream()
+                                .map(BaseStatusService::toApiCheck)
+                                .collect(Collectors.toList()))));
+    return details;
+  }
+
+  private static SubsystemStatusCheck toApiCheck(StatusCheckResult result) {
+    return new SubsystemStatusCheck()
+        .checked(result.checked().toString())
+        .latencyMillis(result.latency().toMillis())
+        .outcome(SubsystemStatusCheck.OutcomeEnum.valueOf(result.outcome().name()))
+        .messages(result.messages());
+  }
+
+  /** The snapshots published for one round of checks. */
+  private static final class PublishedStatus {
+    private final long lastUpdatedTimestampMillis;
+    private final StatusSnapshot current;
+    private final StatusSnapshot stale;
+
+    private PublishedStatus(
+        long lastUpdatedTimestampMillis, StatusSnapshot current, StatusSnapshot stale) {
+      this.lastUpdatedTimestampMillis = lastUpdatedTimestampMillis;
+      this.current = current;
+      this.stale = stale;
     }
-    return currentStatus;
   }
 }
@@ -6,16 +6,19 @@ import bio.terra.workspace.service.datareference.exception.ControlledResourceNot
 import bio.terra.workspace.service.datareference.exception.InvalidDataReferenceException;
 import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.Nullable;
 
 /** Various utilities for validating requests in Controllers. */
 public final class ControllerValidationUtils {
+  /** Largest page that can be requested, the maximum of the Limit parameter in the API. */
+  public static final int MAX_PAGE_LIMIT = 1000;
 
   /**
    * Utility to validate limit/offset parameters used in pagination.
    *
    * <p>This throws ValidationExceptions if invalid offset or limit values are provided. This only
-   * asserts that offset is at least 0 and limit is at least 1. More specific validation can be
-   * added for individual endpoints.
+   * asserts that offset is at least 0 and limit is between 1 and {@link #MAX_PAGE_LIMIT}. More
+   * specific validation can be added for individual endpoints.
    */
   public static void validatePaginationParams(int offset, int limit) {
     List<String> errors = new ArrayList<>();
@@ -25,11 +28,28 @@ public final class ControllerValidationUtils {
     if (limit < 1) {
       errors.add("limit must be greater than or equal to 1.");
     }
+    if (limit > MAX_PAGE_LIMIT) {
+      errors.add(String.format("limit must be less than or equal to %d.", MAX_PAGE_LIMIT));
+    }
     if (!errors.isEmpty()) {
       throw new ValidationException("Invalid pagination parameters.", errors);
     }
   }
 
+  /**
+   * Utility to validate pagination parameters for endpoints that accept either an offset or a page
+   * token. In addition to the checks of {@link #validatePaginationParams(int, int)}, this asserts
+   * that a page token is not combined with a non-zero offset.
+   */
+  public static void validatePaginationParams(int offset, int limit, @Nullable String pageToken) {
+    validatePaginationParams(offset, limit);
+    if (pageToken != null && offset > 0) {
+      throw new ValidationException(
+          "Invalid pagination parameters.",
+          List.of("offset must be 0 when a pageToken is provided."));
+    }
+  }
+
   /**
    * Utility function for validating a CreateDataReferenceRequestBody.
    *
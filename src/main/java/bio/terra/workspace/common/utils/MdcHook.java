@@ -10,6 +10,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nullable;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +22,9 @@ import org.springframework.stereotype.Component;
  *
  * <p>This allows steps to have the same MDC context as when their flight was created. Note that any
  * modifications to the MDC context within a step are not propagated to other steps.
+ *
+ * <p>The context is deserialized once per flight run on this node and kept until the flight ends,
+ * rather than once per step. An empty context is not serialized at all.
  */
 @Component
 public class MdcHook implements StairwayHook {
@@ -30,6 +34,9 @@ public class MdcHook implements StairwayHook {
   private static final TypeReference<Map<String, String>> mapType = new TypeReference<>() {};
 
   private final ObjectMapper objectMapper;
+  /** The deserialized context of the flights running on this node, by flight id. */
+  private final Map<String, ImmutableMap<String, String>> flightContexts =
+      new ConcurrentHashMap<>();
 
   @Autowired
   public MdcHook(ObjectMapper objectMapper) {
@@ -40,17 +47,24 @@ public class MdcHook implements StairwayHook {
    * Returns a serialized version of the current MDC context.
    *
    * <p>This is meant to be used to set up the initial {@link FlightMap} when a Flight is being
-   * created to propagate the context of the flight creation to the steps.
+   * created to propagate the context of the flight creation to the steps. Returns null if the
+   * current context is empty.
    */
+  @Nullable
   public Object getSerializedCurrentContext() {
     return serializeMdc(MDC.getCopyOfContextMap());
   }
 
   @Override
   public HookAction startStep(FlightContext flightContext) {
-    String serializedMdc = flightContext.getInputParameters().get(MDC_FLIGHT_MAP_KEY, String.class);
+    ImmutableMap<String, String> mdcContext =
+        flightContexts.computeIfAbsent(
+            flightContext.getFlightId(),
+            flightId ->
+                deserializeMdc(
+                    flightContext.getInputParameters().get(MDC_FLIGHT_MAP_KEY, String.class)));
     // Note that this destroys any previous context on this thread.
-    MDC.setContextMap(deserializeMdc(serializedMdc));
+    MDC.setContextMap(mdcContext);
     return HookAction.CONTINUE;
   }
 
@@ -68,11 +82,15 @@ public class MdcHook implements StairwayHook {
 
   @Override
   public HookAction endFlight(FlightContext flightContext) {
-    // Do nothing for flights.
+    flightContexts.remove(flightContext.getFlightId());
     return HookAction.CONTINUE;
   }
 
+  @Nullable
   private String serializeMdc(@Nullable Map<String, String> mdcMap) {
+    if (mdcMap == null || mdcMap.isEmpty()) {
+      return null;
+    }
     try {
       return objectMapper.writeValueAsString(mdcMap);
     } catch (JsonProcessingException e) {
@@ -82,7 +100,7 @@ public class MdcHook implements StairwayHook {
     }
   }
 
-  private Map<String, String> deserializeMdc(@Nullable String serializedMdc) {
+  private ImmutableMap<String, String> deserializeMdc(@Nullable String serializedMdc) {
     if (serializedMdc == null) {
       return ImmutableMap.of();
     }
@@ -95,6 +113,6 @@ public class MdcHook implements StairwayHook {
     if (mdcContext == null) {
       return ImmutableMap.of();
     }
-    return mdcContext;
+    return ImmutableMap.copyOf(mdcContext);
   }
 }
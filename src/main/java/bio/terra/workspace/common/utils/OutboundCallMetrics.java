@@ -0,0 +1,80 @@
+package bio.terra.workspace.common.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the latency and outcome of calls from this service to other services, such as Sam, Data
+ * Repo and Google. Calls are timed where they are made, so that answers served from a cache are
+ * not counted as calls.
+ */
+@Component
+public class OutboundCallMetrics {
+  public static final String METRIC_NAME = "wsm.outbound.call";
+
+  public static final String SAM = "sam";
+  public static final String DATA_REPO = "datarepo";
+  public static final String GOOGLE = "google";
+
+  private final MeterRegistry meterRegistry;
+
+  @Autowired
+  public OutboundCallMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  /** A call to another service. */
+  @FunctionalInterface
+  public interface Call<T, E extends Exception> {
+    T call() throws E;
+  }
+
+  /** A call to another service that returns nothing. */
+  @FunctionalInterface
+  public interface VoidCall<E extends Exception> {
+    void call() throws E;
+  }
+
+  /**
+   * Makes a call and records its latency, tagged with the service, the operation, and whether the
+   * call returned or threw.
+   */
+  public <T, E extends Exception> T record(String service, String operation, Call<T, E> call)
+      throws E {
+    long startNanos = System.nanoTime();
+    boolean success = false;
+    try {
+      T result = call.call();
+      success = true;
+      return result;
+    } finally {
+      timer(service, operation, success)
+          .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /** Like {@link #record(String, String, Call)}, for calls that return nothing. */
+  public <E extends Exception> void run(String service, String operation, VoidCall<E> call)
+      throws E {
+    record(
+        service,
+        operation,
+        () -> {
+          call.call();
+          return null;
+        });
+  }
+
+  private Timer timer(String service, String operation, boolean success) {
+    return Timer.builder(METRIC_NAME)
+        .description("Latency of calls to other services")
+        .tag("service", service)
+        .tag("operation", operation)
+        .tag("outcome", success ? "success" : "error")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
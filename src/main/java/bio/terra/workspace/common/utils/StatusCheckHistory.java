@@ -0,0 +1,35 @@
+package bio.terra.workspace.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** A ring buffer holding the most recent status checks of one subsystem. */
+class StatusCheckHistory {
+  private final StatusCheckResult[] results;
+  private int next = 0;
+  private int size = 0;
+
+  StatusCheckHistory(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Status check history must hold at least one check");
+    }
+    results = new StatusCheckResult[capacity];
+  }
+
+  /** Records a check, replacing the oldest one if the history is full. */
+  synchronized void add(StatusCheckResult result) {
+    results[next] = result;
+    next = (next + 1) % results.length;
+    size = Math.min(size + 1, results.length);
+  }
+
+  /** Returns the recorded checks, oldest first. */
+  synchronized List<StatusCheckResult> getResults() {
+    List<StatusCheckResult> ordered = new ArrayList<>(size);
+    int oldest = (next - size + results.length) % results.length;
+    for (int i = 0; i < size; i++) {
+      ordered.add(results[(oldest + i) % results.length]);
+    }
+    return ordered;
+  }
+}
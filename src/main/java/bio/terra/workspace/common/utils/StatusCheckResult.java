@@ -0,0 +1,57 @@
+package bio.terra.workspace.common.utils;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import java.time.Duration;
+import java.time.Instant;
+
+/** The outcome of one status check of one subsystem. */
+@AutoValue
+public abstract class StatusCheckResult {
+
+  /** How a status check ended. */
+  public enum Outcome {
+    /** The subsystem reported that it is ok. */
+    OK,
+    /** The subsystem reported that it is not ok. */
+    FAILED,
+    /** The status check threw an exception. */
+    ERROR,
+    /** The status check overran its timeout and was cancelled. */
+    TIMED_OUT,
+    /** The status check could not be started because the check executor was saturated. */
+    SKIPPED
+  }
+
+  /** When the round of status checks containing this check started. */
+  public abstract Instant checked();
+
+  /** How long the check ran, or waited before being cancelled or skipped. */
+  public abstract Duration latency();
+
+  public abstract Outcome outcome();
+
+  /** Messages reported by the subsystem or describing why the check did not complete. */
+  public abstract ImmutableList<String> messages();
+
+  public boolean isOk() {
+    return outcome() == Outcome.OK;
+  }
+
+  public static Builder builder() {
+    return new AutoValue_StatusCheckResult.Builder().messages(ImmutableList.of());
+  }
+
+  @AutoValue.Builder
+  public abstract static class Builder {
+    public abstract Builder checked(Instant value);
+
+    public abstract Builder latency(Duration value);
+
+    public abstract Builder outcome(Outcome value);
+
+    public abstract Builder messages(Iterable<String> value);
+
+    public abstract StatusCheckResult build();
+  }
+}
@@ -0,0 +1,45 @@
+package bio.terra.workspace.common.utils;
+
+import bio.terra.workspace.common.exception.StatusSerializationException;
+import bio.terra.workspace.generated.model.SystemStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A status reported by {@link BaseStatusService}, together with its JSON serialization.
+ *
+ * <p>Snapshots are published once and never modified, so readers can share them without locking
+ * and serve the JSON without serializing it per request. Callers must not modify the status or the
+ * JSON bytes.
+ */
+public final class StatusSnapshot {
+  private final SystemStatus status;
+  private final byte[] json;
+
+  private StatusSnapshot(SystemStatus status, byte[] json) {
+    this.status = status;
+    this.json = json;
+  }
+
+  /** Creates a snapshot of a status that no one else holds a reference to. */
+  static StatusSnapshot of(SystemStatus status, ObjectMapper objectMapper) {
+    try {
+      return new StatusSnapshot(status, objectMapper.writeValueAsBytes(status));
+    } catch (JsonProcessingException e) {
+      throw new StatusSerializationException("Error serializing system status", e);
+    }
+  }
+
+  public SystemStatus getStatus() {
+    return status;
+  }
+
+  public boolean isOk() {
+    return status.isOk();
+  }
+
+  /** Returns the status serialized as JSON. The array is shared, so it must not be modified. */
+  public byte[] getJson() {
+    return json;
+  }
+}
@@ -1,6 +1,7 @@
 package bio.terra.workspace.common.utils;
 
 import bio.terra.workspace.generated.model.SystemStatusSystems;
+import java.time.Duration;
 import java.util.function.Supplier;
 
 /*
@@ -13,15 +14,25 @@ import java.util.function.Supplier;
 
   statusCheckFn is the function called to get the subsystem's status.
 
+  timeout is how long a status check may take before it is cancelled and reported as not ok.
+
 */
 public class StatusSubsystem {
+  public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
 
   private Supplier<SystemStatusSystems> statusCheckFn;
   private boolean isCritical;
+  private Duration timeout;
 
   public StatusSubsystem(Supplier<SystemStatusSystems> statusCheckFn, boolean isCritical) {
+    this(statusCheckFn, isCritical, DEFAULT_TIMEOUT);
+  }
+
+  public StatusSubsystem(
+      Supplier<SystemStatusSystems> statusCheckFn, boolean isCritical, Duration timeout) {
     this.statusCheckFn = statusCheckFn;
     this.isCritical = isCritical;
+    this.timeout = timeout;
   }
 
   public Supplier<SystemStatusSystems> getStatusCheckFn() {
@@ -39,4 +50,12 @@ public class StatusSubsystem {
   public void setCritical(boolean critical) {
     isCritical = critical;
   }
+
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  public void setTimeout(Duration timeout) {
+    this.timeout = timeout;
+  }
 }
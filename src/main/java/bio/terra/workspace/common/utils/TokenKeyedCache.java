@@ -0,0 +1,76 @@
+package bio.terra.workspace.common.utils;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded, in-memory cache of the answers to checks made on behalf of a user. Entries are keyed
+ * by a hash of the user's access token together with the check, so one user's answer is never
+ * returned for another token and raw tokens are never held by the cache. Entries expire a fixed
+ * time after they are written.
+ *
+ * <p>Hits, misses and evictions are recorded by Guava and reported by {@link #stats()}.
+ *
+ * @param <C> identifies a check independently of the user making it
+ * @param <V> the answer to a check
+ */
+public class TokenKeyedCache<C, V> {
+  private final Cache<Key<C>, V> cache;
+
+  public TokenKeyedCache(Duration ttl, long maximumSize) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+  }
+
+  /** Returns the key for a check made with this access token. */
+  public static <C> Key<C> key(String accessToken, C check) {
+    return new AutoValue_TokenKeyedCache_Key<>(
+        Hashing.sha256().hashString(accessToken, StandardCharsets.UTF_8).toString(), check);
+  }
+
+  @Nullable
+  public V getIfPresent(Key<C> key) {
+    return cache.getIfPresent(key);
+  }
+
+  public void put(Key<C> key, V value) {
+    cache.put(key, value);
+  }
+
+  /** Drops the answers, for every user, to the checks that match {@code predicate}. */
+  public void invalidateIf(Predicate<C> predicate) {
+    cache.asMap().keySet().removeIf(key -> predicate.test(key.check()));
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /** Number of answers currently cached. */
+  public long size() {
+    return cache.size();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /** Identifies one user's check. */
+  @AutoValue
+  public abstract static class Key<C> {
+    abstract String tokenHash();
+
+    public abstract C check();
+  }
+}
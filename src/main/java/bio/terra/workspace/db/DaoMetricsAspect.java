@@ -0,0 +1,53 @@
+package bio.terra.workspace.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the latency of each public method of the workspace DAOs, tagged with the DAO, the method
+ * and whether it returned or threw. The aspect runs outside any transaction the method starts, so
+ * the latency includes the commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DaoMetricsAspect {
+  public static final String METRIC_NAME = "wsm.dao.query";
+
+  private final MeterRegistry meterRegistry;
+
+  @Autowired
+  public DaoMetricsAspect(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Around(
+      "execution(public * bio.terra.workspace.db.WorkspaceDao.*(..))"
+          + " || execution(public * bio.terra.workspace.db.DataReferenceDao.*(..))")
+  public Object recordLatency(ProceedingJoinPoint joinPoint) throws Throwable {
+    long startNanos = System.nanoTime();
+    boolean success = false;
+    try {
+      Object result = joinPoint.proceed();
+      success = true;
+      return result;
+    } finally {
+      Timer.builder(METRIC_NAME)
+          .description("Latency of workspace DAO methods")
+          .tag("dao", joinPoint.getSignature().getDeclaringType().getSimpleName())
+          .tag("method", joinPoint.getSignature().getName())
+          .tag("outcome", success ? "success" : "error")
+          .publishPercentileHistogram()
+          .register(meterRegistry)
+          .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+}
@@ -4,12 +4,17 @@ import bio.terra.workspace.common.exception.DataReferenceNotFoundException;
 import bio.terra.workspace.common.exception.DuplicateDataReferenceException;
 import bio.terra.workspace.service.datareference.model.CloningInstructions;
 import bio.terra.workspace.service.datareference.model.DataReference;
+import bio.terra.workspace.service.datareference.model.DataReferenceId;
 import bio.terra.workspace.service.datareference.model.DataReferenceRequest;
 import bio.terra.workspace.service.datareference.model.DataReferenceType;
 import bio.terra.workspace.service.datareference.model.ReferenceObject;
+import bio.terra.workspace.service.datareference.model.SnapshotReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,7 +23,11 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class DataReferenceDao {
@@ -31,6 +40,16 @@ public class DataReferenceDao {
    */
   private static final ObjectMapper objectMapper = new ObjectMapper();
 
+  /**
+   * Columns read by {@link #DATA_REFERENCE_ROW_MAPPER}. The fields of a snapshot reference are
+   * extracted from the jsonb payload by the database, so the payload itself is neither sent nor
+   * parsed.
+   */
+  private static final String DATA_REFERENCE_COLUMNS =
+      "workspace_id, reference_id, name, cloning_instructions, reference_type,"
+          + " reference->>'instanceName' AS snapshot_instance_name,"
+          + " reference->>'snapshot' AS snapshot_id";
+
   @Autowired
   public DataReferenceDao(NamedParameterJdbcTemplate jdbcTemplate) {
     this.jdbcTemplate = jdbcTemplate;
@@ -43,12 +62,12 @@ public class DataReferenceDao {
       throws DuplicateDataReferenceException {
     String sql =
         "INSERT INTO workspace_data_reference (workspace_id, reference_id, name, cloning_instructions, reference_type, reference) VALUES "
-            + "(:workspace_id, :reference_id, :name, :cloning_instructions, :reference_type, cast(:reference AS json))";
+            + "(:workspace_id, :reference_id, :name, :cloning_instructions, :reference_type, cast(:reference AS jsonb))";
 
     MapSqlParameterSource params =
         new MapSqlParameterSource()
-            .addValue("workspace_id", request.workspaceId().toString())
-            .addValue("reference_id", referenceId.toString())
+            .addValue("workspace_id", UuidColumns.bind(request.workspaceId()))
+            .addValue("reference_id", UuidColumns.bind(referenceId))
             .addValue("name", request.name())
             .addValue("cloning_instructions", request.cloningInstructions().toSql())
             .addValue("reference_type", request.referenceType().toSql())
@@ -67,15 +86,58 @@ public class DataReferenceDao {
     }
   }
 
+  /**
+   * Create several data references in one transaction, sent to the database as a single JDBC
+   * batch. Returns whether each reference was inserted, in the order given.
+   *
+   * <p>A reference whose name and type are already used in its workspace, including by an earlier
+   * reference in the same batch, is skipped instead of failing the whole batch. Any other conflict,
+   * such as a repeated reference id, fails the batch.
+   */
+  @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED)
+  public List<Boolean> createDataReferences(List<DataReference> references) {
+    String sql =
+        "INSERT INTO workspace_data_reference (workspace_id, reference_id, name, cloning_instructions, reference_type, reference) VALUES "
+            + "(:workspace_id, :reference_id, :name, :cloning_instructions, :reference_type, cast(:reference AS jsonb))"
+            + " ON CONFLICT (workspace_id, reference_type, name) DO NOTHING";
+
+    SqlParameterSource[] batchParams =
+        references.stream()
+            .map(
+                reference ->
+                    new MapSqlParameterSource()
+                        .addValue("workspace_id", UuidColumns.bind(reference.workspaceId()))
+                        .addValue("reference_id", UuidColumns.bind(reference.referenceId()))
+                        .addValue("name", reference.name())
+                        .addValue("cloning_instructions", reference.cloningInstructions().toSql())
+                        .addValue("reference_type", reference.referenceType().toSql())
+                        .addValue("reference", reference.referenceObject().toJson()))
+            .toArray(SqlParameterSource[]::new);
+
+    int[] rowCounts = jdbcTemplate.batchUpdate(sql, batchParams);
+    List<Boolean> inserted = new ArrayList<>(rowCounts.length);
+    for (int rowCount : rowCounts) {
+      inserted.add(rowCount > 0);
+    }
+    logger.info(
+        String.format(
+            "Inserted %d of %d data references in one batch",
+            inserted.stream().filter(Boolean::booleanValue).count(), references.size()));
+    return inserted;
+  }
+
   /** Retrieve a data reference by ID from the DB. */
   public DataReference getDataReference(UUID workspaceId, UUID referenceId) {
     String sql =
-        "SELECT workspace_id, reference_id, name, cloning_instructions, reference_type, reference from workspace_data_reference where workspace_id = :workspace_id AND reference_id = :reference_id";
+        "SELECT "
+            + DATA_REFERENCE_COLUMNS
+            + " FROM workspace_data_reference"
+            + " WHERE workspace_id = :workspace_id AND reference_id = :reference_id";
 
     MapSqlParameterSource params =
         new MapSqlParameterSource()
-            .addValue("workspace_id", workspaceId.toString())
-            .addValue("reference_id", referenceId.toString());
+            .addValue("workspace_id", UuidColumns.bind(workspaceId))
+            .addValue("reference_id", UuidColumns.bind(referenceId));
 
     try {
       DataReference ref = jdbcTemplate.queryForObject(sql, params, DATA_REFERENCE_ROW_MAPPER);
@@ -96,11 +158,14 @@ public class DataReferenceDao {
   public DataReference getDataReferenceByName(
       UUID workspaceId, DataReferenceType type, String name) {
     String sql =
-        "SELECT workspace_id, reference_id, name, cloning_instructions, reference_type, reference from workspace_data_reference where workspace_id = :id AND reference_type = :type AND name = :name";
+        "SELECT "
+            + DATA_REFERENCE_COLUMNS
+            + " FROM workspace_data_reference"
+            + " WHERE workspace_id = :id AND reference_type = :type AND name = :name";
 
     MapSqlParameterSource params =
         new MapSqlParameterSource()
-            .addValue("id", workspaceId.toString())
+            .addValue("id", UuidColumns.bind(workspaceId))
             .addValue("type", type.toSql())
             .addValue("name", name);
 
@@ -116,6 +181,53 @@ public class DataReferenceDao {
     }
   }
 
+  /**
+   * Lists up to {@code limit} references to a Data Repo snapshot, across all workspaces, in
+   * (workspace ID, reference ID) order, starting after {@code after}, or from the first reference
+   * if it is null. Instance names are matched the way they are resolved to a Data Repo URL,
+   * ignoring case and surrounding whitespace.
+   *
+   * <p>Each page is read directly from the idx_data_reference_snapshot index, starting at the key
+   * of the previous page's last reference.
+   */
+  public List<DataReferenceId> enumerateSnapshotReferencesAfter(
+      String instanceName, String snapshotId, @Nullable DataReferenceId after, int limit) {
+    String sql =
+        "SELECT workspace_id, reference_id FROM workspace_data_reference"
+            + " WHERE reference_type = :reference_type"
+            + " AND reference->>'snapshot' = :snapshot_id"
+            + " AND lower(btrim(reference->>'instanceName')) = :instance_name"
+            + (after == null
+                ? ""
+                : " AND (workspace_id, reference_id) > (:after_workspace_id, :after_reference_id)")
+            + " ORDER BY workspace_id, reference_id"
+            + " LIMIT :limit";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("reference_type", DataReferenceType.DATA_REPO_SNAPSHOT.toSql())
+            .addValue("snapshot_id", snapshotId)
+            .addValue("instance_name", instanceName.toLowerCase().trim())
+            .addValue("limit", limit);
+    if (after != null) {
+      params
+          .addValue("after_workspace_id", UuidColumns.bind(after.workspaceId()))
+          .addValue("after_reference_id", UuidColumns.bind(after.referenceId()));
+    }
+    List<DataReferenceId> resultList =
+        jdbcTemplate.query(
+            sql,
+            params,
+            (rs, rowNum) ->
+                DataReferenceId.create(
+                    UuidColumns.read(rs, "workspace_id"),
+                    UuidColumns.read(rs, "reference_id")));
+    logger.info(
+        String.format(
+            "Retrieved references to snapshot %s on Data Repo instance %s",
+            snapshotId, instanceName));
+    return resultList;
+  }
+
   /** Look up whether a reference is a controlled or uncontrolled resource. */
   public boolean isControlled(UUID workspaceId, UUID referenceId) {
     String sql =
@@ -123,8 +235,8 @@ public class DataReferenceDao {
 
     MapSqlParameterSource params =
         new MapSqlParameterSource()
-            .addValue("id", referenceId.toString())
-            .addValue("workspace_id", workspaceId.toString());
+            .addValue("id", UuidColumns.bind(referenceId))
+            .addValue("workspace_id", UuidColumns.bind(workspaceId));
 
     try {
       return jdbcTemplate.queryForObject(sql, params, Boolean.class).booleanValue();
@@ -136,8 +248,8 @@ public class DataReferenceDao {
   public boolean deleteDataReference(UUID workspaceId, UUID referenceId) {
     MapSqlParameterSource params =
         new MapSqlParameterSource()
-            .addValue("id", referenceId.toString())
-            .addValue("workspace_id", workspaceId.toString());
+            .addValue("id", UuidColumns.bind(referenceId))
+            .addValue("workspace_id", UuidColumns.bind(workspaceId));
     int rowsAffected =
         jdbcTemplate.update(
             "DELETE FROM workspace_data_reference WHERE reference_id = :id AND workspace_id = :workspace_id",
@@ -162,7 +274,8 @@ public class DataReferenceDao {
   // should consider joining and listing those entries here.
   public List<DataReference> enumerateDataReferences(UUID workspaceId, int offset, int limit) {
     String sql =
-        "SELECT workspace_id, reference_id, name, cloning_instructions, reference_type, reference"
+        "SELECT "
+            + DATA_REFERENCE_COLUMNS
             + " FROM workspace_data_reference"
             + " WHERE workspace_id = :id"
             + " ORDER BY reference_id"
@@ -170,7 +283,7 @@ public class DataReferenceDao {
             + " LIMIT :limit";
     MapSqlParameterSource params =
         new MapSqlParameterSource()
-            .addValue("id", workspaceId.toString())
+            .addValue("id", UuidColumns.bind(workspaceId))
             .addValue("offset", offset)
             .addValue("limit", limit);
     List<DataReference> resultList = jdbcTemplate.query(sql, params, DATA_REFERENCE_ROW_MAPPER);
@@ -178,18 +291,53 @@ public class DataReferenceDao {
     return resultList;
   }
 
+  /**
+   * Lists up to {@code limit} references in a workspace in reference ID order, starting after
+   * {@code afterReferenceId}, or from the first reference if it is null.
+   *
+   * <p>Unlike {@link #enumerateDataReferences(UUID, int, int)}, this seeks directly to the start of
+   * the page using the (workspace_id, reference_id) index, so the cost of a page does not grow with
+   * its position in the list.
+   */
+  public List<DataReference> enumerateDataReferencesAfter(
+      UUID workspaceId, @Nullable UUID afterReferenceId, int limit) {
+    String sql =
+        "SELECT "
+            + DATA_REFERENCE_COLUMNS
+            + " FROM workspace_data_reference"
+            + " WHERE workspace_id = :id"
+            + (afterReferenceId == null ? "" : " AND reference_id > :after_reference_id")
+            + " ORDER BY reference_id"
+            + " LIMIT :limit";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("id", UuidColumns.bind(workspaceId))
+            .addValue("limit", limit);
+    if (afterReferenceId != null) {
+      params.addValue("after_reference_id", UuidColumns.bind(afterReferenceId));
+    }
+    List<DataReference> resultList = jdbcTemplate.query(sql, params, DATA_REFERENCE_ROW_MAPPER);
+    logger.info(String.format("Retrieved data references in workspace %s", workspaceId.toString()));
+    return resultList;
+  }
+
   private static final RowMapper<DataReference> DATA_REFERENCE_ROW_MAPPER =
       (rs, rowNum) -> {
         DataReferenceType referenceType = DataReferenceType.fromSql(rs.getString("reference_type"));
-        ReferenceObject deserializedReferenceObject =
-            ReferenceObject.fromJson(rs.getString("reference"));
+        // Snapshots are the only type of reference. Another type needs its own columns above.
+        if (referenceType != DataReferenceType.DATA_REPO_SNAPSHOT) {
+          throw new SQLException("Unsupported reference type " + rs.getString("reference_type"));
+        }
+        ReferenceObject referenceObject =
+            SnapshotReference.create(
+                rs.getString("snapshot_instance_name"), rs.getString("snapshot_id"));
         return DataReference.builder()
-            .workspaceId(UUID.fromString(rs.getString("workspace_id")))
-            .referenceId(UUID.fromString(rs.getString("reference_id")))
+            .workspaceId(UuidColumns.read(rs, "workspace_id"))
+            .referenceId(UuidColumns.read(rs, "reference_id"))
             .name(rs.getString("name"))
             .referenceType(referenceType)
             .cloningInstructions(CloningInstructions.fromSql(rs.getString("cloning_instructions")))
-            .referenceObject(deserializedReferenceObject)
+            .referenceObject(referenceObject)
             .build();
       };
 }
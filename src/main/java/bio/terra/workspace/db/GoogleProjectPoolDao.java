@@ -0,0 +1,182 @@
+package bio.terra.workspace.db;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Persists the pool of Google projects created ahead of workspace cloud contexts.
+ *
+ * <p>A project is CREATING while an instance sets it up, READY once it can be claimed, and CLAIMED
+ * once a flight has taken it. Rows for claimed projects are removed when the project is stored as a
+ * workspace's cloud context or when the claiming flight is undone.
+ */
+@Component
+public class GoogleProjectPoolDao {
+  private static final String CREATING = "CREATING";
+  private static final String READY = "READY";
+  private static final String CLAIMED = "CLAIMED";
+
+  /** Key of the Postgres advisory lock serializing pool reservations across instances. */
+  private static final long RESERVE_LOCK_KEY = 0x574d504f4f4c5253L;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public GoogleProjectPoolDao(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Reserves ids for up to {@code maxCount} new projects, so that the pool holds at most {@code
+   * targetSize} unclaimed projects. Reserved projects are recorded as CREATING, and count towards
+   * the target of every instance from then on.
+   */
+  @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED)
+  public List<String> reserveProjects(
+      int targetSize, int maxCount, Supplier<String> projectIdGenerator) {
+    // Serialize reservations so that instances refilling at the same time do not overfill the pool.
+    jdbcTemplate.query(
+        "SELECT pg_advisory_xact_lock(:key)",
+        new MapSqlParameterSource().addValue("key", RESERVE_LOCK_KEY),
+        rs -> null);
+    Integer unclaimed =
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM google_project_pool WHERE state IN (:creating, :ready)",
+            new MapSqlParameterSource().addValue("creating", CREATING).addValue("ready", READY),
+            Integer.class);
+    int count = Math.min(maxCount, targetSize - unclaimed);
+
+    List<String> projectIds = new ArrayList<>();
+    String sql = "INSERT INTO google_project_pool (project_id, state) VALUES (:project_id, :state)";
+    for (int i = 0; i < count; i++) {
+      String projectId = projectIdGenerator.get();
+      jdbcTemplate.update(
+          sql,
+          new MapSqlParameterSource()
+              .addValue("project_id", projectId)
+              .addValue("state", CREATING));
+      projectIds.add(projectId);
+    }
+    return projectIds;
+  }
+
+  /** Records that a reserved project has been created and can be claimed. */
+  public void markReady(String projectId) {
+    String sql =
+        "UPDATE google_project_pool SET state = :ready, updated_date = now()"
+            + " WHERE project_id = :project_id AND state = :creating";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("project_id", projectId)
+            .addValue("ready", READY)
+            .addValue("creating", CREATING);
+    jdbcTemplate.update(sql, params);
+  }
+
+  /** Removes a project from the pool, whatever its state. */
+  public void removeProject(String projectId) {
+    String sql = "DELETE FROM google_project_pool WHERE project_id = :project_id";
+    MapSqlParameterSource params = new MapSqlParameterSource().addValue("project_id", projectId);
+    jdbcTemplate.update(sql, params);
+  }
+
+  /**
+   * Claims the oldest READY project for a flight and returns its id, or empty if no project is
+   * ready. Claiming again for the same flight returns the project it already claimed, so a retried
+   * step does not take a second project.
+   */
+  @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED)
+  public Optional<String> claimProject(String flightId) {
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("flight_id", flightId)
+            .addValue("ready", READY)
+            .addValue("claimed", CLAIMED);
+    Optional<String> alreadyClaimed =
+        Optional.ofNullable(
+            DataAccessUtils.singleResult(
+                jdbcTemplate.queryForList(
+                    "SELECT project_id FROM google_project_pool"
+                        + " WHERE claimed_by_flight = :flight_id",
+                    params,
+                    String.class)));
+    if (alreadyClaimed.isPresent()) {
+      return alreadyClaimed;
+    }
+    String sql =
+        "UPDATE google_project_pool"
+            + " SET state = :claimed, claimed_by_flight = :flight_id, updated_date = now()"
+            + " WHERE project_id ="
+            + " (SELECT project_id FROM google_project_pool WHERE state = :ready"
+            + " ORDER BY created_date LIMIT 1 FOR UPDATE SKIP LOCKED)"
+            + " RETURNING project_id";
+    return Optional.ofNullable(
+        DataAccessUtils.singleResult(jdbcTemplate.queryForList(sql, params, String.class)));
+  }
+
+  /** Removes the project claimed by a flight from the pool, returning its id if there was one. */
+  public Optional<String> removeClaim(String flightId) {
+    String sql =
+        "DELETE FROM google_project_pool WHERE claimed_by_flight = :flight_id"
+            + " RETURNING project_id";
+    MapSqlParameterSource params = new MapSqlParameterSource().addValue("flight_id", flightId);
+    return Optional.ofNullable(
+        DataAccessUtils.singleResult(jdbcTemplate.queryForList(sql, params, String.class)));
+  }
+
+  /**
+   * Removes claimed projects that have been stored as a workspace's Google cloud context, using the
+   * idx_cloud_context_google_project expression index. Returns the number of rows removed.
+   */
+  public int removeStoredClaims() {
+    String sql =
+        "DELETE FROM google_project_pool p WHERE p.state = :claimed AND EXISTS"
+            + " (SELECT 1 FROM workspace_cloud_context c WHERE c.cloud_type = :cloud_type"
+            + " AND c.context->>'googleProjectId' = p.project_id)";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("claimed", CLAIMED)
+            .addValue("cloud_type", WorkspaceDao.CloudType.GOOGLE.toString());
+    return jdbcTemplate.update(sql, params);
+  }
+
+  /**
+   * Claims up to {@code limit} CREATING projects that have not been updated for {@code
+   * abandonedAfter}, presumably because the instance creating them stopped. Claiming refreshes the
+   * rows' update time, so other instances will not claim the same projects until {@code
+   * abandonedAfter} has passed again.
+   */
+  public List<String> claimAbandonedProjects(Duration abandonedAfter, int limit) {
+    String sql =
+        "UPDATE google_project_pool SET updated_date = now() WHERE project_id IN"
+            + " (SELECT project_id FROM google_project_pool WHERE state = :creating"
+            + " AND updated_date < now() - :abandoned_seconds * interval '1 second'"
+            + " ORDER BY updated_date LIMIT :limit FOR UPDATE SKIP LOCKED)"
+            + " RETURNING project_id";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("creating", CREATING)
+            .addValue("abandoned_seconds", abandonedAfter.getSeconds())
+            .addValue("limit", limit);
+    return jdbcTemplate.queryForList(sql, params, String.class);
+  }
+
+  /** Returns the number of projects that are ready to be claimed. */
+  public int countReadyProjects() {
+    return jdbcTemplate.queryForObject(
+        "SELECT count(*) FROM google_project_pool WHERE state = :ready",
+        new MapSqlParameterSource().addValue("ready", READY),
+        Integer.class);
+  }
+}
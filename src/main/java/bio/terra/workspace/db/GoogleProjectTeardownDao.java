@@ -0,0 +1,74 @@
+package bio.terra.workspace.db;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Persists the queue of Google projects left by deleted workspaces, which the GoogleProjectReaper
+ * deletes in the background. A row exists until its project has been deleted.
+ */
+@Component
+public class GoogleProjectTeardownDao {
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public GoogleProjectTeardownDao(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /** Queues a workspace's project for deletion. Does nothing if it is already queued. */
+  public void queueProject(String projectId, UUID workspaceId) {
+    String sql =
+        "INSERT INTO google_project_teardown (project_id, workspace_id)"
+            + " VALUES (:project_id, :workspace_id) ON CONFLICT (project_id) DO NOTHING";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("project_id", projectId)
+            .addValue("workspace_id", workspaceId);
+    jdbcTemplate.update(sql, params);
+  }
+
+  /** Removes a project from the queue, once it is deleted or no longer needs deleting. */
+  public void removeProject(String projectId) {
+    String sql = "DELETE FROM google_project_teardown WHERE project_id = :project_id";
+    MapSqlParameterSource params = new MapSqlParameterSource().addValue("project_id", projectId);
+    jdbcTemplate.update(sql, params);
+  }
+
+  /**
+   * Removes a project from the queue if no reaper has claimed it yet. Returns false if the project
+   * is not queued or has been claimed, in which case it may already be deleted.
+   */
+  public boolean removeUnclaimedProject(String projectId) {
+    String sql =
+        "DELETE FROM google_project_teardown"
+            + " WHERE project_id = :project_id AND claimed_date IS NULL";
+    MapSqlParameterSource params = new MapSqlParameterSource().addValue("project_id", projectId);
+    return jdbcTemplate.update(sql, params) > 0;
+  }
+
+  /**
+   * Claims up to {@code limit} queued projects, oldest first, that no reaper has claimed within
+   * {@code claimTimeout}. A project whose deletion fails stays queued and is claimed again once the
+   * timeout has passed.
+   */
+  public List<String> claimProjects(int limit, Duration claimTimeout) {
+    String sql =
+        "UPDATE google_project_teardown SET claimed_date = now() WHERE project_id IN"
+            + " (SELECT project_id FROM google_project_teardown"
+            + " WHERE claimed_date IS NULL"
+            + " OR claimed_date < now() - :claim_timeout_seconds * interval '1 second'"
+            + " ORDER BY requested_date LIMIT :limit FOR UPDATE SKIP LOCKED)"
+            + " RETURNING project_id";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("claim_timeout_seconds", claimTimeout.getSeconds())
+            .addValue("limit", limit);
+    return jdbcTemplate.queryForList(sql, params, String.class);
+  }
+}
@@ -0,0 +1,101 @@
+package bio.terra.workspace.db;
+
+import bio.terra.workspace.service.job.model.LocalFlightJournalEntry;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Persists the journal rows of flights run in-process by the LocalFlightExecutor.
+ *
+ * <p>A row exists only while its flight runs. Each statement here is a single-row write in its own
+ * transaction, which is what keeps local flights cheap compared to Stairway.
+ */
+@Component
+public class LocalFlightJournalDao {
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public LocalFlightJournalDao(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /** Records that a flight has started running its first step. */
+  public void startFlight(String flightId, String flightClass, String inputParameters) {
+    String sql =
+        "INSERT INTO local_flight_journal (flight_id, flight_class, input_parameters, current_step)"
+            + " VALUES (:flight_id, :flight_class, :input_parameters, 0)";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("flight_id", flightId)
+            .addValue("flight_class", flightClass)
+            .addValue("input_parameters", inputParameters);
+    jdbcTemplate.update(sql, params);
+  }
+
+  /**
+   * Records that a flight is about to run the step at {@code currentStep}, with the working map
+   * left by the steps before it.
+   */
+  public void updateCurrentStep(String flightId, int currentStep, String workingMap) {
+    String sql =
+        "UPDATE local_flight_journal SET current_step = :current_step, working_map = :working_map,"
+            + " updated_date = now() WHERE flight_id = :flight_id";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("flight_id", flightId)
+            .addValue("current_step", currentStep)
+            .addValue("working_map", workingMap);
+    jdbcTemplate.update(sql, params);
+  }
+
+  /**
+   * Refreshes the update time of a flight that is still running or being recovered, so that it is
+   * not taken for abandoned while a step takes long.
+   */
+  public void touchFlight(String flightId) {
+    String sql =
+        "UPDATE local_flight_journal SET updated_date = now() WHERE flight_id = :flight_id";
+    MapSqlParameterSource params = new MapSqlParameterSource().addValue("flight_id", flightId);
+    jdbcTemplate.update(sql, params);
+  }
+
+  /** Removes the journal row of a flight that has finished, successfully or after a full undo. */
+  public void deleteFlight(String flightId) {
+    String sql = "DELETE FROM local_flight_journal WHERE flight_id = :flight_id";
+    MapSqlParameterSource params = new MapSqlParameterSource().addValue("flight_id", flightId);
+    jdbcTemplate.update(sql, params);
+  }
+
+  /**
+   * Claims up to {@code limit} flights whose rows have not been updated for {@code abandonedAfter}.
+   * Claiming refreshes the rows' update time, so other instances will not claim the same flights
+   * until {@code abandonedAfter} has passed again.
+   */
+  public List<LocalFlightJournalEntry> claimAbandonedFlights(Duration abandonedAfter, int limit) {
+    String sql =
+        "UPDATE local_flight_journal SET updated_date = now() WHERE flight_id IN"
+            + " (SELECT flight_id FROM local_flight_journal"
+            + " WHERE updated_date < now() - :abandoned_seconds * interval '1 second'"
+            + " ORDER BY updated_date LIMIT :limit FOR UPDATE SKIP LOCKED)"
+            + " RETURNING flight_id, flight_class, input_parameters, current_step, working_map";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("abandoned_seconds", abandonedAfter.getSeconds())
+            .addValue("limit", limit);
+    return jdbcTemplate.query(sql, params, JOURNAL_ENTRY_ROW_MAPPER);
+  }
+
+  private static final RowMapper<LocalFlightJournalEntry> JOURNAL_ENTRY_ROW_MAPPER =
+      (rs, rowNum) ->
+          LocalFlightJournalEntry.create(
+              rs.getString("flight_id"),
+              rs.getString("flight_class"),
+              rs.getString("input_parameters"),
+              rs.getInt("current_step"),
+              rs.getString("working_map"));
+}
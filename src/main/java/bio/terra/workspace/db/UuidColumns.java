@@ -0,0 +1,32 @@
+package bio.terra.workspace.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+/**
+ * Binds and reads workspace and reference ID columns so that the same SQL works whether a column
+ * is still text or already uuid. See the uuid_columns changesets, which convert these columns while
+ * instances of the previous release, which bind IDs as text, are still running.
+ */
+final class UuidColumns {
+  private UuidColumns() {}
+
+  /**
+   * Returns an ID parameter that Postgres types from the column it is compared with or assigned to,
+   * instead of as text, so that it matches both a text and a uuid column.
+   */
+  static SqlParameterValue bind(@Nullable UUID id) {
+    return new SqlParameterValue(Types.OTHER, id == null ? null : id.toString());
+  }
+
+  /** Reads an ID column of either type. */
+  @Nullable
+  static UUID read(ResultSet rs, String column) throws SQLException {
+    String id = rs.getString(column);
+    return id == null ? null : UUID.fromString(id);
+  }
+}
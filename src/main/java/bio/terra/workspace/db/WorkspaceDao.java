@@ -6,11 +6,15 @@ import bio.terra.workspace.service.spendprofile.SpendProfileId;
 import bio.terra.workspace.service.workspace.WorkspaceCloudContext;
 import bio.terra.workspace.service.workspace.model.Workspace;
 import bio.terra.workspace.service.workspace.model.WorkspaceStage;
+import bio.terra.workspace.service.workspace.model.WorkspaceWithCloudContext;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
@@ -19,6 +23,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -52,7 +57,7 @@ public class WorkspaceDao {
             + "(:id, :spend_profile, :spend_profile_settable, :workspace_stage)";
     MapSqlParameterSource params =
         new MapSqlParameterSource()
-            .addValue("id", workspace.workspaceId().toString())
+            .addValue("id", UuidColumns.bind(workspace.workspaceId()))
             .addValue(
                 "spend_profile", workspace.spendProfileId().map(SpendProfileId::id).orElse(null))
             .addValue("spend_profile_settable", workspace.spendProfileId().isEmpty())
@@ -73,7 +78,7 @@ public class WorkspaceDao {
   @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE)
   public boolean deleteWorkspace(UUID workspaceId) {
     MapSqlParameterSource params =
-        new MapSqlParameterSource().addValue("id", workspaceId.toString());
+        new MapSqlParameterSource().addValue("id", UuidColumns.bind(workspaceId));
     int rowsAffected =
         jdbcTemplate.update("DELETE FROM workspace WHERE workspace_id = :id", params);
 
@@ -88,25 +93,68 @@ public class WorkspaceDao {
     return deleted;
   }
 
+  /**
+   * Marks a workspace as being deleted by an asynchronous job, and returns the id of the job that
+   * deletes it. If the workspace is already being deleted, it stays marked with the earlier job,
+   * whose id is returned.
+   */
+  public String markWorkspaceDeleting(UUID workspaceId, String jobId) {
+    String sql =
+        "UPDATE workspace SET delete_job_id = coalesce(delete_job_id, :job_id),"
+            + " delete_requested_date = coalesce(delete_requested_date, now())"
+            + " WHERE workspace_id = :id RETURNING delete_job_id";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("id", UuidColumns.bind(workspaceId))
+            .addValue("job_id", jobId);
+    String deleteJobId =
+        DataAccessUtils.singleResult(jdbcTemplate.queryForList(sql, params, String.class));
+    if (deleteJobId == null) {
+      throw new WorkspaceNotFoundException("Workspace not found.");
+    }
+    return deleteJobId;
+  }
+
+  /**
+   * Returns true if a delete of the workspace was requested. A workspace stays marked after a failed
+   * delete, until a repeated delete removes it.
+   */
+  public boolean isWorkspaceDeleting(UUID workspaceId) {
+    String sql = "SELECT delete_job_id IS NOT NULL FROM workspace WHERE workspace_id = :id";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource().addValue("id", UuidColumns.bind(workspaceId));
+    Boolean deleting =
+        DataAccessUtils.singleResult(jdbcTemplate.queryForList(sql, params, Boolean.class));
+    if (deleting == null) {
+      throw new WorkspaceNotFoundException("Workspace not found.");
+    }
+    return deleting;
+  }
+
+  /**
+   * Replaces the job recorded as deleting a workspace, if it is still {@code oldJobId}. Used when
+   * the recorded job failed without deleting the workspace. Returns true if the job was replaced.
+   */
+  public boolean replaceDeleteJob(UUID workspaceId, String oldJobId, String newJobId) {
+    String sql =
+        "UPDATE workspace SET delete_job_id = :new_job_id, delete_requested_date = now()"
+            + " WHERE workspace_id = :id AND delete_job_id = :old_job_id";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("id", UuidColumns.bind(workspaceId))
+            .addValue("old_job_id", oldJobId)
+            .addValue("new_job_id", newJobId);
+    return jdbcTemplate.update(sql, params) > 0;
+  }
+
   /** Retrieves a workspace from database by ID. */
   public Workspace getWorkspace(UUID id) {
     String sql = "SELECT * FROM workspace where workspace_id = (:id)";
-    MapSqlParameterSource params = new MapSqlParameterSource().addValue("id", id.toString());
+    MapSqlParameterSource params = new MapSqlParameterSource().addValue("id", UuidColumns.bind(id));
     try {
       Workspace result =
           DataAccessUtils.requiredSingleResult(
-              jdbcTemplate.query(
-                  sql,
-                  params,
-                  (rs, rowNum) -> {
-                    return Workspace.builder()
-                        .workspaceId(UUID.fromString(rs.getString("workspace_id")))
-                        .spendProfileId(
-                            Optional.ofNullable(rs.getString("spend_profile"))
-                                .map(SpendProfileId::create))
-                        .workspaceStage(WorkspaceStage.valueOf(rs.getString("workspace_stage")))
-                        .build();
-                  }));
+              jdbcTemplate.query(sql, params, WORKSPACE_ROW_MAPPER));
       logger.info(String.format("Retrieved workspace record %s", result.toString()));
       return result;
     } catch (EmptyResultDataAccessException e) {
@@ -114,12 +162,55 @@ public class WorkspaceDao {
     }
   }
 
+  /**
+   * Retrieves a workspace and its cloud context from database by ID in a single query.
+   *
+   * <p>This is equivalent to calling {@link #getWorkspace(UUID)} and {@link
+   * #getCloudContext(UUID)}, but takes one round trip and one short read-only transaction.
+   */
+  @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
+  public WorkspaceWithCloudContext getWorkspaceWithCloudContext(UUID id) {
+    String sql =
+        "SELECT w.workspace_id, w.spend_profile, w.workspace_stage, c.cloud_type,"
+            + " c.context->>'version' AS context_version,"
+            + " c.context->>'googleProjectId' AS google_project_id"
+            + " FROM workspace w"
+            + " LEFT JOIN workspace_cloud_context c ON c.workspace_id = w.workspace_id"
+            + " WHERE w.workspace_id = :id";
+    MapSqlParameterSource params = new MapSqlParameterSource().addValue("id", UuidColumns.bind(id));
+    WorkspaceWithCloudContext result =
+        jdbcTemplate.query(
+            sql,
+            params,
+            rs -> {
+              Workspace workspace = null;
+              WorkspaceCloudContext cloudContext = WorkspaceCloudContext.none();
+              // There is one row per cloud context, or a single row with null context columns.
+              while (rs.next()) {
+                if (workspace == null) {
+                  workspace = WORKSPACE_ROW_MAPPER.mapRow(rs, rs.getRow());
+                }
+                if (CloudType.GOOGLE.toString().equals(rs.getString("cloud_type"))) {
+                  cloudContext = GOOGLE_CONTEXT_ROW_MAPPER.mapRow(rs, rs.getRow());
+                }
+              }
+              return (workspace == null)
+                  ? null
+                  : WorkspaceWithCloudContext.create(workspace, cloudContext);
+            });
+    if (result == null) {
+      throw new WorkspaceNotFoundException("Workspace not found.");
+    }
+    logger.info(String.format("Retrieved workspace record %s", result.workspace().toString()));
+    return result;
+  }
+
   // TODO: Unclear what level (if any) of @Transactional this requires.
   /** Retrieves the MC Terra migration stage of a workspace from database by ID. */
   public WorkspaceStage getWorkspaceStage(UUID workspaceId) {
     String sql = "SELECT workspace_stage FROM workspace WHERE workspace_id = :id";
     MapSqlParameterSource params =
-        new MapSqlParameterSource().addValue("id", workspaceId.toString());
+        new MapSqlParameterSource().addValue("id", UuidColumns.bind(workspaceId));
     return WorkspaceStage.valueOf(jdbcTemplate.queryForObject(sql, params, String.class));
   }
 
@@ -127,10 +218,11 @@ public class WorkspaceDao {
   @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE)
   public WorkspaceCloudContext getCloudContext(UUID workspaceId) {
     String sql =
-        "SELECT cloud_type, context FROM workspace_cloud_context "
-            + "WHERE workspace_id = :workspace_id;";
+        "SELECT cloud_type, context->>'version' AS context_version,"
+            + " context->>'googleProjectId' AS google_project_id"
+            + " FROM workspace_cloud_context WHERE workspace_id = :workspace_id;";
     MapSqlParameterSource params =
-        new MapSqlParameterSource().addValue("workspace_id", workspaceId.toString());
+        new MapSqlParameterSource().addValue("workspace_id", UuidColumns.bind(workspaceId));
     WorkspaceCloudContext context =
         DataAccessUtils.singleResult(jdbcTemplate.query(sql, params, GOOGLE_CONTEXT_ROW_MAPPER));
     return (context == null) ? WorkspaceCloudContext.none() : context;
@@ -142,11 +234,11 @@ public class WorkspaceDao {
     if (cloudContext.googleProjectId().isPresent()) {
       String sql =
           "INSERT INTO workspace_cloud_context (workspace_id, cloud_type, context) "
-              + "VALUES (:workspace_id, :cloud_type, :context::json) "
-              + "ON CONFLICT(workspace_id, cloud_type) DO UPDATE SET context = :context::json";
+              + "VALUES (:workspace_id, :cloud_type, :context::jsonb) "
+              + "ON CONFLICT(workspace_id, cloud_type) DO UPDATE SET context = :context::jsonb";
       MapSqlParameterSource params =
           new MapSqlParameterSource()
-              .addValue("workspace_id", workspaceId.toString())
+              .addValue("workspace_id", UuidColumns.bind(workspaceId))
               .addValue("cloud_type", CloudType.GOOGLE.toString())
               .addValue("context", GoogleCloudContextV1.from(cloudContext).serialize());
       jdbcTemplate.update(sql, params);
@@ -154,16 +246,86 @@ public class WorkspaceDao {
       // Clear the context if there is none.
       String sql = "DELETE FROM workspace_cloud_context WHERE workspace_id = :workspace_id";
       MapSqlParameterSource params =
-          new MapSqlParameterSource().addValue("workspace_id", workspaceId.toString());
+          new MapSqlParameterSource().addValue("workspace_id", UuidColumns.bind(workspaceId));
       jdbcTemplate.update(sql, params);
     }
   }
 
+  /**
+   * Returns the ID of the workspace whose Google cloud context is the given project, if any. This
+   * reads the project ID without deserializing the context, using the
+   * idx_cloud_context_google_project expression index.
+   */
+  public Optional<UUID> getWorkspaceIdByGoogleProjectId(String googleProjectId) {
+    String sql =
+        "SELECT workspace_id FROM workspace_cloud_context"
+            + " WHERE cloud_type = :cloud_type"
+            + " AND context->>'googleProjectId' = :google_project_id";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("cloud_type", CloudType.GOOGLE.toString())
+            .addValue("google_project_id", googleProjectId);
+    return Optional.ofNullable(
+        DataAccessUtils.singleResult(
+            jdbcTemplate.query(
+                sql, params, (rs, rowNum) -> UuidColumns.read(rs, "workspace_id"))));
+  }
+
+  /**
+   * Returns the IDs of the workspaces whose Google cloud contexts are the given projects, keyed by
+   * project ID. Projects without a workspace are left out. All projects are looked up in one query
+   * using the idx_cloud_context_google_project expression index.
+   */
+  public Map<String, UUID> getWorkspaceIdsByGoogleProjectIds(Collection<String> googleProjectIds) {
+    Map<String, UUID> workspaceIds = new HashMap<>();
+    if (googleProjectIds.isEmpty()) {
+      return workspaceIds;
+    }
+    String sql =
+        "SELECT workspace_id, context->>'googleProjectId' AS google_project_id"
+            + " FROM workspace_cloud_context"
+            + " WHERE cloud_type = :cloud_type"
+            + " AND context->>'googleProjectId' IN (:google_project_ids)";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("cloud_type", CloudType.GOOGLE.toString())
+            .addValue("google_project_ids", googleProjectIds);
+    jdbcTemplate.query(
+        sql,
+        params,
+        (RowCallbackHandler)
+            rs ->
+                workspaceIds.put(
+                    rs.getString("google_project_id"), UuidColumns.read(rs, "workspace_id")));
+    logger.info(
+        String.format(
+            "Found workspaces for %d of %d Google projects",
+            workspaceIds.size(), googleProjectIds.size()));
+    return workspaceIds;
+  }
+
+  private static final RowMapper<Workspace> WORKSPACE_ROW_MAPPER =
+      (rs, rowNum) ->
+          Workspace.builder()
+              .workspaceId(UuidColumns.read(rs, "workspace_id"))
+              .spendProfileId(
+                  Optional.ofNullable(rs.getString("spend_profile")).map(SpendProfileId::create))
+              .workspaceStage(WorkspaceStage.valueOf(rs.getString("workspace_stage")))
+              .build();
+
   // TODO: Once we have multiple CloudTypes, we will need to handle other contexts.
+  /**
+   * Maps a row with context_version and google_project_id columns extracted from a {@link
+   * GoogleCloudContextV1} context, so that the context does not need to be deserialized. A context
+   * stored in any other version is rejected rather than read as if it were version 1.
+   */
   private static final RowMapper<WorkspaceCloudContext> GOOGLE_CONTEXT_ROW_MAPPER =
       (rs, rowNum) -> {
-        GoogleCloudContextV1 context = GoogleCloudContextV1.deserialize(rs.getString("context"));
-        return WorkspaceCloudContext.createGoogleContext(context.googleProjectId);
+        String version = rs.getString("context_version");
+        if (!String.valueOf(GoogleCloudContextV1.VERSION).equals(version)) {
+          throw new SQLException("Unsupported workspace_cloud_context.context version " + version);
+        }
+        return WorkspaceCloudContext.createGoogleContext(rs.getString("google_project_id"));
       };
 
   @VisibleForTesting
@@ -174,8 +336,10 @@ public class WorkspaceDao {
   /** JSON serialization class for the workspace_cloud_context.context column. */
   @VisibleForTesting
   static class GoogleCloudContextV1 {
+    static final long VERSION = 1;
+
     /** Version marker to store in the db so that we can update the format later if we need to. */
-    @JsonProperty long version = 1;
+    @JsonProperty long version = VERSION;
 
     @JsonProperty String googleProjectId;
 
@@ -193,14 +357,5 @@ public class WorkspaceDao {
         throw new RuntimeException("Unable to serialize workspace_cloud_context.context", e);
       }
     }
-
-    /** Deserialize from a JDBC result set string value. */
-    public static GoogleCloudContextV1 deserialize(String serialized) throws SQLException {
-      try {
-        return objectMapper.readValue(serialized, GoogleCloudContextV1.class);
-      } catch (JsonProcessingException e) {
-        throw new SQLException("Unable to deserialize workspace_cloud_context.context", e);
-      }
-    }
   }
 }
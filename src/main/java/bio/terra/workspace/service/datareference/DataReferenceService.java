@@ -3,20 +3,34 @@ package bio.terra.workspace.service.datareference;
 import bio.terra.workspace.common.exception.*;
 import bio.terra.workspace.common.utils.SamUtils;
 import bio.terra.workspace.db.DataReferenceDao;
+import bio.terra.workspace.db.WorkspaceDao;
 import bio.terra.workspace.service.datareference.exception.ControlledResourceNotImplementedException;
 import bio.terra.workspace.service.datareference.flight.CreateDataReferenceFlight;
 import bio.terra.workspace.service.datareference.flight.DataReferenceFlightMapKeys;
 import bio.terra.workspace.service.datareference.model.DataReference;
+import bio.terra.workspace.service.datareference.model.DataReferenceCreateResult;
+import bio.terra.workspace.service.datareference.model.DataReferenceExport;
+import bio.terra.workspace.service.datareference.model.DataReferenceId;
+import bio.terra.workspace.service.datareference.model.DataReferencePage;
 import bio.terra.workspace.service.datareference.model.DataReferenceRequest;
 import bio.terra.workspace.service.datareference.model.DataReferenceType;
+import bio.terra.workspace.service.datareference.model.SnapshotReferencePage;
+import bio.terra.workspace.service.datareference.utils.DataReferencePageToken;
+import bio.terra.workspace.service.datareference.utils.DataReferenceValidationUtils;
+import bio.terra.workspace.service.datareference.utils.SnapshotReferencePageToken;
 import bio.terra.workspace.service.iam.AuthenticatedUserRequest;
 import bio.terra.workspace.service.iam.SamService;
 import bio.terra.workspace.service.job.JobBuilder;
 import bio.terra.workspace.service.job.JobService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.opencensus.contrib.spring.aop.Traced;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -28,20 +42,31 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class DataReferenceService {
+  /** Maximum number of references that can be created in one batch. */
+  public static final int MAX_CREATE_BATCH_SIZE = 100;
+  /** Number of references read from the database per query when exporting a workspace. */
+  private static final int EXPORT_PAGE_SIZE = 500;
+
   private final DataReferenceDao dataReferenceDao;
+  private final WorkspaceDao workspaceDao;
   private final SamService samService;
   private final JobService jobService;
+  private final DataReferenceValidationUtils dataReferenceValidation;
   private final ObjectMapper objectMapper;
 
   @Autowired
   public DataReferenceService(
       DataReferenceDao dataReferenceDao,
+      WorkspaceDao workspaceDao,
       SamService samService,
       JobService jobService,
+      DataReferenceValidationUtils dataReferenceValidation,
       ObjectMapper objectMapper) {
     this.dataReferenceDao = dataReferenceDao;
+    this.workspaceDao = workspaceDao;
     this.samService = samService;
     this.jobService = jobService;
+    this.dataReferenceValidation = dataReferenceValidation;
     this.objectMapper = objectMapper;
   }
 
@@ -80,6 +105,7 @@ public class DataReferenceService {
 
     samService.workspaceAuthz(
         userReq, referenceRequest.workspaceId(), SamUtils.SAM_WORKSPACE_WRITE_ACTION);
+    verifyWorkspaceNotDeleting(referenceRequest.workspaceId());
 
     String description = "Create data reference in workspace " + referenceRequest.workspaceId();
 
@@ -107,6 +133,79 @@ public class DataReferenceService {
     return dataReferenceDao.getDataReference(referenceRequest.workspaceId(), referenceIdResult);
   }
 
+  /**
+   * Create several data references in one workspace and return the outcome of each, in the order
+   * requested.
+   *
+   * <p>Write access is checked once for the whole batch. Each reference object is then validated
+   * against its Data Repo instance, several at a time, and every valid reference is inserted in a
+   * single database transaction. A reference that fails validation, or whose name is already in
+   * use, is reported in its result without affecting the rest of the batch.
+   *
+   * <p>Unlike {@link #createDataReference}, this does not run a flight: the insert is one
+   * statement batch with nothing to undo.
+   */
+  @Traced
+  public List<DataReferenceCreateResult> createDataReferences(
+      UUID workspaceId,
+      List<DataReferenceRequest> referenceRequests,
+      AuthenticatedUserRequest userReq) {
+    if (referenceRequests.size() > MAX_CREATE_BATCH_SIZE) {
+      throw new ValidationException(
+          String.format(
+              "At most %d data references can be created in one batch.", MAX_CREATE_BATCH_SIZE));
+    }
+    for (DataReferenceRequest referenceRequest : referenceRequests) {
+      if (!referenceRequest.workspaceId().equals(workspaceId)) {
+        throw new ValidationException("All data references must be in the same workspace.");
+      }
+    }
+    samService.workspaceAuthz(userReq, workspaceId, SamUtils.SAM_WORKSPACE_WRITE_ACTION);
+    verifyWorkspaceNotDeleting(workspaceId);
+
+    List<Optional<ErrorReportException>> validationErrors =
+        dataReferenceValidation.validateReferenceObjects(referenceRequests, userReq);
+
+    List<DataReference> validReferences = new ArrayList<>();
+    for (int i = 0; i < referenceRequests.size(); i++) {
+      if (validationErrors.get(i).isEmpty()) {
+        DataReferenceRequest referenceRequest = referenceRequests.get(i);
+        validReferences.add(
+            DataReference.builder()
+                .workspaceId(workspaceId)
+                .referenceId(UUID.randomUUID())
+                .name(referenceRequest.name())
+                .referenceType(referenceRequest.referenceType())
+                .cloningInstructions(referenceRequest.cloningInstructions())
+                .referenceObject(referenceRequest.referenceObject())
+                .build());
+      }
+    }
+    List<Boolean> inserted =
+        validReferences.isEmpty()
+            ? List.of()
+            : dataReferenceDao.createDataReferences(validReferences);
+
+    List<DataReferenceCreateResult> results = new ArrayList<>(referenceRequests.size());
+    int validIndex = 0;
+    for (Optional<ErrorReportException> validationError : validationErrors) {
+      if (validationError.isPresent()) {
+        results.add(DataReferenceCreateResult.failed(validationError.get()));
+        continue;
+      }
+      DataReference reference = validReferences.get(validIndex);
+      boolean created = inserted.get(validIndex);
+      validIndex++;
+      results.add(
+          created
+              ? DataReferenceCreateResult.created(reference)
+              : DataReferenceCreateResult.failed(
+                  new DuplicateDataReferenceException(
+                      "A data reference of this name and type already exists in the workspace")));
+    }
+    return results;
+  }
+
   /**
    * List data references in a workspace.
    *
@@ -120,6 +219,96 @@ public class DataReferenceService {
     return dataReferenceDao.enumerateDataReferences(workspaceId, offset, limit);
   }
 
+  /**
+   * List a page of data references in a workspace. Pass the previous page's token to get the next
+   * page, or null to start from the beginning.
+   */
+  @Traced
+  public DataReferencePage enumerateDataReferencePage(
+      UUID workspaceId, @Nullable String pageToken, int limit, AuthenticatedUserRequest userReq) {
+    samService.workspaceAuthz(userReq, workspaceId, SamUtils.SAM_WORKSPACE_READ_ACTION);
+    UUID afterReferenceId = (pageToken == null) ? null : DataReferencePageToken.decode(pageToken);
+    // Ask for one extra reference to find out whether there is another page.
+    List<DataReference> references =
+        dataReferenceDao.enumerateDataReferencesAfter(workspaceId, afterReferenceId, limit + 1);
+    if (references.size() <= limit) {
+      return DataReferencePage.create(references, Optional.empty());
+    }
+    List<DataReference> page = references.subList(0, limit);
+    return DataReferencePage.create(
+        page, Optional.of(DataReferencePageToken.encode(page.get(limit - 1).referenceId())));
+  }
+
+  /**
+   * List a page of the references to a Data Repo snapshot, across all workspaces. Pass the previous
+   * page's token to get the next page, or null to start from the beginning.
+   *
+   * <p>Only references in workspaces the caller can read are returned, so a page may hold fewer
+   * than {@code limit} references even when it is not the last. Read access is checked once per
+   * workspace on the page, and the checks for different workspaces run concurrently.
+   */
+  @Traced
+  public SnapshotReferencePage enumerateSnapshotReferencePage(
+      String instanceName,
+      String snapshotId,
+      @Nullable String pageToken,
+      int limit,
+      AuthenticatedUserRequest userReq) {
+    DataReferenceId after =
+        (pageToken == null) ? null : SnapshotReferencePageToken.decode(pageToken);
+    // Ask for one extra reference to find out whether there is another page.
+    List<DataReferenceId> references =
+        dataReferenceDao.enumerateSnapshotReferencesAfter(
+            instanceName, snapshotId, after, limit + 1);
+    Optional<String> nextPageToken = Optional.empty();
+    if (references.size() > limit) {
+      references = references.subList(0, limit);
+      nextPageToken = Optional.of(SnapshotReferencePageToken.encode(references.get(limit - 1)));
+    }
+
+    Set<String> readableWorkspaceIds =
+        samService.getAuthorizedResourceIds(
+            userReq.getRequiredToken(),
+            SamUtils.SAM_WORKSPACE_RESOURCE,
+            references.stream()
+                .map(reference -> reference.workspaceId().toString())
+                .collect(Collectors.toList()),
+            SamUtils.SAM_WORKSPACE_READ_ACTION);
+    List<DataReferenceId> readableReferences =
+        references.stream()
+            .filter(reference -> readableWorkspaceIds.contains(reference.workspaceId().toString()))
+            .collect(Collectors.toList());
+    return SnapshotReferencePage.create(readableReferences, nextPageToken);
+  }
+
+  /**
+   * Export all data references in a workspace. Read access is checked once, here; the returned
+   * export reads the references from the database each time it is iterated.
+   *
+   * <p>References are read in pages of {@link #EXPORT_PAGE_SIZE}, each with its own short query
+   * that seeks past the last reference of the previous page. No database connection is held while
+   * a page is passed to the caller, however slowly it consumes it. An export is therefore not a
+   * consistent snapshot: references created or deleted while it runs may or may not be included.
+   */
+  @Traced
+  public DataReferenceExport exportDataReferences(
+      UUID workspaceId, AuthenticatedUserRequest userReq) {
+    samService.workspaceAuthz(userReq, workspaceId, SamUtils.SAM_WORKSPACE_READ_ACTION);
+    return action -> {
+      UUID afterReferenceId = null;
+      List<DataReference> page;
+      do {
+        page =
+            dataReferenceDao.enumerateDataReferencesAfter(
+                workspaceId, afterReferenceId, EXPORT_PAGE_SIZE);
+        page.forEach(action);
+        if (!page.isEmpty()) {
+          afterReferenceId = page.get(page.size() - 1).referenceId();
+        }
+      } while (page.size() == EXPORT_PAGE_SIZE);
+    };
+  }
+
   /** Delete a data reference, or throw an exception if the specified reference does not exist. */
   @Traced
   public void deleteDataReference(
@@ -136,4 +325,11 @@ public class DataReferenceService {
       throw new DataReferenceNotFoundException("Data Reference not found.");
     }
   }
+
+  private void verifyWorkspaceNotDeleting(UUID workspaceId) {
+    if (workspaceDao.isWorkspaceDeleting(workspaceId)) {
+      throw new WorkspaceDeletingException(
+          "Cannot create data references in a workspace that is being deleted.");
+    }
+  }
 }
@@ -0,0 +1,25 @@
+package bio.terra.workspace.service.datareference.model;
+
+import bio.terra.workspace.common.exception.ErrorReportException;
+import com.google.auto.value.AutoValue;
+import java.util.Optional;
+
+/**
+ * Outcome of creating one reference in a batch: either the created reference, or the error that
+ * prevented it from being created. Exactly one of the two is present.
+ */
+@AutoValue
+public abstract class DataReferenceCreateResult {
+
+  public abstract Optional<DataReference> reference();
+
+  public abstract Optional<ErrorReportException> error();
+
+  public static DataReferenceCreateResult created(DataReference reference) {
+    return new AutoValue_DataReferenceCreateResult(Optional.of(reference), Optional.empty());
+  }
+
+  public static DataReferenceCreateResult failed(ErrorReportException error) {
+    return new AutoValue_DataReferenceCreateResult(Optional.empty(), Optional.of(error));
+  }
+}
@@ -0,0 +1,13 @@
+package bio.terra.workspace.service.datareference.model;
+
+import java.util.function.Consumer;
+
+/**
+ * All data references in a workspace, read lazily. Each call to {@link #forEach(Consumer)} reads
+ * the references from the database again, one page at a time, without holding more than a page in
+ * memory or a database connection between pages. The result is not a point-in-time snapshot.
+ */
+@FunctionalInterface
+public interface DataReferenceExport {
+  void forEach(Consumer<DataReference> action);
+}
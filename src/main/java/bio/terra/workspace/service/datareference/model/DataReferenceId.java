@@ -0,0 +1,17 @@
+package bio.terra.workspace.service.datareference.model;
+
+import com.google.auto.value.AutoValue;
+import java.util.UUID;
+
+/** Identifies a data reference: a reference ID is only unique within its workspace. */
+@AutoValue
+public abstract class DataReferenceId {
+
+  public abstract UUID workspaceId();
+
+  public abstract UUID referenceId();
+
+  public static DataReferenceId create(UUID workspaceId, UUID referenceId) {
+    return new AutoValue_DataReferenceId(workspaceId, referenceId);
+  }
+}
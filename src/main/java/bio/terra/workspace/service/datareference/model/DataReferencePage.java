@@ -0,0 +1,20 @@
+package bio.terra.workspace.service.datareference.model;
+
+import com.google.auto.value.AutoValue;
+import java.util.List;
+import java.util.Optional;
+
+/** One page of data references, plus a token for fetching the next page if there is one. */
+@AutoValue
+public abstract class DataReferencePage {
+
+  public abstract List<DataReference> references();
+
+  /** Opaque token to pass back to fetch the next page. Empty on the last page. */
+  public abstract Optional<String> nextPageToken();
+
+  public static DataReferencePage create(
+      List<DataReference> references, Optional<String> nextPageToken) {
+    return new AutoValue_DataReferencePage(references, nextPageToken);
+  }
+}
@@ -0,0 +1,23 @@
+package bio.terra.workspace.service.datareference.model;
+
+import com.google.auto.value.AutoValue;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One page of the references to a Data Repo snapshot, plus a token for fetching the next page if
+ * there is one.
+ */
+@AutoValue
+public abstract class SnapshotReferencePage {
+
+  public abstract List<DataReferenceId> references();
+
+  /** Opaque token to pass back to fetch the next page. Empty on the last page. */
+  public abstract Optional<String> nextPageToken();
+
+  public static SnapshotReferencePage create(
+      List<DataReferenceId> references, Optional<String> nextPageToken) {
+    return new AutoValue_SnapshotReferencePage(references, nextPageToken);
+  }
+}
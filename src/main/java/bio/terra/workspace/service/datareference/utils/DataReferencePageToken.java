@@ -0,0 +1,38 @@
+package bio.terra.workspace.service.datareference.utils;
+
+import bio.terra.workspace.common.exception.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encodes and decodes the page tokens used to list data references.
+ *
+ * <p>A token holds the ID of the last reference on the previous page, so that the next page can
+ * start directly after it. Tokens are opaque to clients; the version prefix lets us change what
+ * they hold later.
+ */
+public final class DataReferencePageToken {
+  private static final String VERSION_PREFIX = "v1:";
+
+  private DataReferencePageToken() {}
+
+  public static String encode(UUID lastReferenceId) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString((VERSION_PREFIX + lastReferenceId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Returns the last reference ID held by the token, or throws if the token is malformed. */
+  public static UUID decode(String pageToken) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+      if (!decoded.startsWith(VERSION_PREFIX)) {
+        throw new ValidationException("Invalid page token.");
+      }
+      return UUID.fromString(decoded.substring(VERSION_PREFIX.length()));
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Invalid page token.");
+    }
+  }
+}
@@ -1,13 +1,29 @@
 package bio.terra.workspace.service.datareference.utils;
 
+import bio.terra.workspace.app.configuration.external.DataRepoConfiguration;
+import bio.terra.workspace.common.exception.ErrorReportException;
+import bio.terra.workspace.service.datareference.exception.DataRepoInternalServerErrorException;
 import bio.terra.workspace.service.datareference.exception.InvalidDataReferenceException;
+import bio.terra.workspace.service.datareference.model.DataReferenceRequest;
 import bio.terra.workspace.service.datareference.model.DataReferenceType;
 import bio.terra.workspace.service.datareference.model.ReferenceObject;
 import bio.terra.workspace.service.datareference.model.SnapshotReference;
 import bio.terra.workspace.service.datarepo.DataRepoService;
 import bio.terra.workspace.service.iam.AuthenticatedUserRequest;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
 
 /** A collection of validation functions for data references. */
@@ -16,6 +32,15 @@ public class DataReferenceValidationUtils {
 
   private DataRepoService dataRepoService;
 
+  /**
+   * Runs snapshot checks for batches of references. Its size bounds the number of concurrent Data
+   * Repo calls across all batches being validated on this instance.
+   */
+  private final ExecutorService validationExecutor;
+
+  /** Seconds to wait for running snapshot checks when the application shuts down. */
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
   /**
    * Names must be 1-63 characters long, and may consist of alphanumeric characters and underscores
    * (but may not start with an underscore). These restrictions match TDR snapshot name restrictions
@@ -31,8 +56,33 @@ public class DataReferenceValidationUtils {
     }
   }
 
-  public DataReferenceValidationUtils(DataRepoService dataRepoService) {
+  public DataReferenceValidationUtils(
+      DataRepoService dataRepoService, DataRepoConfiguration dataRepoConfiguration) {
     this.dataRepoService = dataRepoService;
+    this.validationExecutor =
+        Executors.newFixedThreadPool(
+            dataRepoConfiguration.getValidationParallelism(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("reference-validation-%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  /**
+   * Stops accepting validation work and gives in-flight snapshot checks a short grace period to
+   * finish, so the Data Repo calls they make are not cut off mid-request on shutdown.
+   */
+  @PreDestroy
+  public void shutdown() {
+    validationExecutor.shutdown();
+    try {
+      if (!validationExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        validationExecutor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      validationExecutor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
   }
 
   /**
@@ -56,6 +106,47 @@ public class DataReferenceValidationUtils {
     }
   }
 
+  /**
+   * Validates the reference objects of several requests concurrently, with at most the configured
+   * validation parallelism in flight at once. Returns each request's validation error in the order
+   * given, or empty if the request is valid. Unlike {@link #validateReferenceObject}, this never
+   * throws for an invalid reference.
+   */
+  public List<Optional<ErrorReportException>> validateReferenceObjects(
+      List<DataReferenceRequest> requests, AuthenticatedUserRequest userReq) {
+    // Pool threads need the request's MDC so that Data Repo calls carry its request ID.
+    Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+    List<CompletableFuture<Optional<ErrorReportException>>> validations =
+        requests.stream()
+            .map(
+                request ->
+                    CompletableFuture.supplyAsync(
+                        () -> validationError(request, userReq, mdcContext), validationExecutor))
+            .collect(Collectors.toList());
+    return validations.stream().map(CompletableFuture::join).collect(Collectors.toList());
+  }
+
+  private Optional<ErrorReportException> validationError(
+      DataReferenceRequest request,
+      AuthenticatedUserRequest userReq,
+      @Nullable Map<String, String> mdcContext) {
+    if (mdcContext != null) {
+      MDC.setContextMap(mdcContext);
+    }
+    try {
+      validateReferenceObject(request.referenceObject(), request.referenceType(), userReq);
+      return Optional.empty();
+    } catch (ErrorReportException e) {
+      return Optional.of(e);
+    } catch (RuntimeException e) {
+      return Optional.of(
+          new DataRepoInternalServerErrorException(
+              "Failed to validate reference: " + e.getMessage(), e));
+    } finally {
+      MDC.clear();
+    }
+  }
+
   private void validateSnapshotReference(SnapshotReference ref, AuthenticatedUserRequest userReq) {
     if (StringUtils.isBlank(ref.instanceName()) || StringUtils.isBlank(ref.snapshot())) {
       throw new InvalidDataReferenceException(
@@ -0,0 +1,46 @@
+package bio.terra.workspace.service.datareference.utils;
+
+import bio.terra.workspace.common.exception.ValidationException;
+import bio.terra.workspace.service.datareference.model.DataReferenceId;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encodes and decodes the page tokens used to list the references to a snapshot.
+ *
+ * <p>These references span workspaces, so a token holds both the workspace and reference ID of the
+ * last reference on the previous page. Like {@link DataReferencePageToken}, tokens are opaque to
+ * clients and carry a version prefix.
+ */
+public final class SnapshotReferencePageToken {
+  private static final String VERSION_PREFIX = "v1:";
+  private static final String SEPARATOR = "/";
+
+  private SnapshotReferencePageToken() {}
+
+  public static String encode(DataReferenceId lastReference) {
+    String token =
+        VERSION_PREFIX + lastReference.workspaceId() + SEPARATOR + lastReference.referenceId();
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Returns the last reference held by the token, or throws if the token is malformed. */
+  public static DataReferenceId decode(String pageToken) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+      if (!decoded.startsWith(VERSION_PREFIX)) {
+        throw new ValidationException("Invalid page token.");
+      }
+      String[] ids = decoded.substring(VERSION_PREFIX.length()).split(SEPARATOR, -1);
+      if (ids.length != 2) {
+        throw new ValidationException("Invalid page token.");
+      }
+      return DataReferenceId.create(UUID.fromString(ids[0]), UUID.fromString(ids[1]));
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Invalid page token.");
+    }
+  }
+}
@@ -7,12 +7,19 @@ import bio.terra.datarepo.client.ApiException;
 import bio.terra.workspace.app.configuration.external.DataRepoConfiguration;
 import bio.terra.workspace.app.configuration.spring.TraceInterceptorConfig;
 import bio.terra.workspace.common.exception.ValidationException;
+import bio.terra.workspace.common.utils.OutboundCallMetrics;
 import bio.terra.workspace.generated.model.SystemStatusSystems;
 import bio.terra.workspace.service.datareference.exception.DataRepoAuthorizationException;
 import bio.terra.workspace.service.datareference.exception.DataRepoInternalServerErrorException;
 import bio.terra.workspace.service.iam.AuthenticatedUserRequest;
+import com.google.common.collect.ImmutableMap;
 import io.opencensus.contrib.spring.aop.Traced;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.annotation.Nullable;
+import javax.ws.rs.client.Client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -24,16 +31,53 @@ import org.springframework.stereotype.Component;
 public class DataRepoService {
 
   private final DataRepoConfiguration dataRepoConfiguration;
+  private final SnapshotExistenceCache snapshotExistenceCache;
+  private final OutboundCallMetrics outboundCallMetrics;
+
+  /**
+   * HTTP client shared by all API clients, so that calls to Data Repo share one transport and its
+   * kept-alive connections however many API clients exist.
+   */
+  private final Client sharedHttpClient;
+
+  /**
+   * Idle API clients for each configured Data Repo instance URL. A client holds the access token
+   * and request ID of the call using it, so each client is used by one call at a time. At most
+   * {@link #MAX_IDLE_CLIENTS_PER_INSTANCE} are kept per instance; clients built during a burst
+   * beyond that are dropped when returned.
+   */
+  private final ImmutableMap<String, BlockingQueue<ApiClient>> idleApiClients;
+
+  private static final int MAX_IDLE_CLIENTS_PER_INSTANCE = 16;
 
   @Autowired
-  public DataRepoService(DataRepoConfiguration dataRepoConfiguration) {
+  public DataRepoService(
+      DataRepoConfiguration dataRepoConfiguration,
+      SnapshotExistenceCache snapshotExistenceCache,
+      OutboundCallMetrics outboundCallMetrics) {
     this.dataRepoConfiguration = dataRepoConfiguration;
+    this.snapshotExistenceCache = snapshotExistenceCache;
+    this.outboundCallMetrics = outboundCallMetrics;
+    this.sharedHttpClient = new ApiClient().getHttpClient();
+    ImmutableMap.Builder<String, BlockingQueue<ApiClient>> idleApiClients = ImmutableMap.builder();
+    for (String instanceUrl : new HashSet<>(dataRepoConfiguration.getInstances().values())) {
+      idleApiClients.put(instanceUrl, new ArrayBlockingQueue<>(MAX_IDLE_CLIENTS_PER_INSTANCE));
+    }
+    this.idleApiClients = idleApiClients.build();
   }
 
   private Logger logger = LoggerFactory.getLogger(DataRepoService.class);
 
-  private ApiClient getApiClient(String accessToken) {
-    ApiClient client = new ApiClient();
+  /**
+   * Takes an idle API client for an instance, or builds one on the shared HTTP client if there is
+   * none.
+   */
+  private ApiClient borrowApiClient(String instanceUrl, @Nullable String accessToken) {
+    BlockingQueue<ApiClient> idleClients = idleApiClients.get(instanceUrl);
+    ApiClient client = (idleClients == null) ? null : idleClients.poll();
+    if (client == null) {
+      client = new ApiClient().setHttpClient(sharedHttpClient).setBasePath(instanceUrl);
+    }
     client.addDefaultHeader(
         TraceInterceptorConfig.MDC_REQUEST_ID_HEADER,
         MDC.get(TraceInterceptorConfig.MDC_REQUEST_ID_KEY));
@@ -41,9 +85,16 @@ public class DataRepoService {
     return client;
   }
 
-  private RepositoryApi repositoryApi(String instanceName, AuthenticatedUserRequest userReq) {
-    String instanceUrl = getInstanceUrl(instanceName);
-    return new RepositoryApi(getApiClient(userReq.getRequiredToken()).setBasePath(instanceUrl));
+  /**
+   * Returns a client taken by {@link #borrowApiClient} once its call has finished. The client is
+   * dropped if enough clients are already idle.
+   */
+  private void returnApiClient(String instanceUrl, ApiClient client) {
+    client.setAccessToken(null);
+    BlockingQueue<ApiClient> idleClients = idleApiClients.get(instanceUrl);
+    if (idleClients != null) {
+      idleClients.offer(client);
+    }
   }
 
   public String getInstanceUrl(String instanceName) {
@@ -60,13 +111,30 @@ public class DataRepoService {
     }
   }
 
+  /**
+   * Returns true if the snapshot exists and the user can read it. Positive answers are cached per
+   * user, and concurrent checks of the same snapshot by the same user share one Data Repo call.
+   */
   @Traced
   public boolean snapshotExists(
       String instanceName, String snapshotId, AuthenticatedUserRequest userReq) {
-    RepositoryApi repositoryApi = repositoryApi(instanceName, userReq);
+    String instanceUrl = getInstanceUrl(instanceName);
+    String accessToken = userReq.getRequiredToken();
+    return snapshotExistenceCache.snapshotExists(
+        accessToken,
+        instanceUrl,
+        snapshotId,
+        () -> retrieveSnapshotExists(instanceName, instanceUrl, snapshotId, accessToken));
+  }
 
+  private boolean retrieveSnapshotExists(
+      String instanceName, String instanceUrl, String snapshotId, String accessToken) {
+    ApiClient client = borrowApiClient(instanceUrl, accessToken);
     try {
-      repositoryApi.retrieveSnapshot(snapshotId);
+      outboundCallMetrics.record(
+          OutboundCallMetrics.DATA_REPO,
+          "retrieveSnapshot",
+          () -> new RepositoryApi(client).retrieveSnapshot(snapshotId));
       logger.info(
           String.format(
               "Retrieved snapshot %s on Data Repo instance %s", snapshotId, instanceName));
@@ -81,21 +149,27 @@ public class DataRepoService {
         throw new DataRepoInternalServerErrorException(
             "Data Repo returned the following error: " + e.getMessage(), e.getCause());
       }
+    } finally {
+      returnApiClient(instanceUrl, client);
     }
   }
 
   public SystemStatusSystems status(String instanceUrl) {
-    UnauthenticatedApi unauthenticatedApi =
-        new UnauthenticatedApi(new ApiClient().setBasePath(instanceUrl));
+    ApiClient client = borrowApiClient(instanceUrl, null);
     try {
       // TDR serviceStatus method returns cleanly on a 200 response and throws an error otherwise,
       // no other information is available through this endpoint.
-      unauthenticatedApi.serviceStatus();
+      outboundCallMetrics.run(
+          OutboundCallMetrics.DATA_REPO,
+          "serviceStatus",
+          () -> new UnauthenticatedApi(client).serviceStatus());
       return new SystemStatusSystems().ok(true);
     } catch (ApiException nonOkStatusException) {
       return new SystemStatusSystems()
           .ok(false)
           .addMessagesItem(nonOkStatusException.getResponseBody());
+    } finally {
+      returnApiClient(instanceUrl, client);
     }
   }
 }
@@ -0,0 +1,128 @@
+package bio.terra.workspace.service.datarepo;
+
+import bio.terra.workspace.app.configuration.external.DataRepoConfiguration;
+import bio.terra.workspace.common.utils.TokenKeyedCache;
+import com.google.auto.value.AutoValue;
+import com.google.common.cache.CacheStats;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which Data Repo snapshots a user has recently been able to see, and shares a single
+ * Data Repo call between concurrent checks of the same snapshot by the same user.
+ *
+ * <p>Only positive answers are cached: a snapshot that was not found, or a failed check, is asked
+ * about again next time. Answers are held in a {@link TokenKeyedCache}, so one user's access to a
+ * snapshot never answers for another user, and raw tokens are not held by the cache.
+ * A snapshot deleted or unshared in Data Repo keeps passing the check for at most one TTL.
+ */
+@Component
+public class SnapshotExistenceCache {
+  private final boolean enabled;
+  private final TokenKeyedCache<Check, Boolean> existsCache;
+  private final ConcurrentHashMap<TokenKeyedCache.Key<Check>, CompletableFuture<Boolean>>
+      inFlightChecks = new ConcurrentHashMap<>();
+
+  private final LongAdder coalescedCount = new LongAdder();
+
+  @Autowired
+  public SnapshotExistenceCache(DataRepoConfiguration dataRepoConfig) {
+    this.enabled = dataRepoConfig.isSnapshotCacheEnabled();
+    this.existsCache =
+        new TokenKeyedCache<>(
+            Duration.ofSeconds(dataRepoConfig.getSnapshotCacheTtlSeconds()),
+            dataRepoConfig.getSnapshotCacheMaximumSize());
+  }
+
+  /**
+   * Returns true if this user was recently found to have access to the snapshot. Otherwise calls
+   * {@code dataRepoCheck}, or waits for a call already in progress for the same user and snapshot,
+   * and caches a positive result. Exceptions from the call are rethrown to every waiting caller.
+   */
+  public boolean snapshotExists(
+      String accessToken, String instanceUrl, String snapshotId, BooleanSupplier dataRepoCheck) {
+    TokenKeyedCache.Key<Check> key =
+        TokenKeyedCache.key(accessToken, Check.create(instanceUrl, snapshotId));
+    if (enabled && existsCache.getIfPresent(key) != null) {
+      return true;
+    }
+
+    CompletableFuture<Boolean> check = new CompletableFuture<>();
+    CompletableFuture<Boolean> inFlightCheck = inFlightChecks.putIfAbsent(key, check);
+    if (inFlightCheck != null) {
+      coalescedCount.increment();
+      return awaitCheck(inFlightCheck);
+    }
+
+    try {
+      boolean exists = dataRepoCheck.getAsBoolean();
+      // Cache before the in-flight entry is removed, so that later callers find one or the other.
+      if (enabled && exists) {
+        existsCache.put(key, true);
+      }
+      check.complete(exists);
+      return exists;
+    } catch (RuntimeException e) {
+      check.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlightChecks.remove(key, check);
+    }
+  }
+
+  private static boolean awaitCheck(CompletableFuture<Boolean> check) {
+    try {
+      return check.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /** Drops all cached answers. */
+  public void invalidateAll() {
+    existsCache.invalidateAll();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Hits, misses and evictions of the cache. Checks that shared an in-flight call are counted as
+   * misses, and are also counted by {@link #getCoalescedCount()}.
+   */
+  public CacheStats stats() {
+    return existsCache.stats();
+  }
+
+  /** Number of checks that shared another caller's in-flight Data Repo call. */
+  public long getCoalescedCount() {
+    return coalescedCount.sum();
+  }
+
+  /** Number of answers currently cached. */
+  public long size() {
+    return existsCache.size();
+  }
+
+  /** Identifies a check of one snapshot, independently of the user making it. */
+  @AutoValue
+  abstract static class Check {
+    abstract String instanceUrl();
+
+    abstract String snapshotId();
+
+    static Check create(String instanceUrl, String snapshotId) {
+      return new AutoValue_SnapshotExistenceCache_Check(instanceUrl, snapshotId);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package bio.terra.workspace.service.iam;
+
+import bio.terra.workspace.app.configuration.external.SamConfiguration;
+import bio.terra.workspace.common.utils.TokenKeyedCache;
+import com.google.auto.value.AutoValue;
+import com.google.common.cache.CacheStats;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * A bounded, in-memory cache of Sam authorization decisions.
+ *
+ * <p>Allowed and denied decisions are held in separate caches so that each can have its own TTL:
+ * a denial typically should expire quickly so that a newly granted permission is picked up, while
+ * an allowed decision can be kept a little longer. Both are {@link TokenKeyedCache}s, so raw tokens
+ * are never held in memory by the cache.
+ *
+ * <p>Decisions are only cached on this node. Changes to a resource's policies made through other
+ * services are therefore visible after at most one TTL. Changes made through this service (creating
+ * or deleting a resource) invalidate the cached decisions for that resource immediately.
+ */
+@Component
+public class SamAuthorizationCache {
+  private final boolean enabled;
+  private final TokenKeyedCache<Check, Boolean> allowCache;
+  private final TokenKeyedCache<Check, Boolean> denyCache;
+
+  @Autowired
+  public SamAuthorizationCache(SamConfiguration samConfig) {
+    this.enabled = samConfig.isAuthzCacheEnabled();
+    this.allowCache =
+        new TokenKeyedCache<>(
+            Duration.ofSeconds(samConfig.getAuthzCacheAllowTtlSeconds()),
+            samConfig.getAuthzCacheMaximumSize());
+    this.denyCache =
+        new TokenKeyedCache<>(
+            Duration.ofSeconds(samConfig.getAuthzCacheDenyTtlSeconds()),
+            samConfig.getAuthzCacheMaximumSize());
+  }
+
+  /**
+   * Returns the cached decision for this check if there is one. Otherwise, calls {@code samCheck}
+   * and caches its result.
+   */
+  public boolean isAuthorized(
+      String accessToken,
+      String resourceType,
+      String resourceId,
+      String action,
+      BooleanSupplier samCheck) {
+    if (!enabled) {
+      return samCheck.getAsBoolean();
+    }
+    TokenKeyedCache.Key<Check> key =
+        TokenKeyedCache.key(accessToken, Check.create(resourceType, resourceId, action));
+    if (allowCache.getIfPresent(key) != null) {
+      return true;
+    }
+    if (denyCache.getIfPresent(key) != null) {
+      return false;
+    }
+    boolean authorized = samCheck.getAsBoolean();
+    (authorized ? allowCache : denyCache).put(key, authorized);
+    return authorized;
+  }
+
+  /** Drops all cached decisions for every user on a single resource. */
+  public void invalidateResource(String resourceType, String resourceId) {
+    allowCache.invalidateIf(check -> check.matchesResource(resourceType, resourceId));
+    denyCache.invalidateIf(check -> check.matchesResource(resourceType, resourceId));
+  }
+
+  /** Drops all cached decisions. */
+  public void invalidateAll() {
+    allowCache.invalidateAll();
+    denyCache.invalidateAll();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Hits, misses and evictions across both caches. Every check that is not allowed from the cache
+   * goes on to the deny cache, so the deny cache's misses are the checks that had to call Sam.
+   */
+  public CacheStats stats() {
+    CacheStats allowStats = allowCache.stats();
+    CacheStats denyStats = denyCache.stats();
+    return new CacheStats(
+        allowStats.hitCount() + denyStats.hitCount(),
+        denyStats.missCount(),
+        0,
+        0,
+        0,
+        allowStats.evictionCount() + denyStats.evictionCount());
+  }
+
+  /** Number of decisions currently cached. */
+  public long size() {
+    return allowCache.size() + denyCache.size();
+  }
+
+  /** Identifies a single authorization check, independently of the user making it. */
+  @AutoValue
+  abstract static class Check {
+    abstract String resourceType();
+
+    abstract String resourceId();
+
+    abstract String action();
+
+    static Check create(String resourceType, String resourceId, String action) {
+      return new AutoValue_SamAuthorizationCache_Check(resourceType, resourceId, action);
+    }
+
+    boolean matchesResource(String resourceType, String resourceId) {
+      return resourceType().equals(resourceType) && resourceId().equals(resourceId);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package bio.terra.workspace.service.iam;
+
+import bio.terra.workspace.common.utils.TokenKeyedCache;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Remembers Sam authorization decisions for the lifetime of a single HTTP request.
+ *
+ * <p>A single API call can check the same permission several times as it passes through different
+ * service methods. The memo answers every repeat of a check from the first answer, so each distinct
+ * check costs at most one Sam round trip per request. Unlike {@link SamAuthorizationCache}, the memo
+ * never serves a decision to a later request.
+ *
+ * <p>The memo is stored as a request attribute. Outside of a request, for example in Stairway steps
+ * or scheduled tasks, every check goes straight to the supplied function.
+ */
+@Component
+public class SamRequestMemo {
+  private static final String MEMO_ATTRIBUTE = SamRequestMemo.class.getName();
+
+  /**
+   * Returns the decision already made for this check in the current request, if any. Otherwise,
+   * calls {@code check} and remembers its result for the rest of the request.
+   */
+  public boolean isAuthorized(
+      String accessToken,
+      String resourceType,
+      String resourceId,
+      String action,
+      BooleanSupplier check) {
+    Map<TokenKeyedCache.Key<SamAuthorizationCache.Check>, Boolean> memo = currentRequestMemo();
+    if (memo == null) {
+      return check.getAsBoolean();
+    }
+    TokenKeyedCache.Key<SamAuthorizationCache.Check> key =
+        TokenKeyedCache.key(
+            accessToken, SamAuthorizationCache.Check.create(resourceType, resourceId, action));
+    Boolean decision = memo.get(key);
+    if (decision == null) {
+      decision = check.getAsBoolean();
+      memo.put(key, decision);
+    }
+    return decision;
+  }
+
+  // Synchronized so that concurrent checks in one request, as made by
+  // SamService#getAuthorizedResourceIds, do not each create their own memo.
+  @SuppressWarnings("unchecked")
+  private static synchronized Map<TokenKeyedCache.Key<SamAuthorizationCache.Check>, Boolean>
+      currentRequestMemo() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      return null;
+    }
+    Map<TokenKeyedCache.Key<SamAuthorizationCache.Check>, Boolean> memo =
+        (Map<TokenKeyedCache.Key<SamAuthorizationCache.Check>, Boolean>)
+            attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    if (memo == null) {
+      memo = new ConcurrentHashMap<>();
+      attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+    }
+    return memo;
+  }
+}
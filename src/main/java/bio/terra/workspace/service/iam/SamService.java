@@ -4,16 +4,36 @@ import bio.terra.workspace.app.configuration.external.SamConfiguration;
 import bio.terra.workspace.app.configuration.spring.TraceInterceptorConfig;
 import bio.terra.workspace.common.exception.SamApiException;
 import bio.terra.workspace.common.exception.SamUnauthorizedException;
+import bio.terra.workspace.common.utils.OutboundCallMetrics;
 import bio.terra.workspace.common.utils.SamUtils;
 import bio.terra.workspace.generated.model.SystemStatusSystems;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.opencensus.contrib.spring.aop.Traced;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
 import org.apache.commons.lang3.StringUtils;
 import org.broadinstitute.dsde.workbench.client.sam.ApiClient;
 import org.broadinstitute.dsde.workbench.client.sam.ApiException;
@@ -26,60 +46,243 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Component
 public class SamService {
   private final SamConfiguration samConfig;
   private final ObjectMapper objectMapper;
+  private final SamAuthorizationCache authorizationCache;
+  private final SamRequestMemo requestMemo;
+  private final OutboundCallMetrics outboundCallMetrics;
+  /**
+   * The HTTP transport shared by all calls to Sam. OkHttpClient is thread-safe, and sharing it lets
+   * every call reuse the same pool of kept-alive connections.
+   */
+  private final OkHttpClient commonHttpClient;
+  /**
+   * Idle API clients on the shared transport. A client holds the access token and request ID of the
+   * call using it, so each client is used by one call at a time. Reusing clients avoids building
+   * the generated client's default transport, which {@code new ApiClient()} does, on every call.
+   */
+  private final BlockingQueue<ApiClient> idleApiClients;
+  /**
+   * Permits for calls to Sam. Calls are synchronous, so each holds one connection, and the permits
+   * cap the connections open to Sam at once. This also bounds the number of API clients.
+   */
+  private final Semaphore callPermits;
+  /**
+   * Runs the checks of {@link #getAuthorizedResourceIds}. Its size bounds the number of concurrent
+   * authorization checks that batch lookups on this instance send to Sam.
+   */
+  private final ExecutorService authzCheckExecutor;
 
   @Autowired
-  public SamService(SamConfiguration samConfig, ObjectMapper objectMapper) {
+  public SamService(
+      SamConfiguration samConfig,
+      ObjectMapper objectMapper,
+      SamAuthorizationCache authorizationCache,
+      SamRequestMemo requestMemo,
+      OutboundCallMetrics outboundCallMetrics) {
     this.samConfig = samConfig;
     this.objectMapper = objectMapper;
+    this.authorizationCache = authorizationCache;
+    this.requestMemo = requestMemo;
+    this.outboundCallMetrics = outboundCallMetrics;
+    this.commonHttpClient = buildHttpClient(samConfig);
+    this.idleApiClients = new ArrayBlockingQueue<>(samConfig.getMaxConnectionsPerRoute());
+    this.callPermits = new Semaphore(samConfig.getMaxConnectionsPerRoute());
+    this.authzCheckExecutor =
+        Executors.newFixedThreadPool(
+            samConfig.getAuthzCheckParallelism(),
+            new ThreadFactoryBuilder().setNameFormat("sam-authz-%d").setDaemon(true).build());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    authzCheckExecutor.shutdownNow();
   }
 
   private Logger logger = LoggerFactory.getLogger(SamService.class);
 
-  private ApiClient getApiClient(String accessToken) {
-    ApiClient client = new ApiClient();
+  private static OkHttpClient buildHttpClient(SamConfiguration samConfig) {
+    // Start from the generated client's defaults so we keep any interceptors it relies on.
+    return new ApiClient()
+        .getHttpClient()
+        .newBuilder()
+        .connectionPool(
+            new ConnectionPool(
+                samConfig.getMaxIdleConnections(),
+                samConfig.getIdleConnectionTimeoutSeconds(),
+                TimeUnit.SECONDS))
+        .connectTimeout(samConfig.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+        .readTimeout(samConfig.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  /**
+   * Takes an idle API client, or builds one on the shared HTTP client if there is none, once a call
+   * permit is free. The client is set up with the access token and request ID of the current call.
+   */
+  private ApiClient borrowApiClient(@Nullable String accessToken) {
+    try {
+      callPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SamApiException("Interrupted while waiting to call Sam", e);
+    }
+    ApiClient client = idleApiClients.poll();
+    if (client == null) {
+      client = new ApiClient().setHttpClient(commonHttpClient).setBasePath(samConfig.getBasePath());
+    }
     client.addDefaultHeader(
         TraceInterceptorConfig.MDC_REQUEST_ID_HEADER,
         MDC.get(TraceInterceptorConfig.MDC_REQUEST_ID_KEY));
     client.setAccessToken(accessToken);
-    return client.setBasePath(samConfig.getBasePath());
+    return client;
   }
 
-  private ResourcesApi samResourcesApi(String accessToken) {
-    return new ResourcesApi(getApiClient(accessToken));
+  /**
+   * Returns a client taken by {@link #borrowApiClient} once its call has finished, and releases its
+   * call permit.
+   */
+  private void returnApiClient(ApiClient client) {
+    client.setAccessToken(null);
+    client.addDefaultHeader(TraceInterceptorConfig.MDC_REQUEST_ID_HEADER, null);
+    idleApiClients.offer(client);
+    callPermits.release();
   }
 
   public void createWorkspaceWithDefaults(String authToken, UUID id) {
-    ResourcesApi resourceApi = samResourcesApi(authToken);
+    ApiClient client = borrowApiClient(authToken);
+    ResourcesApi resourceApi = new ResourcesApi(client);
     try {
-      resourceApi.createResourceWithDefaults(SamUtils.SAM_WORKSPACE_RESOURCE, id.toString());
+      outboundCallMetrics.run(
+          OutboundCallMetrics.SAM,
+          "createResourceWithDefaults",
+          () ->
+              resourceApi.createResourceWithDefaults(
+                  SamUtils.SAM_WORKSPACE_RESOURCE, id.toString()));
+      // Any decision cached before the resource existed is now stale.
+      authorizationCache.invalidateResource(SamUtils.SAM_WORKSPACE_RESOURCE, id.toString());
       logger.info(String.format("Created Sam resource for workspace %s", id.toString()));
     } catch (ApiException apiException) {
       throw new SamApiException(apiException);
+    } finally {
+      returnApiClient(client);
     }
   }
 
   public void deleteWorkspace(String authToken, UUID id) {
-    ResourcesApi resourceApi = samResourcesApi(authToken);
+    ApiClient client = borrowApiClient(authToken);
+    ResourcesApi resourceApi = new ResourcesApi(client);
     try {
-      resourceApi.deleteResource(SamUtils.SAM_WORKSPACE_RESOURCE, id.toString());
+      outboundCallMetrics.run(
+          OutboundCallMetrics.SAM,
+          "deleteResource",
+          () -> resourceApi.deleteResource(SamUtils.SAM_WORKSPACE_RESOURCE, id.toString()));
+      authorizationCache.invalidateResource(SamUtils.SAM_WORKSPACE_RESOURCE, id.toString());
       logger.info(String.format("Deleted Sam resource for workspace %s", id.toString()));
     } catch (ApiException apiException) {
       throw new SamApiException(apiException);
+    } finally {
+      returnApiClient(client);
     }
   }
 
+  /**
+   * Checks whether the caller may perform {@code action} on a Sam resource. A repeat of a check
+   * within the same HTTP request is answered by the {@link SamRequestMemo}; otherwise decisions may
+   * be served from the {@link SamAuthorizationCache} when it is enabled.
+   */
   public boolean isAuthorized(
       String accessToken, String iamResourceType, String resourceId, String action) {
-    ResourcesApi resourceApi = samResourcesApi(accessToken);
+    return requestMemo.isAuthorized(
+        accessToken,
+        iamResourceType,
+        resourceId,
+        action,
+        () ->
+            authorizationCache.isAuthorized(
+                accessToken,
+                iamResourceType,
+                resourceId,
+                action,
+                () -> isAuthorizedUncached(accessToken, iamResourceType, resourceId, action)));
+  }
+
+  /**
+   * Returns the subset of {@code resourceIds} on which the caller may perform {@code action}. The
+   * checks run concurrently, at most the configured authorization check parallelism at a time, and
+   * each goes through {@link #isAuthorized} so that the request memo and cache still apply.
+   */
+  public Set<String> getAuthorizedResourceIds(
+      String accessToken, String iamResourceType, Collection<String> resourceIds, String action) {
+    // Pool threads need the request's attributes, which hold the request memo, and its MDC, so that
+    // Sam calls carry the request ID.
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+    Map<String, CompletableFuture<Boolean>> checks = new LinkedHashMap<>();
+    for (String resourceId : new LinkedHashSet<>(resourceIds)) {
+      checks.put(
+          resourceId,
+          CompletableFuture.supplyAsync(
+              () ->
+                  inRequestContext(
+                      requestAttributes,
+                      mdcContext,
+                      () -> isAuthorized(accessToken, iamResourceType, resourceId, action)),
+              authzCheckExecutor));
+    }
+    Set<String> authorized = new HashSet<>();
     try {
-      return resourceApi.resourceAction(iamResourceType, resourceId, action);
+      checks.forEach(
+          (resourceId, check) -> {
+            if (check.join()) {
+              authorized.add(resourceId);
+            }
+          });
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+    return authorized;
+  }
+
+  private static boolean inRequestContext(
+      @Nullable RequestAttributes requestAttributes,
+      @Nullable Map<String, String> mdcContext,
+      BooleanSupplier check) {
+    if (requestAttributes != null) {
+      RequestContextHolder.setRequestAttributes(requestAttributes);
+    }
+    if (mdcContext != null) {
+      MDC.setContextMap(mdcContext);
+    }
+    try {
+      return check.getAsBoolean();
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+      MDC.clear();
+    }
+  }
+
+  private boolean isAuthorizedUncached(
+      String accessToken, String iamResourceType, String resourceId, String action) {
+    ApiClient client = borrowApiClient(accessToken);
+    ResourcesApi resourceApi = new ResourcesApi(client);
+    try {
+      return outboundCallMetrics.record(
+          OutboundCallMetrics.SAM,
+          "resourceAction",
+          () -> resourceApi.resourceAction(iamResourceType, resourceId, action));
     } catch (ApiException samException) {
       throw new SamApiException(samException);
+    } finally {
+      returnApiClient(client);
     }
   }
 
@@ -103,9 +306,25 @@ public class SamService {
               userReq.getEmail(), action, workspaceId.toString()));
   }
 
+  /** Number of open connections, active or idle, in the shared Sam connection pool. */
+  public int getPooledConnectionCount() {
+    return commonHttpClient.connectionPool().connectionCount();
+  }
+
+  /** Number of idle connections in the shared Sam connection pool. */
+  public int getIdlePooledConnectionCount() {
+    return commonHttpClient.connectionPool().idleConnectionCount();
+  }
+
+  /** Number of calls to Sam currently in flight. */
+  public int getRunningCallCount() {
+    return commonHttpClient.dispatcher().runningCallsCount();
+  }
+
   public SystemStatusSystems status() {
     // No access token needed since this is an unauthenticated API.
-    StatusApi statusApi = new StatusApi(getApiClient(null));
+    ApiClient client = borrowApiClient(null);
+    StatusApi statusApi = new StatusApi(client);
 
     try {
       // Note the SystemStatus class here is from the Sam client library, not generated by WM's
@@ -113,7 +332,9 @@ public class SamService {
       // Additionally, Sam's codegen API makes no guarantees about the shape of its subsystems,
       // so SystemStatus.getSystems() returns an Object. We serialize and de-serialize it to get
       // proper types.
-      SystemStatus samStatus = statusApi.getSystemStatus();
+      SystemStatus samStatus =
+          outboundCallMetrics.record(
+              OutboundCallMetrics.SAM, "getSystemStatus", statusApi::getSystemStatus);
       String serializedStatus = objectMapper.writeValueAsString(samStatus.getSystems());
       TypeReference<Map<String, SubsystemStatus>> typeRef =
           new TypeReference<Map<String, SubsystemStatus>>() {};
@@ -129,6 +350,8 @@ public class SamService {
       return new SystemStatusSystems().ok(samStatus.getOk()).messages(subsystemStatusMessages);
     } catch (ApiException | JsonProcessingException e) {
       return new SystemStatusSystems().ok(false).addMessagesItem(e.getLocalizedMessage());
+    } finally {
+      returnApiClient(client);
     }
   }
 }
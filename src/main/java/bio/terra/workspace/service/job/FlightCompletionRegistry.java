@@ -0,0 +1,91 @@
+package bio.terra.workspace.service.job;
+
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightStatus;
+import bio.terra.stairway.HookAction;
+import bio.terra.stairway.StairwayHook;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * A {@link StairwayHook} that signals waiters the moment a flight finishes on this node.
+ *
+ * <p>A caller registers interest in a flight before submitting it and then blocks on the returned
+ * future. The future is completed from {@link #endFlight(FlightContext)} once the flight reaches a
+ * terminal status. Flights that run on another Stairway instance, for example after recovery, never
+ * signal this registry, so waiters must still check the flight state in the database as a fallback.
+ */
+@Component
+public class FlightCompletionRegistry implements StairwayHook {
+  private static final Set<FlightStatus> TERMINAL_STATUSES =
+      EnumSet.of(FlightStatus.SUCCESS, FlightStatus.ERROR, FlightStatus.FATAL);
+
+  private final Map<String, Waiters> waiters = new ConcurrentHashMap<>();
+
+  /** The future shared by everyone waiting on one flight, and how many are waiting. */
+  private static class Waiters {
+    final CompletableFuture<FlightStatus> completion = new CompletableFuture<>();
+    int count;
+  }
+
+  /**
+   * Returns a future that completes with the flight's final status when the flight ends on this
+   * node. Registering the same flight again returns the same future. Each call must be paired with
+   * a call to {@link #unregister(String)} when the caller stops waiting; the flight is tracked
+   * until every caller has unregistered.
+   */
+  public CompletableFuture<FlightStatus> register(String flightId) {
+    return waiters.compute(
+            flightId,
+            (id, flightWaiters) -> {
+              Waiters result = (flightWaiters == null) ? new Waiters() : flightWaiters;
+              result.count++;
+              return result;
+            })
+        .completion;
+  }
+
+  /** Stops waiting on a flight, and stops tracking it if no one else is waiting. */
+  public void unregister(String flightId) {
+    waiters.computeIfPresent(
+        flightId, (id, flightWaiters) -> (--flightWaiters.count == 0) ? null : flightWaiters);
+  }
+
+  /** Number of flights currently being waited on. */
+  public int size() {
+    return waiters.size();
+  }
+
+  @Override
+  public HookAction startFlight(FlightContext flightContext) {
+    return HookAction.CONTINUE;
+  }
+
+  @Override
+  public HookAction startStep(FlightContext flightContext) {
+    return HookAction.CONTINUE;
+  }
+
+  @Override
+  public HookAction endStep(FlightContext flightContext) {
+    return HookAction.CONTINUE;
+  }
+
+  @Override
+  public HookAction endFlight(FlightContext flightContext) {
+    // A flight that yields or is paused also ends its run here; only a terminal status means done.
+    FlightStatus status = flightContext.getFlightStatus();
+    if (TERMINAL_STATUSES.contains(status)) {
+      // Leave the completed future registered: the waiter may not have started waiting on it yet.
+      Waiters flightWaiters = waiters.get(flightContext.getFlightId());
+      if (flightWaiters != null) {
+        flightWaiters.completion.complete(status);
+      }
+    }
+    return HookAction.CONTINUE;
+  }
+}
@@ -0,0 +1,243 @@
+package bio.terra.workspace.service.job;
+
+import bio.terra.stairway.Direction;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.HookAction;
+import bio.terra.stairway.StairwayHook;
+import bio.terra.workspace.app.configuration.external.JobConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opencensus.common.Scope;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.Tracer;
+import io.opencensus.trace.Tracing;
+import io.opencensus.trace.propagation.SpanContextParseException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * A {@link StairwayHook} that records how flights and their steps run on this node, as metrics and
+ * as OpenCensus spans.
+ *
+ * <p>Flight durations cover one run of a flight on this node, from its start or resumption until it
+ * finishes or stops running here, and are tagged with the status it stopped with. Step durations
+ * are tagged with the direction the step ran in, so that undos are told apart. A step that starts
+ * again in the same direction without the flight moving on is counted as a retry, and steps slower
+ * than the configured threshold are counted and logged.
+ *
+ * <p>Each flight run gets a span whose parent is the span that was current when the job was
+ * submitted, passed through the input {@link FlightMap}, so that flights appear in the trace of the
+ * request that started them. Each step gets a child span, which is current while the step runs.
+ */
+@Component
+public class FlightInstrumentationHook implements StairwayHook {
+  /** The key to use in {@link FlightMap} for storing the submitting request's span context. */
+  public static final String SPAN_CONTEXT_FLIGHT_MAP_KEY = "spanContextKey";
+
+  public static final String FLIGHT_METRIC_NAME = "wsm.flight.duration";
+  public static final String STEP_METRIC_NAME = "wsm.flight.step.duration";
+  public static final String RETRY_METRIC_NAME = "wsm.flight.step.retries";
+  public static final String UNDO_METRIC_NAME = "wsm.flight.undos";
+  public static final String SLOW_STEP_METRIC_NAME = "wsm.flight.step.slow";
+
+  private final MeterRegistry meterRegistry;
+  private final Tracer tracer;
+  private final Duration slowStepThreshold;
+  /** The flights running on this node, by flight id. */
+  private final Map<String, FlightRun> runs = new ConcurrentHashMap<>();
+
+  private final Logger logger = LoggerFactory.getLogger(FlightInstrumentationHook.class);
+
+  @Autowired
+  public FlightInstrumentationHook(
+      MeterRegistry meterRegistry, Tracer tracer, JobConfiguration jobConfiguration) {
+    this.meterRegistry = meterRegistry;
+    this.tracer = tracer;
+    this.slowStepThreshold = Duration.ofSeconds(jobConfiguration.getSlowStepThresholdSeconds());
+  }
+
+  /**
+   * Returns the serialized context of the current span, or null if there is none.
+   *
+   * <p>This is meant to be used to set up the initial {@link FlightMap} when a Flight is being
+   * created, so that the flight's spans join the trace of the request creating it.
+   */
+  @Nullable
+  public String getSerializedCurrentSpanContext() {
+    SpanContext spanContext = tracer.getCurrentSpan().getContext();
+    if (!spanContext.isValid()) {
+      return null;
+    }
+    return Base64.getEncoder()
+        .encodeToString(
+            Tracing.getPropagationComponent().getBinaryFormat().toByteArray(spanContext));
+  }
+
+  @Override
+  public HookAction startFlight(FlightContext flightContext) {
+    String flightName = simpleName(flightContext.getFlightClassName());
+    SpanContext parent =
+        deserializeSpanContext(
+            flightContext.getInputParameters().get(SPAN_CONTEXT_FLIGHT_MAP_KEY, String.class));
+    Span span =
+        (parent == null
+                ? tracer.spanBuilderWithExplicitParent("flight/" + flightName, null)
+                : tracer.spanBuilderWithRemoteParent("flight/" + flightName, parent))
+            .startSpan();
+    span.putAttribute("flightId", AttributeValue.stringAttributeValue(flightContext.getFlightId()));
+    runs.put(flightContext.getFlightId(), new FlightRun(flightName, span));
+    return HookAction.CONTINUE;
+  }
+
+  @Override
+  public HookAction startStep(FlightContext flightContext) {
+    FlightRun run = runs.get(flightContext.getFlightId());
+    if (run == null) {
+      return HookAction.CONTINUE;
+    }
+    String stepName = simpleName(flightContext.getStepClassName());
+    Direction direction = flightContext.getDirection();
+    String stepKey = flightContext.getStepIndex() + "/" + direction;
+    if (stepKey.equals(run.lastStepKey)) {
+      Counter.builder(RETRY_METRIC_NAME)
+          .description("Stairway step retries")
+          .tag("flight", run.flightName)
+          .tag("step", stepName)
+          .tag("direction", String.valueOf(direction))
+          .register(meterRegistry)
+          .increment();
+    }
+    if (direction != Direction.DO && !run.undoing) {
+      run.undoing = true;
+      Counter.builder(UNDO_METRIC_NAME)
+          .description("Stairway flights that started undoing their steps")
+          .tag("flight", run.flightName)
+          .register(meterRegistry)
+          .increment();
+    }
+    run.lastStepKey = stepKey;
+    run.stepName = stepName;
+
+    run.stepSpan =
+        tracer.spanBuilderWithExplicitParent("step/" + stepName, run.flightSpan).startSpan();
+    run.stepSpan.putAttribute(
+        "stepIndex", AttributeValue.longAttributeValue(flightContext.getStepIndex()));
+    run.stepSpan.putAttribute(
+        "direction", AttributeValue.stringAttributeValue(String.valueOf(direction)));
+    // Steps run on the flight's thread, and end on the thread they started on.
+    run.stepScope = tracer.withSpan(run.stepSpan);
+    run.stepStartNanos = System.nanoTime();
+    return HookAction.CONTINUE;
+  }
+
+  @Override
+  public HookAction endStep(FlightContext flightContext) {
+    FlightRun run = runs.get(flightContext.getFlightId());
+    if (run == null || run.stepSpan == null) {
+      return HookAction.CONTINUE;
+    }
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - run.stepStartNanos);
+    String direction = String.valueOf(flightContext.getDirection());
+    Timer.builder(STEP_METRIC_NAME)
+        .description("Duration of Stairway steps")
+        .tag("flight", run.flightName)
+        .tag("step", run.stepName)
+        .tag("direction", direction)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(elapsed);
+    if (elapsed.compareTo(slowStepThreshold) > 0) {
+      Counter.builder(SLOW_STEP_METRIC_NAME)
+          .description("Stairway steps that ran longer than the slow step threshold")
+          .tag("flight", run.flightName)
+          .tag("step", run.stepName)
+          .tag("direction", direction)
+          .register(meterRegistry)
+          .increment();
+      run.stepSpan.addAnnotation("Slow step");
+      logger.warn(
+          String.format(
+              "Step %s of flight %s (%s) took %d ms, over the slow step threshold of %d ms",
+              run.stepName,
+              flightContext.getFlightId(),
+              run.flightName,
+              elapsed.toMillis(),
+              slowStepThreshold.toMillis()));
+    }
+    run.stepScope.close();
+    run.stepSpan.end();
+    run.stepScope = null;
+    run.stepSpan = null;
+    return HookAction.CONTINUE;
+  }
+
+  @Override
+  public HookAction endFlight(FlightContext flightContext) {
+    FlightRun run = runs.remove(flightContext.getFlightId());
+    if (run == null) {
+      return HookAction.CONTINUE;
+    }
+    String status = String.valueOf(flightContext.getFlightStatus());
+    Timer.builder(FLIGHT_METRIC_NAME)
+        .description("Duration of Stairway flight runs")
+        .tag("flight", run.flightName)
+        .tag("status", status)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(System.nanoTime() - run.startNanos, TimeUnit.NANOSECONDS);
+    run.flightSpan.putAttribute("status", AttributeValue.stringAttributeValue(status));
+    run.flightSpan.end();
+    return HookAction.CONTINUE;
+  }
+
+  @Nullable
+  private SpanContext deserializeSpanContext(@Nullable String serializedSpanContext) {
+    if (serializedSpanContext == null) {
+      return null;
+    }
+    try {
+      return Tracing.getPropagationComponent()
+          .getBinaryFormat()
+          .fromByteArray(Base64.getDecoder().decode(serializedSpanContext));
+    } catch (SpanContextParseException | IllegalArgumentException e) {
+      logger.warn("Ignoring unreadable span context in flight input", e);
+      return null;
+    }
+  }
+
+  /** Returns a class name without its package, to keep metric tags and span names short. */
+  private static String simpleName(@Nullable String className) {
+    return className == null ? "unknown" : className.substring(className.lastIndexOf('.') + 1);
+  }
+
+  /** What this hook knows about one run of a flight. Only the flight's thread modifies it. */
+  private static class FlightRun {
+    private final String flightName;
+    private final Span flightSpan;
+    private final long startNanos = System.nanoTime();
+    private boolean undoing = false;
+    /** Step index and direction of the last step started, to recognize retries. */
+    private String lastStepKey;
+    private String stepName;
+    private Span stepSpan;
+    private Scope stepScope;
+    private long stepStartNanos;
+
+    private FlightRun(String flightName, Span flightSpan) {
+      this.flightName = flightName;
+      this.flightSpan = flightSpan;
+    }
+  }
+}
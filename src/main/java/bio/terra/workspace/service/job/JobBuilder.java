@@ -79,4 +79,17 @@ public class JobBuilder {
     return jobServiceRef.submitAndWait(
         flightClass, jobParameterMap, resultClass, jobId, duplicateFlightOk);
   }
+
+  /**
+   * Run the job in-process with the {@link LocalFlightExecutor} and return the job result. The job
+   * is not visible through Stairway and a repeated job ID is not detected; see {@link
+   * JobService#isLocalFlightEnabled(Class)}.
+   *
+   * @param resultClass Class of the job's result
+   * @return Result of the finished job.
+   */
+  @Traced
+  public <T> T runLocally(Class<T> resultClass) {
+    return jobServiceRef.runLocally(flightClass, jobParameterMap, resultClass, jobId);
+  }
 }
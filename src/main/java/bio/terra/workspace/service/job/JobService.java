@@ -30,12 +30,10 @@ import com.google.common.annotations.VisibleForTesting;
 import io.opencensus.contrib.spring.aop.Traced;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,8 +49,13 @@ public class JobService {
   private final SamService samService;
   private final JobConfiguration jobConfig;
   private final StairwayDatabaseConfiguration stairwayDatabaseConfiguration;
-  private final ScheduledExecutorService executor;
   private final MdcHook mdcHook;
+  private final FlightInstrumentationHook instrumentationHook;
+  private final FlightCompletionRegistry completionRegistry;
+  private final LocalFlightExecutor localFlightExecutor;
+
+  /** Delay between database checks once a flight has signaled that it ended. */
+  private static final long COMPLETION_RECHECK_MILLIS = 50;
 
   private final Logger logger = LoggerFactory.getLogger(JobService.class);
 
@@ -63,19 +66,27 @@ public class JobService {
       StairwayDatabaseConfiguration stairwayDatabaseConfiguration,
       ApplicationContext applicationContext,
       MdcHook mdcHook,
+      FlightCompletionRegistry completionRegistry,
+      FlightInstrumentationHook instrumentationHook,
+      LocalFlightExecutor localFlightExecutor,
       ObjectMapper objectMapper) {
     this.samService = samService;
     this.jobConfig = jobConfig;
     this.stairwayDatabaseConfiguration = stairwayDatabaseConfiguration;
-    this.executor = Executors.newScheduledThreadPool(jobConfig.getMaxThreads());
     this.mdcHook = mdcHook;
+    this.completionRegistry = completionRegistry;
+    this.instrumentationHook = instrumentationHook;
+    this.localFlightExecutor = localFlightExecutor;
     StairwayExceptionSerializer serializer = new StairwayExceptionSerializer(objectMapper);
     Stairway.Builder builder =
         Stairway.newBuilder()
             .applicationContext(applicationContext)
             .exceptionSerializer(serializer)
             .enableWorkQueue(false)
-            .stairwayHook(mdcHook);
+            .stairwayHook(mdcHook)
+            // Before the completion registry, so a flight is recorded by the time waiters wake up.
+            .stairwayHook(instrumentationHook)
+            .stairwayHook(completionRegistry);
     try {
       stairway = new Stairway(builder);
     } catch (StairwayExecutionException e) {
@@ -114,7 +125,10 @@ public class JobService {
       Object request,
       AuthenticatedUserRequest userReq) {
     return new JobBuilder(description, jobId, flightClass, request, userReq, this)
-        .addParameter(MdcHook.MDC_FLIGHT_MAP_KEY, mdcHook.getSerializedCurrentContext());
+        .addParameter(MdcHook.MDC_FLIGHT_MAP_KEY, mdcHook.getSerializedCurrentContext())
+        .addParameter(
+            FlightInstrumentationHook.SPAN_CONTEXT_FLIGHT_MAP_KEY,
+            instrumentationHook.getSerializedCurrentSpanContext());
   }
 
   // submit a new job to stairway
@@ -136,8 +150,11 @@ public class JobService {
       } else {
         throw new InternalStairwayException(ex);
       }
-    } catch (StairwayException | InterruptedException stairwayEx) {
+    } catch (StairwayException stairwayEx) {
       throw new InternalStairwayException(stairwayEx);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException(interruptedEx);
     }
     return jobId;
   }
@@ -150,73 +167,136 @@ public class JobService {
       Class<T> resultClass,
       String jobId,
       boolean duplicateFlightOk) {
-    submit(flightClass, parameterMap, jobId, duplicateFlightOk);
-    waitForJob(jobId);
+    // Register before submitting, so a flight that finishes before we start waiting still signals.
+    CompletableFuture<FlightStatus> completion = completionRegistry.register(jobId);
+    try {
+      submit(flightClass, parameterMap, jobId, duplicateFlightOk);
+      awaitCompletion(jobId, completion);
+    } finally {
+      completionRegistry.unregister(jobId);
+    }
     AuthenticatedUserRequest userReq =
         parameterMap.get(JobMapKeys.AUTH_USER_INFO.getKeyName(), AuthenticatedUserRequest.class);
 
     return retrieveJobResult(jobId, resultClass, userReq).getResult();
   }
 
+  /**
+   * Allows a flight to be run in-process with {@link JobBuilder#runLocally(Class)}. The flight's
+   * constructor should build its steps with the same {@link LocalFlightSteps}.
+   */
+  public void registerLocalFlight(Class<? extends Flight> flightClass, LocalFlightSteps steps) {
+    localFlightExecutor.registerFlight(flightClass, steps);
+  }
+
+  /** Returns true if local flights are enabled and the flight class supports them. */
+  public boolean isLocalFlightEnabled(Class<? extends Flight> flightClass) {
+    return jobConfig.isLocalFlightsEnabled() && localFlightExecutor.isRegistered(flightClass);
+  }
+
+  // run a job in-process, then return the result
+  // protected method intended to be called only from JobBuilder
+  protected <T> T runLocally(
+      Class<? extends Flight> flightClass,
+      FlightMap parameterMap,
+      Class<T> resultClass,
+      String jobId) {
+    FlightMap resultMap = localFlightExecutor.run(jobId, flightClass, parameterMap);
+    return resultMap.get(JobMapKeys.RESPONSE.getKeyName(), resultClass);
+  }
+
+  /**
+   * Blocks until the flight finishes or the job timeout passes. A flight that finishes on this node
+   * is reported immediately by the {@link FlightCompletionRegistry}. The flight state in the
+   * database is also checked every polling interval, which covers flights that are running
+   * elsewhere, for example after recovery, and flights that finished before this was called.
+   */
   @VisibleForTesting
   public void waitForJob(String jobId) {
+    CompletableFuture<FlightStatus> completion = completionRegistry.register(jobId);
+    try {
+      awaitCompletion(jobId, completion);
+    } finally {
+      completionRegistry.unregister(jobId);
+    }
+  }
+
+  private void awaitCompletion(String jobId, CompletableFuture<FlightStatus> completion) {
     try {
-      int pollSeconds = jobConfig.getPollingIntervalSeconds();
-      int pollCycles = jobConfig.getTimeoutSeconds() / jobConfig.getPollingIntervalSeconds();
-      for (int i = 0; i < pollCycles; i++) {
-        ScheduledFuture<FlightState> futureState =
-            executor.schedule(new PollFlightTask(stairway, jobId), pollSeconds, TimeUnit.SECONDS);
-        FlightState state = futureState.get();
-        if (state != null) {
-          // Indicates job has completed, though not necessarily successfully.
-          return;
-        } else {
-          // Indicates job has not completed yet, continue polling
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(jobConfig.getTimeoutSeconds());
+      long pollNanos = TimeUnit.SECONDS.toNanos(jobConfig.getPollingIntervalSeconds());
+      while (stairway.getFlightState(jobId).isActive()) {
+        long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+          // Indicates we timed out waiting for completion, throw exception
+          throw new InternalStairwayException("Flight did not complete in the allowed wait time");
+        }
+        if (completion.isDone()) {
+          // The flight has ended, but its final state is not yet visible to us. Check again soon.
+          TimeUnit.MILLISECONDS.sleep(COMPLETION_RECHECK_MILLIS);
           continue;
         }
+        try {
+          completion.get(Math.min(pollNanos, remainingNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+          // No signal yet; fall back to checking the flight state in the database.
+        }
       }
-    } catch (InterruptedException | ExecutionException stairwayEx) {
+    } catch (StairwayException | ExecutionException stairwayEx) {
       throw new InternalStairwayException(stairwayEx);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException(interruptedEx);
     }
-    // Indicates we timed out waiting for completion, throw exception
-    throw new InternalStairwayException("Flight did not complete in the allowed wait time");
   }
 
-  private class PollFlightTask implements Callable<FlightState> {
-    private Stairway stairway;
-    private String flightId;
-
-    public PollFlightTask(Stairway stairway, String flightId) {
-      this.stairway = stairway;
-      this.flightId = flightId;
-    }
-
-    @Override
-    public FlightState call() throws Exception {
-      FlightState state = stairway.getFlightState(flightId);
-      if (!state.isActive()) {
-        return state;
-      } else {
-        return null;
-      }
+  /**
+   * Returns true if the job exists and has finished, successfully or not. A job that is not found
+   * may not have been submitted yet, so it is not finished.
+   */
+  public boolean isJobFinished(String jobId) {
+    try {
+      return !stairway.getFlightState(jobId).isActive();
+    } catch (FlightNotFoundException e) {
+      return false;
+    } catch (StairwayException stairwayEx) {
+      throw new InternalStairwayException(stairwayEx);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException(interruptedEx);
     }
   }
 
   /**
-   * This method is called from StartupInitializer as part of the sequence of migrating databases
-   * and recovering any jobs; i.e., Stairway flights. It is moved here so that JobService
-   * encapsulates all of the Stairway interaction.
+   * Initializes Stairway and migrates its database. This only touches the Stairway database, so it
+   * can run while the workspace database is being migrated.
    */
-  public void initialize() {
+  public void initializeStairway() {
     try {
       stairway.initialize(
           stairwayDatabaseConfiguration.getDataSource(),
           stairwayDatabaseConfiguration.isForceClean(),
           stairwayDatabaseConfiguration.isMigrateUpgrade());
-      stairway.recoverAndStart(null);
-
-    } catch (StairwayException | InterruptedException stairwayEx) {
+    } catch (StairwayException stairwayEx) {
       throw new InternalStairwayException("Stairway initialization failed", stairwayEx);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException("Stairway initialization failed", interruptedEx);
+    }
+  }
+
+  /**
+   * Recovers flights left by instances that went away and starts running flights. Recovered
+   * flights may use the workspace database, so this must wait until it has been migrated.
+   */
+  public void recoverAndStartStairway() {
+    try {
+      stairway.recoverAndStart(null);
+    } catch (StairwayException stairwayEx) {
+      throw new InternalStairwayException("Stairway recovery failed", stairwayEx);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException("Stairway recovery failed", interruptedEx);
     }
   }
 
@@ -225,8 +305,11 @@ public class JobService {
     try {
       verifyUserAccess(jobId, userReq); // jobId=flightId
       stairway.deleteFlight(jobId, false);
-    } catch (StairwayException | InterruptedException stairwayEx) {
+    } catch (StairwayException stairwayEx) {
       throw new InternalStairwayException(stairwayEx);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException(interruptedEx);
     }
   }
 
@@ -285,8 +368,11 @@ public class JobService {
       filter.addFilterInputParameter(
           JobMapKeys.SUBJECT_ID.getKeyName(), FlightFilterOp.EQUAL, userReq.getSubjectId());
       flightStateList = stairway.getFlights(offset, limit, filter);
-    } catch (StairwayException | InterruptedException stairwayEx) {
+    } catch (StairwayException stairwayEx) {
       throw new InternalStairwayException(stairwayEx);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException(interruptedEx);
     }
 
     List<JobModel> jobModelList = new ArrayList<>();
@@ -304,8 +390,26 @@ public class JobService {
       verifyUserAccess(jobId, userReq); // jobId=flightId
       FlightState flightState = stairway.getFlightState(jobId);
       return mapFlightStateToJobModel(flightState);
-    } catch (StairwayException | InterruptedException stairwayEx) {
+    } catch (StairwayException stairwayEx) {
+      throw new InternalStairwayException(stairwayEx);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException(interruptedEx);
+    }
+  }
+
+  /**
+   * Retrieves a job without checking that the caller submitted it. Only for callers that are
+   * authorized for the job in another way, such as by their access to the workspace it changes.
+   */
+  public JobModel retrieveJobWithoutUserCheck(String jobId) {
+    try {
+      return mapFlightStateToJobModel(stairway.getFlightState(jobId));
+    } catch (StairwayException stairwayEx) {
       throw new InternalStairwayException(stairwayEx);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException(interruptedEx);
     }
   }
 
@@ -339,8 +443,11 @@ public class JobService {
     try {
       verifyUserAccess(jobId, userReq); // jobId=flightId
       return retrieveJobResultWorker(jobId, resultClass);
-    } catch (StairwayException | InterruptedException stairwayEx) {
+    } catch (StairwayException stairwayEx) {
       throw new InternalStairwayException(stairwayEx);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException(interruptedEx);
     }
   }
 
@@ -402,8 +509,11 @@ public class JobService {
       if (!StringUtils.equals(flightSubjectId, userReq.getSubjectId())) {
         throw new JobUnauthorizedException("Unauthorized");
       }
-    } catch (DatabaseOperationException | InterruptedException ex) {
+    } catch (DatabaseOperationException ex) {
       throw new InternalStairwayException("Stairway exception looking up the job", ex);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new InternalStairwayException("Stairway exception looking up the job", interruptedEx);
     } catch (FlightNotFoundException ex) {
       throw new JobNotFoundException("Job not found", ex);
     }
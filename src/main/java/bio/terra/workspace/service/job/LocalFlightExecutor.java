@@ -0,0 +1,252 @@
+package bio.terra.workspace.service.job;
+
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import bio.terra.workspace.app.configuration.external.JobConfiguration;
+import bio.terra.workspace.db.LocalFlightJournalDao;
+import bio.terra.workspace.service.job.exception.InternalStairwayException;
+import bio.terra.workspace.service.job.exception.InvalidResultStateException;
+import bio.terra.workspace.service.job.exception.JobResponseException;
+import bio.terra.workspace.service.job.model.LocalFlightJournalEntry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs short flights in-process on the caller's thread, without Stairway.
+ *
+ * <p>This is meant for flights made of a few steps that only touch the workspace database and Sam,
+ * where Stairway's per-step persistence, flight map serialization and completion polling cost more
+ * than the work itself. Steps are the same {@link Step} implementations Stairway runs and have the
+ * same do/undo semantics: when a step fails, that step and every earlier step are undone in reverse
+ * order. Steps are not retried.
+ *
+ * <p>The only state written is one row in the local flight journal, which records the flight's
+ * input, the step that is running and the working map left by the steps before it. The row is
+ * refreshed while a step runs and deleted when the flight finishes. If this instance dies
+ * mid-flight, the row is left behind; once it has not been updated for the configured abandon
+ * time, any instance undoes the flight from the recorded step.
+ *
+ * <p>Unlike Stairway, a finished local flight leaves no record, so a repeated job id is not
+ * detected. Only use local flights where the caller does not rely on job id deduplication.
+ */
+@Component
+public class LocalFlightExecutor {
+  /** Maximum number of abandoned flights to recover in one sweep. */
+  private static final int RECOVERY_BATCH_SIZE = 10;
+
+  private final LocalFlightJournalDao journalDao;
+  private final JobConfiguration jobConfig;
+  private final ApplicationContext applicationContext;
+  private final Map<String, LocalFlightSteps> flightSteps = new ConcurrentHashMap<>();
+  /** Refreshes the journal rows of running and recovering flights. */
+  private final ScheduledExecutorService heartbeatExecutor =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder()
+              .setNameFormat("local-flight-heartbeat-%d")
+              .setDaemon(true)
+              .build());
+
+  private final Logger logger = LoggerFactory.getLogger(LocalFlightExecutor.class);
+
+  @Autowired
+  public LocalFlightExecutor(
+      LocalFlightJournalDao journalDao,
+      JobConfiguration jobConfig,
+      ApplicationContext applicationContext) {
+    this.journalDao = journalDao;
+    this.jobConfig = jobConfig;
+    this.applicationContext = applicationContext;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    heartbeatExecutor.shutdownNow();
+  }
+
+  /** Makes a flight class runnable by this executor. */
+  public void registerFlight(Class<? extends Flight> flightClass, LocalFlightSteps steps) {
+    flightSteps.put(flightClass.getName(), steps);
+  }
+
+  /** Returns true if the flight class has been registered with this executor. */
+  public boolean isRegistered(Class<? extends Flight> flightClass) {
+    return flightSteps.containsKey(flightClass.getName());
+  }
+
+  /**
+   * Runs a registered flight to completion and returns its working map. If the flight fails, its
+   * steps are undone and the step's exception is thrown, wrapped in a {@link JobResponseException}
+   * if it is not a RuntimeException.
+   */
+  public FlightMap run(
+      String flightId, Class<? extends Flight> flightClass, FlightMap inputParameters) {
+    List<Step> steps = buildSteps(flightClass.getName(), inputParameters);
+    FlightContext context = buildContext(flightId, flightClass.getName(), inputParameters, steps);
+    journalDao.startFlight(flightId, flightClass.getName(), inputParameters.toJson());
+
+    ScheduledFuture<?> heartbeat = startHeartbeat(flightId);
+    try {
+      for (int i = 0; i < steps.size(); i++) {
+        if (i > 0) {
+          journalDao.updateCurrentStep(flightId, i, context.getWorkingMap().toJson());
+        }
+        Optional<Exception> failure = doStep(steps.get(i), context);
+        if (failure.isPresent()) {
+          logger.info(
+              String.format("Local flight %s failed at step %d; undoing", flightId, i),
+              failure.get());
+          if (undoSteps(flightId, steps, i, context)) {
+            journalDao.deleteFlight(flightId);
+          }
+          throw asRuntimeException(failure.get());
+        }
+      }
+    } finally {
+      heartbeat.cancel(false);
+    }
+    journalDao.deleteFlight(flightId);
+    return context.getWorkingMap();
+  }
+
+  /**
+   * Undoes flights left behind by instances that stopped mid-flight. Runs periodically on every
+   * instance; the journal hands each abandoned flight to a single instance. This runs even while
+   * local flights are disabled, so that flights left by an instance that had them enabled are still
+   * undone.
+   */
+  @Scheduled(fixedDelayString = "PT1M")
+  public void recoverAbandonedFlights() {
+    Duration abandonedAfter = Duration.ofSeconds(jobConfig.getLocalFlightAbandonSeconds());
+    for (LocalFlightJournalEntry entry :
+        journalDao.claimAbandonedFlights(abandonedAfter, RECOVERY_BATCH_SIZE)) {
+      logger.warn(
+          String.format(
+              "Recovering abandoned local flight %s (%s) from step %d",
+              entry.flightId(), entry.flightClass(), entry.currentStep()));
+      ScheduledFuture<?> heartbeat = startHeartbeat(entry.flightId());
+      try {
+        FlightMap inputParameters = new FlightMap();
+        inputParameters.fromJson(entry.inputParameters());
+        List<Step> steps = buildSteps(entry.flightClass(), inputParameters);
+        FlightContext context =
+            buildContext(entry.flightId(), entry.flightClass(), inputParameters, steps);
+        if (entry.workingMap() != null) {
+          context.getWorkingMap().fromJson(entry.workingMap());
+        }
+        if (undoSteps(entry.flightId(), steps, entry.currentStep(), context)) {
+          journalDao.deleteFlight(entry.flightId());
+        }
+      } catch (RuntimeException e) {
+        // Leave the row in place; it will be claimed again after the abandon time.
+        logger.error(String.format("Failed to recover local flight %s", entry.flightId()), e);
+      } finally {
+        heartbeat.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Refreshes a flight's journal row several times per abandon time until cancelled, so that no
+   * instance takes a flight for abandoned while one of its steps is still running.
+   */
+  private ScheduledFuture<?> startHeartbeat(String flightId) {
+    long intervalSeconds = Math.max(1, jobConfig.getLocalFlightAbandonSeconds() / 3);
+    return heartbeatExecutor.scheduleWithFixedDelay(
+        () -> {
+          try {
+            journalDao.touchFlight(flightId);
+          } catch (RuntimeException e) {
+            logger.warn(String.format("Failed to refresh local flight %s", flightId), e);
+          }
+        },
+        intervalSeconds,
+        intervalSeconds,
+        TimeUnit.SECONDS);
+  }
+
+  private List<Step> buildSteps(String flightClassName, FlightMap inputParameters) {
+    LocalFlightSteps steps = flightSteps.get(flightClassName);
+    if (steps == null) {
+      throw new InternalStairwayException(
+          "Flight class is not registered for local execution: " + flightClassName);
+    }
+    return steps.build(inputParameters, applicationContext);
+  }
+
+  private FlightContext buildContext(
+      String flightId, String flightClassName, FlightMap inputParameters, List<Step> steps) {
+    List<String> stepClassNames =
+        steps.stream().map(step -> step.getClass().getName()).collect(Collectors.toList());
+    FlightContext context = new FlightContext(inputParameters, flightClassName, stepClassNames);
+    context.setFlightId(flightId);
+    return context;
+  }
+
+  /** Runs a step's do method. Returns the failure, if the step did not succeed. */
+  private Optional<Exception> doStep(Step step, FlightContext context) {
+    try {
+      StepResult result = step.doStep(context);
+      if (result.isSuccess()) {
+        return Optional.empty();
+      }
+      return Optional.of(
+          result
+              .getException()
+              .orElse(
+                  new InvalidResultStateException("Failed operation with no exception reported")));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Optional.of(e);
+    } catch (Exception e) {
+      return Optional.of(e);
+    }
+  }
+
+  /**
+   * Undoes the steps from {@code lastStep} back to the first step. Returns false if an undo failed,
+   * in which case the journal row is kept so that recovery can try again.
+   */
+  private boolean undoSteps(String flightId, List<Step> steps, int lastStep, FlightContext context) {
+    for (int i = Math.min(lastStep, steps.size() - 1); i >= 0; i--) {
+      try {
+        StepResult result = steps.get(i).undoStep(context);
+        if (!result.isSuccess()) {
+          logger.error(
+              String.format("Undo of step %d failed for local flight %s", i, flightId),
+              result.getException().orElse(null));
+          return false;
+        }
+      } catch (Exception e) {
+        logger.error(String.format("Undo of step %d failed for local flight %s", i, flightId), e);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static RuntimeException asRuntimeException(Exception exception) {
+    if (exception instanceof RuntimeException) {
+      return (RuntimeException) exception;
+    }
+    return new JobResponseException("wrap non-runtime exception", exception);
+  }
+}
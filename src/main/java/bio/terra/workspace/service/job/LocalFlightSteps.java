@@ -0,0 +1,15 @@
+package bio.terra.workspace.service.job;
+
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.Step;
+import java.util.List;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Builds the steps of a flight so that it can be run by the {@link LocalFlightExecutor}. Flights
+ * that support local execution should build their own step list with the same function.
+ */
+@FunctionalInterface
+public interface LocalFlightSteps {
+  List<Step> build(FlightMap inputParameters, ApplicationContext applicationContext);
+}
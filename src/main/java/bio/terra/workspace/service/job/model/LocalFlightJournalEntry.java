@@ -0,0 +1,37 @@
+package bio.terra.workspace.service.job.model;
+
+import com.google.auto.value.AutoValue;
+import javax.annotation.Nullable;
+
+/** A journal row for a flight being run in-process by the LocalFlightExecutor. */
+@AutoValue
+public abstract class LocalFlightJournalEntry {
+
+  public abstract String flightId();
+
+  /** Fully qualified name of the flight class. */
+  public abstract String flightClass();
+
+  /** The flight's input parameters, serialized as Stairway FlightMap JSON. */
+  public abstract String inputParameters();
+
+  /** Index of the step that was running when the row was last updated. */
+  public abstract int currentStep();
+
+  /**
+   * The working map as of the start of the current step, serialized as Stairway FlightMap JSON.
+   * Null while the first step runs.
+   */
+  @Nullable
+  public abstract String workingMap();
+
+  public static LocalFlightJournalEntry create(
+      String flightId,
+      String flightClass,
+      String inputParameters,
+      int currentStep,
+      @Nullable String workingMap) {
+    return new AutoValue_LocalFlightJournalEntry(
+        flightId, flightClass, inputParameters, currentStep, workingMap);
+  }
+}
@@ -0,0 +1,44 @@
+package bio.terra.workspace.service.migrate;
+
+import com.google.auto.value.AutoValue;
+import java.time.Duration;
+
+/** Controls how {@link MigrateService} upgrades a database. */
+@AutoValue
+public abstract class MigrateOptions {
+
+  /**
+   * If true, Liquibase is skipped when the database records the same changelog fingerprint as the
+   * one built into the running jar.
+   */
+  public abstract boolean skipIfCurrent();
+
+  /**
+   * If true, only one instance at a time migrates the database. The others wait until it is done,
+   * or until they can take over if it goes away.
+   */
+  public abstract boolean electLeader();
+
+  /** How long an instance waits for another instance's migration before giving up. */
+  public abstract Duration leaderWait();
+
+  /** Options matching the original behavior: every instance always runs Liquibase. */
+  public static MigrateOptions defaults() {
+    return builder().skipIfCurrent(false).electLeader(false).leaderWait(Duration.ZERO).build();
+  }
+
+  public static Builder builder() {
+    return new AutoValue_MigrateOptions.Builder();
+  }
+
+  @AutoValue.Builder
+  public abstract static class Builder {
+    public abstract Builder skipIfCurrent(boolean skipIfCurrent);
+
+    public abstract Builder electLeader(boolean electLeader);
+
+    public abstract Builder leaderWait(Duration leaderWait);
+
+    public abstract MigrateOptions build();
+  }
+}
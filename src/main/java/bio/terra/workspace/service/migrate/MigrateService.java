@@ -1,8 +1,16 @@
 package bio.terra.workspace.service.migrate;
 
 import bio.terra.workspace.service.migrate.exception.MigrateException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import javax.sql.DataSource;
 import liquibase.Contexts;
 import liquibase.Liquibase;
@@ -20,11 +28,27 @@ import org.springframework.stereotype.Component;
  * as opposed to using hooks in the Spring framework. We expect MC Terra services to scale
  * horizontally and to perform rolling upgrades of the running instances. Therefore, we do not want
  * the act of running an instance to suddenly upgrade the database schema.
+ *
+ * <p>Running Liquibase parses and checksums every changeset, even when there is nothing to apply.
+ * The build computes a fingerprint of the changelog, and each successful update records it in the
+ * schema_fingerprint table, so an upgrade can be skipped when the two match. See {@link
+ * MigrateOptions}.
  */
 @Component
 public class MigrateService {
+  /** Classpath resource holding the changelog fingerprint, generated at build time. */
+  private static final String FINGERPRINT_RESOURCE = "generated/changelog.properties";
+
+  private static final String FINGERPRINT_PROPERTY = "changelog.fingerprint";
+  /** Key of the Postgres advisory lock held by the instance elected to migrate. */
+  private static final long MIGRATION_LOCK_KEY = 0x574d4d4947524154L;
+  /** How often an instance waiting for another instance's migration checks on it. */
+  private static final long LEADER_POLL_INTERVAL_MILLIS = 1000;
+
   private Logger logger = LoggerFactory.getLogger(MigrateService.class);
 
+  private final Optional<String> changelogFingerprint = loadChangelogFingerprint();
+
   /**
    * Initialize drops existing tables in the database and reinitializes it with the changeset. This
    * is useful when developing or running integration tests, where there is no expectation that the
@@ -34,7 +58,11 @@ public class MigrateService {
    * @param dataSource - database to operate on
    */
   public void initialize(String changesetFile, DataSource dataSource) {
-    migrateWorker(changesetFile, dataSource, true);
+    try (Connection connection = dataSource.getConnection()) {
+      migrateWorker(changesetFile, connection, true);
+    } catch (SQLException ex) {
+      throw new MigrateException("Failed to migrate database from " + changesetFile, ex);
+    }
   }
 
   /**
@@ -46,11 +74,73 @@ public class MigrateService {
    * @param dataSource - database to operate on
    */
   public void upgrade(String changesetFile, DataSource dataSource) {
-    migrateWorker(changesetFile, dataSource, false);
+    upgrade(changesetFile, dataSource, MigrateOptions.defaults());
   }
 
-  private void migrateWorker(String changesetFile, DataSource dataSource, boolean initialize) {
+  /**
+   * Upgrade the database as {@link #upgrade(String, DataSource)} does, with the given options.
+   * Returns true if Liquibase ran, or false if the schema was already current.
+   *
+   * @param changesetFile - relative path to the changeset file in the project
+   * @param dataSource - database to operate on
+   * @param options - whether to skip a current schema and whether to elect a single migrator
+   */
+  public boolean upgrade(String changesetFile, DataSource dataSource, MigrateOptions options) {
+    boolean skipIfCurrent = options.skipIfCurrent() && changelogFingerprint.isPresent();
+    if (options.skipIfCurrent() && !skipIfCurrent) {
+      logger.warn(
+          String.format(
+              "No changelog fingerprint found at %s; running Liquibase", FINGERPRINT_RESOURCE));
+    }
     try (Connection connection = dataSource.getConnection()) {
+      if (skipIfCurrent && isCurrent(connection, changesetFile)) {
+        logger.info(String.format("Database schema is current with %s", changesetFile));
+        return false;
+      }
+      if (!options.electLeader()) {
+        migrateWorker(changesetFile, connection, false);
+        return true;
+      }
+
+      Instant deadline = Instant.now().plus(options.leaderWait());
+      while (!tryLockMigration(connection)) {
+        if (skipIfCurrent && isCurrent(connection, changesetFile)) {
+          logger.info(
+              String.format("Database was migrated to %s by another instance", changesetFile));
+          return false;
+        }
+        if (Instant.now().isAfter(deadline)) {
+          throw new MigrateException(
+              "Timed out waiting for another instance to migrate database from " + changesetFile);
+        }
+        logger.info(
+            String.format(
+                "Waiting for another instance to migrate database from %s", changesetFile));
+        TimeUnit.MILLISECONDS.sleep(LEADER_POLL_INTERVAL_MILLIS);
+      }
+      try {
+        // Another instance may have finished migrating just before we took the lock.
+        if (skipIfCurrent && isCurrent(connection, changesetFile)) {
+          logger.info(
+              String.format("Database was migrated to %s by another instance", changesetFile));
+          return false;
+        }
+        migrateWorker(changesetFile, connection, false);
+        return true;
+      } finally {
+        unlockMigration(connection);
+      }
+    } catch (SQLException ex) {
+      throw new MigrateException("Failed to migrate database from " + changesetFile, ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new MigrateException("Interrupted while waiting to migrate " + changesetFile, ex);
+    }
+  }
+
+  private void migrateWorker(String changesetFile, Connection connection, boolean initialize)
+      throws SQLException {
+    try {
       Liquibase liquibase =
           new Liquibase(
               changesetFile, new ClassLoaderResourceAccessor(), new JdbcConnection(connection));
@@ -76,8 +166,109 @@ public class MigrateService {
 
       logger.info("Upgrading the database schema");
       liquibase.update(new Contexts()); // Run all migrations - no context filtering
-    } catch (LiquibaseException | SQLException ex) {
+    } catch (LiquibaseException ex) {
       throw new MigrateException("Failed to migrate database from " + changesetFile, ex);
     }
+    if (changelogFingerprint.isPresent()) {
+      recordFingerprint(connection, changesetFile, changelogFingerprint.get());
+    }
+  }
+
+  /** Returns true if the database records the fingerprint of the changelog in this jar. */
+  private boolean isCurrent(Connection connection, String changesetFile) throws SQLException {
+    // The table does not exist until the changeset creating it has been applied.
+    try (PreparedStatement statement =
+            connection.prepareStatement("SELECT to_regclass('schema_fingerprint') IS NOT NULL");
+        ResultSet rs = statement.executeQuery()) {
+      if (!rs.next() || !rs.getBoolean(1)) {
+        return false;
+      }
+    }
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            "SELECT fingerprint FROM schema_fingerprint WHERE changelog = ?")) {
+      statement.setString(1, changesetFile);
+      try (ResultSet rs = statement.executeQuery()) {
+        return rs.next() && changelogFingerprint.get().equals(rs.getString("fingerprint"));
+      }
+    }
+  }
+
+  private void recordFingerprint(Connection connection, String changesetFile, String fingerprint)
+      throws SQLException {
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            "INSERT INTO schema_fingerprint (changelog, fingerprint, applied_date)"
+                + " VALUES (?, ?, now())"
+                + " ON CONFLICT (changelog)"
+                + " DO UPDATE SET fingerprint = excluded.fingerprint, applied_date = now()")) {
+      statement.setString(1, changesetFile);
+      statement.setString(2, fingerprint);
+      statement.executeUpdate();
+    }
+    // Liquibase may leave the connection outside of auto-commit mode.
+    if (!connection.getAutoCommit()) {
+      connection.commit();
+    }
+    logger.info(String.format("Recorded changelog fingerprint %s", fingerprint));
+  }
+
+  /**
+   * Tries to take the session-level advisory lock that elects this instance to migrate. The lock is
+   * released by {@link #unlockMigration}, or by Postgres if this instance's connection goes away.
+   */
+  private boolean tryLockMigration(Connection connection) throws SQLException {
+    try (PreparedStatement statement =
+        connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+      statement.setLong(1, MIGRATION_LOCK_KEY);
+      try (ResultSet rs = statement.executeQuery()) {
+        return rs.next() && rs.getBoolean(1);
+      }
+    }
+  }
+
+  /**
+   * Releases the lock taken by {@link #tryLockMigration}. A failed migration can leave the
+   * connection in an aborted transaction, where the unlock would fail, so any open transaction is
+   * rolled back first. If the lock still cannot be released, the connection is aborted instead of
+   * going back to the pool with the lock held; Postgres releases the lock when the session ends.
+   */
+  private void unlockMigration(Connection connection) {
+    try {
+      if (!connection.getAutoCommit()) {
+        connection.rollback();
+      }
+      try (PreparedStatement statement =
+          connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+        statement.setLong(1, MIGRATION_LOCK_KEY);
+        try (ResultSet rs = statement.executeQuery()) {
+          if (!rs.next() || !rs.getBoolean(1)) {
+            logger.warn("Migration lock was not held when releasing it");
+          }
+        }
+      }
+    } catch (SQLException ex) {
+      logger.warn("Failed to release the migration lock; aborting its connection", ex);
+      try {
+        // The pool discards a connection whose underlying connection is closed.
+        connection.abort(Runnable::run);
+      } catch (SQLException abortEx) {
+        logger.error("Failed to abort the connection holding the migration lock", abortEx);
+      }
+    }
+  }
+
+  private static Optional<String> loadChangelogFingerprint() {
+    try (InputStream stream =
+        MigrateService.class.getClassLoader().getResourceAsStream(FINGERPRINT_RESOURCE)) {
+      if (stream == null) {
+        return Optional.empty();
+      }
+      Properties properties = new Properties();
+      properties.load(stream);
+      return Optional.ofNullable(properties.getProperty(FINGERPRINT_PROPERTY));
+    } catch (IOException e) {
+      return Optional.empty();
+    }
   }
 }
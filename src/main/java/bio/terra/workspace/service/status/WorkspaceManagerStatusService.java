@@ -1,17 +1,19 @@
 package bio.terra.workspace.service.status;
 
 import bio.terra.workspace.app.configuration.external.DataRepoConfiguration;
+import bio.terra.workspace.app.configuration.external.StatusCheckConfiguration;
 import bio.terra.workspace.common.utils.BaseStatusService;
 import bio.terra.workspace.common.utils.StatusSubsystem;
 import bio.terra.workspace.generated.model.SystemStatusSystems;
 import bio.terra.workspace.service.datarepo.DataRepoService;
 import bio.terra.workspace.service.iam.SamService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Map;
 import java.util.function.Supplier;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
 
@@ -26,14 +28,24 @@ public class WorkspaceManagerStatusService extends BaseStatusService {
       DataRepoConfiguration dataRepoConfiguration,
       NamedParameterJdbcTemplate jdbcTemplate,
       SamService samService,
-      @Value("${workspace.status-check.staleness-threshold-ms}") long staleThresholdMillis) {
-    super(staleThresholdMillis);
+      StatusCheckConfiguration statusCheckConfiguration,
+      ObjectMapper objectMapper) {
+    super(
+        statusCheckConfiguration.getStalenessThresholdMs(),
+        statusCheckConfiguration.getCheckThreads(),
+        statusCheckConfiguration.getHistorySize(),
+        objectMapper);
     this.jdbcTemplate = jdbcTemplate;
     Supplier<SystemStatusSystems> dbHealthFn =
         () ->
             new SystemStatusSystems()
                 .ok(jdbcTemplate.getJdbcTemplate().execute(this::isConnectionValid));
-    registerSubsystem("Postgres", new StatusSubsystem(dbHealthFn, /*isCritical=*/ true));
+    registerSubsystem(
+        "Postgres",
+        new StatusSubsystem(
+            dbHealthFn,
+            /*isCritical=*/ true,
+            Duration.ofSeconds(statusCheckConfiguration.getPostgresTimeoutSeconds())));
 
     for (Map.Entry<String, String> instanceEntry :
         dataRepoConfiguration.getInstances().entrySet()) {
@@ -41,11 +53,19 @@ public class WorkspaceManagerStatusService extends BaseStatusService {
           () -> dataRepoService.status(instanceEntry.getValue());
       registerSubsystem(
           "Data Repo instance: " + instanceEntry.getKey(),
-          new StatusSubsystem(checkDataRepoInstanceFn, /*isCritical=*/ false));
+          new StatusSubsystem(
+              checkDataRepoInstanceFn,
+              /*isCritical=*/ false,
+              Duration.ofSeconds(statusCheckConfiguration.getDataRepoTimeoutSeconds())));
     }
 
     Supplier<SystemStatusSystems> samStatusFn = () -> samService.status();
-    registerSubsystem("Sam", new StatusSubsystem(samStatusFn, /*isCritical=*/ true));
+    registerSubsystem(
+        "Sam",
+        new StatusSubsystem(
+            samStatusFn,
+            /*isCritical=*/ true,
+            Duration.ofSeconds(statusCheckConfiguration.getSamTimeoutSeconds())));
   }
 
   private Boolean isConnectionValid(Connection connection) throws SQLException {
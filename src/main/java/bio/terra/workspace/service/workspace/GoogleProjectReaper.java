@@ -0,0 +1,111 @@
+package bio.terra.workspace.service.workspace;
+
+import bio.terra.workspace.app.configuration.external.WorkspaceDeletionConfiguration;
+import bio.terra.workspace.db.GoogleProjectTeardownDao;
+import bio.terra.workspace.service.workspace.pool.GoogleProjectClient;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes the Google projects of workspaces deleted asynchronously. Deletion jobs queue the
+ * projects, and every instance periodically takes a batch from the queue and deletes it with a
+ * bounded number of concurrent calls to Google, so that mass deletions neither hold request threads
+ * nor flood Google.
+ */
+@Component
+public class GoogleProjectReaper {
+  private final WorkspaceDeletionConfiguration deletionConfiguration;
+  private final GoogleProjectTeardownDao teardownDao;
+  private final GoogleProjectClient projectClient;
+  private final ExecutorService executor;
+
+  private final Logger logger = LoggerFactory.getLogger(GoogleProjectReaper.class);
+
+  @Autowired
+  public GoogleProjectReaper(
+      WorkspaceDeletionConfiguration deletionConfiguration,
+      GoogleProjectTeardownDao teardownDao,
+      @Lazy GoogleProjectClient projectClient) {
+    this.deletionConfiguration = deletionConfiguration;
+    this.teardownDao = teardownDao;
+    this.projectClient = projectClient;
+    this.executor =
+        Executors.newFixedThreadPool(
+            deletionConfiguration.getReaperConcurrency(),
+            new ThreadFactoryBuilder().setNameFormat("project-reaper-%d").setDaemon(true).build());
+  }
+
+  /** Deletes a batch of queued projects, if the reaper is enabled. Runs periodically. */
+  @Scheduled(fixedDelayString = "PT${workspace.deletion.reaper-interval-seconds:30}S")
+  public void reapPeriodically() {
+    if (deletionConfiguration.isReaperEnabled()) {
+      reap();
+    }
+  }
+
+  /**
+   * Deletes one batch of queued projects and waits for it to finish. Returns the number of projects
+   * deleted.
+   */
+  public int reap() {
+    List<String> projectIds =
+        teardownDao.claimProjects(
+            deletionConfiguration.getReaperBatchSize(),
+            Duration.ofSeconds(deletionConfiguration.getReaperClaimTimeoutSeconds()));
+    if (projectIds.isEmpty()) {
+      return 0;
+    }
+
+    List<Callable<Boolean>> deletions = new ArrayList<>();
+    for (String projectId : projectIds) {
+      deletions.add(() -> deleteProject(projectId));
+    }
+    int deleted = 0;
+    try {
+      for (Future<Boolean> deletion : executor.invokeAll(deletions)) {
+        if (deletion.get()) {
+          deleted++;
+        }
+      }
+    } catch (InterruptedException e) {
+      // Shutting down; unfinished projects are claimed again after the claim timeout.
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      // deleteProject handles its own failures.
+      logger.error("Unexpected failure deleting projects", e);
+    }
+    logger.info(
+        String.format(
+            "Deleted %d of %d projects of deleted workspaces", deleted, projectIds.size()));
+    return deleted;
+  }
+
+  /**
+   * Deletes a queued project and removes it from the queue. Returns false if the deletion failed,
+   * in which case the project stays queued.
+   */
+  private boolean deleteProject(String projectId) {
+    try {
+      projectClient.deleteProject(projectId);
+      teardownDao.removeProject(projectId);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      logger.error(String.format("Failed to delete project %s", projectId), e);
+      return false;
+    }
+  }
+}
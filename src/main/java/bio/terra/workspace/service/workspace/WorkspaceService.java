@@ -1,5 +1,8 @@
 package bio.terra.workspace.service.workspace;
 
+import bio.terra.workspace.common.exception.ValidationException;
+import bio.terra.workspace.common.exception.WorkspaceDeletingException;
+import bio.terra.workspace.common.exception.WorkspaceNotFoundException;
 import bio.terra.workspace.common.utils.SamUtils;
 import bio.terra.workspace.db.WorkspaceDao;
 import bio.terra.workspace.service.iam.AuthenticatedUserRequest;
@@ -16,9 +19,15 @@ import bio.terra.workspace.service.workspace.flight.*;
 import bio.terra.workspace.service.workspace.model.Workspace;
 import bio.terra.workspace.service.workspace.model.WorkspaceRequest;
 import bio.terra.workspace.service.workspace.model.WorkspaceStage;
+import bio.terra.workspace.service.workspace.model.WorkspaceWithCloudContext;
 import io.opencensus.contrib.spring.aop.Traced;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -30,6 +39,8 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class WorkspaceService {
+  /** Maximum number of Google projects that can be looked up in one batch. */
+  public static final int MAX_GOOGLE_PROJECT_BATCH_SIZE = 200;
 
   private final JobService jobService;
   private final WorkspaceDao workspaceDao;
@@ -46,6 +57,7 @@ public class WorkspaceService {
     this.workspaceDao = workspaceDao;
     this.samService = samService;
     this.spendProfileService = spendProfileService;
+    jobService.registerLocalFlight(WorkspaceCreateFlight.class, WorkspaceCreateFlight::buildSteps);
   }
 
   /** Create a workspace with the specified parameters. Returns workspaceID of the new workspace. */
@@ -66,6 +78,9 @@ public class WorkspaceService {
     createJob.addParameter(
         WorkspaceFlightMapKeys.WORKSPACE_STAGE, workspaceRequest.workspaceStage());
 
+    if (jobService.isLocalFlightEnabled(WorkspaceCreateFlight.class)) {
+      return createJob.runLocally(UUID.class);
+    }
     return createJob.submitAndWait(UUID.class, true);
   }
 
@@ -76,6 +91,65 @@ public class WorkspaceService {
     return workspaceDao.getWorkspace(id);
   }
 
+  /**
+   * Retrieves an existing workspace and its cloud context by ID. The caller's read access is checked
+   * once for both.
+   */
+  @Traced
+  public WorkspaceWithCloudContext getWorkspaceWithCloudContext(
+      UUID id, AuthenticatedUserRequest userReq) {
+    samService.workspaceAuthz(userReq, id, SamUtils.SAM_WORKSPACE_READ_ACTION);
+    return workspaceDao.getWorkspaceWithCloudContext(id);
+  }
+
+  /**
+   * Returns the ID of the workspace whose Google cloud context is the given project. Throws the
+   * same not found error whether no workspace owns the project or the caller cannot read the
+   * workspace that does, so that callers cannot learn who owns projects they have no access to.
+   */
+  @Traced
+  public UUID getWorkspaceIdByGoogleProjectId(
+      String googleProjectId, AuthenticatedUserRequest userReq) {
+    Optional<UUID> workspaceId = workspaceDao.getWorkspaceIdByGoogleProjectId(googleProjectId);
+    if (workspaceId.isEmpty()
+        || !samService.isAuthorized(
+            userReq.getRequiredToken(),
+            SamUtils.SAM_WORKSPACE_RESOURCE,
+            workspaceId.get().toString(),
+            SamUtils.SAM_WORKSPACE_READ_ACTION)) {
+      throw new WorkspaceNotFoundException("No readable workspace owns this Google project.");
+    }
+    return workspaceId.get();
+  }
+
+  /**
+   * Returns the IDs of the workspaces owning the given Google projects, keyed by project ID.
+   * Projects with no workspace, or whose workspace the caller cannot read, are left out.
+   *
+   * <p>All projects are looked up in one database query; read access is then checked once per
+   * workspace found, with a bounded number of Sam checks running concurrently.
+   */
+  @Traced
+  public Map<String, UUID> getWorkspaceIdsByGoogleProjectIds(
+      List<String> googleProjectIds, AuthenticatedUserRequest userReq) {
+    if (googleProjectIds.size() > MAX_GOOGLE_PROJECT_BATCH_SIZE) {
+      throw new ValidationException(
+          String.format(
+              "At most %d Google projects can be looked up in one batch.",
+              MAX_GOOGLE_PROJECT_BATCH_SIZE));
+    }
+    Map<String, UUID> workspaceIds =
+        workspaceDao.getWorkspaceIdsByGoogleProjectIds(new HashSet<>(googleProjectIds));
+    Set<String> readableWorkspaceIds =
+        samService.getAuthorizedResourceIds(
+            userReq.getRequiredToken(),
+            SamUtils.SAM_WORKSPACE_RESOURCE,
+            workspaceIds.values().stream().map(UUID::toString).collect(Collectors.toSet()),
+            SamUtils.SAM_WORKSPACE_READ_ACTION);
+    workspaceIds.values().removeIf(id -> !readableWorkspaceIds.contains(id.toString()));
+    return workspaceIds;
+  }
+
   /** Delete an existing workspace by ID. Does not delete underlying cloud context. */
   @Traced
   public void deleteWorkspace(UUID id, AuthenticatedUserRequest userReq) {
@@ -95,6 +169,39 @@ public class WorkspaceService {
     deleteJob.submitAndWait(null, false);
   }
 
+  /**
+   * Marks an existing workspace as being deleted and starts a job to delete it, without waiting for
+   * the job. The workspace's Google project is left to the {@link GoogleProjectReaper}. Returns the
+   * job id; if the workspace is already being deleted, returns the id of the job deleting it. If an
+   * earlier job finished without deleting the workspace, a new job is started in its place. A
+   * recorded job that Stairway does not know yet is submitted under its recorded id, which is a
+   * no-op if the request that recorded it submits it first.
+   */
+  @Traced
+  public String deleteWorkspaceAsync(UUID id, AuthenticatedUserRequest userReq) {
+    samService.workspaceAuthz(userReq, id, SamUtils.SAM_WORKSPACE_DELETE_ACTION);
+
+    String newJobId = UUID.randomUUID().toString();
+    String jobId = workspaceDao.markWorkspaceDeleting(id, newJobId);
+    if (!jobId.equals(newJobId) && jobService.isJobFinished(jobId)) {
+      // The workspace still exists, so the recorded job failed. Another request may replace it at
+      // the same time, so read back whichever job won.
+      workspaceDao.replaceDeleteJob(id, jobId, newJobId);
+      jobId = workspaceDao.markWorkspaceDeleting(id, newJobId);
+    }
+    jobService
+        .newJob(
+            "Delete workspace " + id,
+            jobId,
+            WorkspaceDeleteFlight.class,
+            /* request= */ null,
+            userReq)
+        .addParameter(WorkspaceFlightMapKeys.WORKSPACE_ID, id)
+        .addParameter(WorkspaceFlightMapKeys.ASYNC_PROJECT_TEARDOWN, true)
+        .submit(true);
+    return jobId;
+  }
+
   /** Retrieves the cloud context of a workspace. */
   @Traced
   public WorkspaceCloudContext getCloudContext(UUID workspaceId, AuthenticatedUserRequest userReq) {
@@ -106,6 +213,10 @@ public class WorkspaceService {
   @Traced
   public String createGoogleContext(UUID workspaceId, AuthenticatedUserRequest userReq) {
     samService.workspaceAuthz(userReq, workspaceId, SamUtils.SAM_WORKSPACE_WRITE_ACTION);
+    if (workspaceDao.isWorkspaceDeleting(workspaceId)) {
+      throw new WorkspaceDeletingException(
+          "Cannot create a cloud context in a workspace that is being deleted.");
+    }
     WorkspaceStage stage = workspaceDao.getWorkspaceStage(workspaceId);
     if (!WorkspaceStage.MC_WORKSPACE.equals(stage)) {
       throw new StageDisabledException(workspaceId, stage, "createGoogleContext");
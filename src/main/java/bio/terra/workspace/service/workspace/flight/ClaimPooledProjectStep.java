@@ -0,0 +1,45 @@
+package bio.terra.workspace.service.workspace.flight;
+
+import static bio.terra.workspace.service.workspace.flight.WorkspaceFlightMapKeys.GOOGLE_PROJECT_ID;
+import static bio.terra.workspace.service.workspace.flight.WorkspaceFlightMapKeys.GOOGLE_PROJECT_POOLED;
+
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import bio.terra.stairway.StepStatus;
+import bio.terra.workspace.service.workspace.pool.GoogleProjectPoolService;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Claims a project from the {@link GoogleProjectPoolService} and puts its id in the working map in
+ * place of the generated one. If no pooled project is ready, the generated project id is kept and
+ * {@link CreateProjectStep} creates the project.
+ */
+public class ClaimPooledProjectStep implements Step {
+  private final GoogleProjectPoolService projectPoolService;
+
+  public ClaimPooledProjectStep(GoogleProjectPoolService projectPoolService) {
+    this.projectPoolService = projectPoolService;
+  }
+
+  @Override
+  public StepResult doStep(FlightContext flightContext) {
+    FlightMap workingMap = flightContext.getWorkingMap();
+    Optional<String> projectId = projectPoolService.claimProject(flightContext.getFlightId());
+    projectId.ifPresent(id -> workingMap.put(GOOGLE_PROJECT_ID, id));
+    workingMap.put(GOOGLE_PROJECT_POOLED, projectId.isPresent());
+    return StepResult.getStepResultSuccess();
+  }
+
+  @Override
+  public StepResult undoStep(FlightContext flightContext) {
+    try {
+      projectPoolService.discardClaimedProject(flightContext.getFlightId());
+    } catch (IOException e) {
+      return new StepResult(StepStatus.STEP_RESULT_FAILURE_RETRY, e);
+    }
+    return StepResult.getStepResultSuccess();
+  }
+}
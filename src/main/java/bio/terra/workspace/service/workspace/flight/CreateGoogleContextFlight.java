@@ -1,15 +1,20 @@
 package bio.terra.workspace.service.workspace.flight;
 
 import bio.terra.cloudres.google.billing.CloudBillingClientCow;
-import bio.terra.cloudres.google.cloudresourcemanager.CloudResourceManagerCow;
-import bio.terra.cloudres.google.serviceusage.ServiceUsageCow;
 import bio.terra.stairway.*;
 import bio.terra.workspace.app.configuration.external.GoogleWorkspaceConfiguration;
+import bio.terra.workspace.common.utils.OutboundCallMetrics;
 import bio.terra.workspace.db.WorkspaceDao;
+import bio.terra.workspace.service.workspace.pool.GoogleProjectClient;
+import bio.terra.workspace.service.workspace.pool.GoogleProjectPoolService;
 import org.springframework.context.ApplicationContext;
 import org.springframework.transaction.support.TransactionTemplate;
 
-/** A {@link Flight} for creating a Google cloud context for a workspace. */
+/**
+ * A {@link Flight} for creating a Google cloud context for a workspace. The project is claimed from
+ * the {@link GoogleProjectPoolService} when one is ready, so that only billing needs to be linked;
+ * otherwise it is created by the flight.
+ */
 public class CreateGoogleContextFlight extends Flight {
 
   public CreateGoogleContextFlight(FlightMap inputParameters, Object applicationContext) {
@@ -18,9 +23,11 @@ public class CreateGoogleContextFlight extends Flight {
     ApplicationContext appContext = (ApplicationContext) applicationContext;
     GoogleWorkspaceConfiguration googleWorkspaceConfiguration =
         appContext.getBean(GoogleWorkspaceConfiguration.class);
-    CloudResourceManagerCow resourceManager = appContext.getBean(CloudResourceManagerCow.class);
-    ServiceUsageCow serviceUsage = appContext.getBean(ServiceUsageCow.class);
+    GoogleProjectClient projectClient = appContext.getBean(GoogleProjectClient.class);
+    GoogleProjectPoolService projectPoolService =
+        appContext.getBean(GoogleProjectPoolService.class);
     CloudBillingClientCow billingClient = appContext.getBean(CloudBillingClientCow.class);
+    OutboundCallMetrics outboundCallMetrics = appContext.getBean(OutboundCallMetrics.class);
     WorkspaceDao workspaceDao = appContext.getBean(WorkspaceDao.class);
     TransactionTemplate transactionTemplate = appContext.getBean(TransactionTemplate.class);
 
@@ -30,10 +37,9 @@ public class CreateGoogleContextFlight extends Flight {
             /* maxIntervalSeconds= */ 8,
             /* maxOperationTimeSeconds= */ 16);
     addStep(new GenerateProjectIdStep());
-    addStep(
-        new CreateProjectStep(resourceManager, serviceUsage, googleWorkspaceConfiguration),
-        retryRule);
-    addStep(new SetProjectBillingStep(billingClient));
+    addStep(new ClaimPooledProjectStep(projectPoolService), retryRule);
+    addStep(new CreateProjectStep(projectClient, googleWorkspaceConfiguration), retryRule);
+    addStep(new SetProjectBillingStep(billingClient, outboundCallMetrics));
     addStep(new StoreGoogleContextStep(workspaceDao, transactionTemplate), retryRule);
   }
 }
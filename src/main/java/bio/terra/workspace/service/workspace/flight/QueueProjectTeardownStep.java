@@ -0,0 +1,65 @@
+package bio.terra.workspace.service.workspace.flight;
+
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import bio.terra.workspace.db.GoogleProjectTeardownDao;
+import bio.terra.workspace.db.WorkspaceDao;
+import bio.terra.workspace.service.workspace.WorkspaceCloudContext;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues the Google project of a workspace being deleted for the GoogleProjectReaper, in place of
+ * {@link DeleteProjectStep}, so that the deletion job does not wait on Google.
+ */
+public class QueueProjectTeardownStep implements Step {
+  private final GoogleProjectTeardownDao teardownDao;
+  private final WorkspaceDao workspaceDao;
+
+  private final Logger logger = LoggerFactory.getLogger(QueueProjectTeardownStep.class);
+
+  public QueueProjectTeardownStep(GoogleProjectTeardownDao teardownDao, WorkspaceDao workspaceDao) {
+    this.teardownDao = teardownDao;
+    this.workspaceDao = workspaceDao;
+  }
+
+  @Override
+  public StepResult doStep(FlightContext flightContext) {
+    UUID workspaceId =
+        flightContext.getInputParameters().get(WorkspaceFlightMapKeys.WORKSPACE_ID, UUID.class);
+    Optional<String> projectId = workspaceDao.getCloudContext(workspaceId).googleProjectId();
+    if (projectId.isPresent()) {
+      teardownDao.queueProject(projectId.get(), workspaceId);
+      flightContext.getWorkingMap().put(WorkspaceFlightMapKeys.GOOGLE_PROJECT_ID, projectId.get());
+    }
+    return StepResult.getStepResultSuccess();
+  }
+
+  @Override
+  public StepResult undoStep(FlightContext flightContext) {
+    String projectId =
+        flightContext.getWorkingMap().get(WorkspaceFlightMapKeys.GOOGLE_PROJECT_ID, String.class);
+    if (projectId == null) {
+      // Nothing was queued.
+      return StepResult.getStepResultSuccess();
+    }
+    if (teardownDao.removeUnclaimedProject(projectId)) {
+      // The workspace was not deleted, so it keeps its project.
+      return StepResult.getStepResultSuccess();
+    }
+    // The reaper has already taken the project and deleted it, or will keep trying to, so the
+    // workspace cannot keep it.
+    UUID workspaceId =
+        flightContext.getInputParameters().get(WorkspaceFlightMapKeys.WORKSPACE_ID, UUID.class);
+    logger.warn(
+        String.format(
+            "Project %s of workspace %s was reaped before the deletion was undone;"
+                + " removing the workspace's Google cloud context",
+            projectId, workspaceId));
+    workspaceDao.updateCloudContext(workspaceId, WorkspaceCloudContext.none());
+    return StepResult.getStepResultSuccess();
+  }
+}
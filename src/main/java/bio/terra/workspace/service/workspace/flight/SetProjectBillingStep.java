@@ -4,14 +4,18 @@ import bio.terra.cloudres.google.billing.CloudBillingClientCow;
 import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.Step;
 import bio.terra.stairway.StepResult;
+import bio.terra.workspace.common.utils.OutboundCallMetrics;
 import com.google.cloud.billing.v1.ProjectBillingInfo;
 
 /** A {@link Step} to set the billing account on the Google project. */
 public class SetProjectBillingStep implements Step {
   private final CloudBillingClientCow billingClient;
+  private final OutboundCallMetrics outboundCallMetrics;
 
-  public SetProjectBillingStep(CloudBillingClientCow billingClient) {
+  public SetProjectBillingStep(
+      CloudBillingClientCow billingClient, OutboundCallMetrics outboundCallMetrics) {
     this.billingClient = billingClient;
+    this.outboundCallMetrics = outboundCallMetrics;
   }
 
   @Override
@@ -26,7 +30,10 @@ public class SetProjectBillingStep implements Step {
         ProjectBillingInfo.newBuilder()
             .setBillingAccountName("billingAccounts/" + billingAccountId)
             .build();
-    billingClient.updateProjectBillingInfo("projects/" + projectId, setBilling);
+    outboundCallMetrics.run(
+        OutboundCallMetrics.GOOGLE,
+        "updateProjectBillingInfo",
+        () -> billingClient.updateProjectBillingInfo("projects/" + projectId, setBilling));
     return StepResult.getStepResultSuccess();
   }
 
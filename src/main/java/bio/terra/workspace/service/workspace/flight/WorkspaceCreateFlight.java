@@ -2,10 +2,12 @@ package bio.terra.workspace.service.workspace.flight;
 
 import bio.terra.stairway.Flight;
 import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.Step;
 import bio.terra.workspace.db.WorkspaceDao;
 import bio.terra.workspace.service.iam.AuthenticatedUserRequest;
 import bio.terra.workspace.service.iam.SamService;
 import bio.terra.workspace.service.job.JobMapKeys;
+import java.util.List;
 import org.springframework.context.ApplicationContext;
 
 public class WorkspaceCreateFlight extends Flight {
@@ -13,7 +15,14 @@ public class WorkspaceCreateFlight extends Flight {
   public WorkspaceCreateFlight(FlightMap inputParameters, Object applicationContext) {
     super(inputParameters, applicationContext);
 
-    ApplicationContext appContext = (ApplicationContext) applicationContext;
+    buildSteps(inputParameters, (ApplicationContext) applicationContext).forEach(this::addStep);
+  }
+
+  /**
+   * Builds the steps of this flight. Also used to run the flight in-process; see {@link
+   * bio.terra.workspace.service.job.LocalFlightExecutor}.
+   */
+  public static List<Step> buildSteps(FlightMap inputParameters, ApplicationContext appContext) {
     WorkspaceDao workspaceDao = (WorkspaceDao) appContext.getBean("workspaceDao");
     SamService iamClient = (SamService) appContext.getBean("samService");
 
@@ -21,7 +30,7 @@ public class WorkspaceCreateFlight extends Flight {
     AuthenticatedUserRequest userReq =
         inputParameters.get(JobMapKeys.AUTH_USER_INFO.getKeyName(), AuthenticatedUserRequest.class);
 
-    addStep(new CreateWorkspaceAuthzStep(iamClient, userReq));
-    addStep(new CreateWorkspaceStep(workspaceDao));
+    return List.of(
+        new CreateWorkspaceAuthzStep(iamClient, userReq), new CreateWorkspaceStep(workspaceDao));
   }
 }
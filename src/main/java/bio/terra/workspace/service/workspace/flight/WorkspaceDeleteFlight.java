@@ -3,6 +3,7 @@ package bio.terra.workspace.service.workspace.flight;
 import bio.terra.cloudres.google.cloudresourcemanager.CloudResourceManagerCow;
 import bio.terra.stairway.Flight;
 import bio.terra.stairway.FlightMap;
+import bio.terra.workspace.db.GoogleProjectTeardownDao;
 import bio.terra.workspace.db.WorkspaceDao;
 import bio.terra.workspace.service.iam.AuthenticatedUserRequest;
 import bio.terra.workspace.service.iam.SamService;
@@ -25,7 +26,15 @@ public class WorkspaceDeleteFlight extends Flight {
     // 1. delete controlled resources using the Cloud Resource Manager library
     // 2. Notify all registered applications of deletion, once applications are supported
     // 3. Delete policy objects in Policy Manager, once it exists.
-    addStep(new DeleteProjectStep(resourceManager, workspaceDao));
+
+    // Asynchronous deletes leave the Google project to the GoogleProjectReaper.
+    if (Boolean.TRUE.equals(
+        inputParameters.get(WorkspaceFlightMapKeys.ASYNC_PROJECT_TEARDOWN, Boolean.class))) {
+      GoogleProjectTeardownDao teardownDao = appContext.getBean(GoogleProjectTeardownDao.class);
+      addStep(new QueueProjectTeardownStep(teardownDao, workspaceDao));
+    } else {
+      addStep(new DeleteProjectStep(resourceManager, workspaceDao));
+    }
     addStep(new DeleteWorkspaceAuthzStep(iamClient, userReq));
     addStep(new DeleteWorkspaceStateStep(workspaceDao));
   }
@@ -4,8 +4,10 @@ public final class WorkspaceFlightMapKeys {
   public static final String WORKSPACE_ID = "workspaceId";
   public static final String SPEND_PROFILE_ID = "spendProfileId";
   public static final String GOOGLE_PROJECT_ID = "googleProjectId";
+  public static final String GOOGLE_PROJECT_POOLED = "googleProjectPooled";
   public static final String WORKSPACE_STAGE = "workspaceStage";
   public static final String BILLING_ACCOUNT_ID = "billingAccountId";
+  public static final String ASYNC_PROJECT_TEARDOWN = "asyncProjectTeardown";
 
   private WorkspaceFlightMapKeys() {}
 }
@@ -0,0 +1,18 @@
+package bio.terra.workspace.service.workspace.model;
+
+import bio.terra.workspace.service.workspace.WorkspaceCloudContext;
+import com.google.auto.value.AutoValue;
+
+/** A workspace together with its cloud context, as returned when describing a workspace. */
+@AutoValue
+public abstract class WorkspaceWithCloudContext {
+
+  public abstract Workspace workspace();
+
+  public abstract WorkspaceCloudContext cloudContext();
+
+  public static WorkspaceWithCloudContext create(
+      Workspace workspace, WorkspaceCloudContext cloudContext) {
+    return new AutoValue_WorkspaceWithCloudContext(workspace, cloudContext);
+  }
+}
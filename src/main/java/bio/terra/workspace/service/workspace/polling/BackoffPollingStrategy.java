@@ -0,0 +1,62 @@
+package bio.terra.workspace.service.workspace.polling;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A {@link PollingStrategy} that polls quickly at first and backs off exponentially up to a maximum
+ * interval. Each delay is randomly adjusted by up to the jitter fraction, so operations started at
+ * the same time do not poll Google in lockstep.
+ */
+public class BackoffPollingStrategy implements PollingStrategy {
+  private final Duration initialInterval;
+  private final Duration maxInterval;
+  private final double multiplier;
+  private final double jitterFraction;
+  private final DoubleSupplier random;
+
+  public BackoffPollingStrategy(
+      Duration initialInterval, Duration maxInterval, double multiplier, double jitterFraction) {
+    this(
+        initialInterval,
+        maxInterval,
+        multiplier,
+        jitterFraction,
+        () -> ThreadLocalRandom.current().nextDouble());
+  }
+
+  /** @param random - source of values in [0, 1) used for jitter */
+  public BackoffPollingStrategy(
+      Duration initialInterval,
+      Duration maxInterval,
+      double multiplier,
+      double jitterFraction,
+      DoubleSupplier random) {
+    if (initialInterval.isNegative()
+        || initialInterval.isZero()
+        || maxInterval.isZero()
+        || maxInterval.compareTo(initialInterval) < 0) {
+      throw new IllegalArgumentException(
+          "Polling intervals must be positive, with the maximum at least the initial interval");
+    }
+    if (multiplier < 1 || jitterFraction < 0 || jitterFraction >= 1) {
+      throw new IllegalArgumentException(
+          "Polling multiplier must be at least 1 and jitter fraction in [0, 1)");
+    }
+    this.initialInterval = initialInterval;
+    this.maxInterval = maxInterval;
+    this.multiplier = multiplier;
+    this.jitterFraction = jitterFraction;
+    this.random = random;
+  }
+
+  @Override
+  public Duration nextDelay(int attempt) {
+    double baseMillis =
+        Math.min(
+            maxInterval.toMillis(), initialInterval.toMillis() * Math.pow(multiplier, attempt));
+    double jitter = 1 + jitterFraction * (2 * random.getAsDouble() - 1);
+    return Duration.ofMillis(Math.min(maxInterval.toMillis(), Math.round(baseMillis * jitter)));
+  }
+}
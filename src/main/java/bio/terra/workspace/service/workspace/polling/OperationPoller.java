@@ -0,0 +1,123 @@
+package bio.terra.workspace.service.workspace.polling;
+
+import bio.terra.cloudres.google.api.services.common.OperationCow;
+import bio.terra.workspace.app.configuration.external.OperationPollingConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Polls CRL long-running operations until they complete, waiting between polls as the {@link
+ * PollingStrategy} says, and records how long each kind of operation took, including polls that
+ * timed out.
+ */
+@Component
+public class OperationPoller {
+  public static final String METRIC_NAME = "wsm.google.operation.duration";
+
+  /**
+   * Latency buckets published for each kind of operation, from half a second to five minutes, which
+   * covers the Google operations workspace flights wait on.
+   */
+  private static final Duration[] LATENCY_BUCKETS = {
+    Duration.ofMillis(500),
+    Duration.ofSeconds(1),
+    Duration.ofSeconds(2),
+    Duration.ofSeconds(5),
+    Duration.ofSeconds(10),
+    Duration.ofSeconds(20),
+    Duration.ofSeconds(30),
+    Duration.ofMinutes(1),
+    Duration.ofMinutes(2),
+    Duration.ofMinutes(5)
+  };
+
+  private final PollingStrategy pollingStrategy;
+  private final Duration timeout;
+  private final MeterRegistry meterRegistry;
+
+  private final Logger logger = LoggerFactory.getLogger(OperationPoller.class);
+
+  @Autowired
+  public OperationPoller(
+      OperationPollingConfiguration pollingConfiguration, MeterRegistry meterRegistry) {
+    this(
+        new BackoffPollingStrategy(
+            Duration.ofMillis(pollingConfiguration.getInitialIntervalMillis()),
+            Duration.ofMillis(pollingConfiguration.getMaxIntervalMillis()),
+            pollingConfiguration.getMultiplier(),
+            pollingConfiguration.getJitterFraction()),
+        Duration.ofSeconds(pollingConfiguration.getTimeoutSeconds()),
+        meterRegistry);
+  }
+
+  public OperationPoller(
+      PollingStrategy pollingStrategy, Duration timeout, MeterRegistry meterRegistry) {
+    this.pollingStrategy = pollingStrategy;
+    this.timeout = timeout;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Polls until the operation has completed, and returns the completed operation. Throws the
+   * operation's error, or a timeout, as an IOException.
+   *
+   * @param operationName - kind of operation, e.g. "projects.create", under which its latency is
+   *     recorded
+   * @param operation - the operation returned by the call that started it
+   */
+  public <T> OperationCow<T> pollUntilSuccess(String operationName, OperationCow<T> operation)
+      throws IOException, InterruptedException {
+    long startNanos = System.nanoTime();
+    int attempt = 0;
+    while (!isDone(operation)) {
+      Duration remaining = timeout.minusNanos(System.nanoTime() - startNanos);
+      if (remaining.isNegative() || remaining.isZero()) {
+        recordLatency(operationName, "timeout", Duration.ofNanos(System.nanoTime() - startNanos));
+        throw new IOException(
+            String.format(
+                "Timed out polling operation. name [%s] after [%d] polls",
+                operation.getOperationAdapter().getName(), attempt));
+      }
+      Duration delay = pollingStrategy.nextDelay(attempt++);
+      TimeUnit.MILLISECONDS.sleep(Math.min(delay.toMillis(), remaining.toMillis()));
+      operation = operation.weakRefresh();
+    }
+    Duration latency = Duration.ofNanos(System.nanoTime() - startNanos);
+    boolean failed = operation.getOperationAdapter().getError() != null;
+    recordLatency(operationName, failed ? "error" : "success", latency);
+    logger.debug(
+        String.format(
+            "Operation %s completed in %d ms after %d polls",
+            operationName, latency.toMillis(), attempt));
+
+    if (failed) {
+      throw new IOException(
+          String.format(
+              "Error polling operation. name [%s] message [%s]",
+              operation.getOperationAdapter().getName(),
+              operation.getOperationAdapter().getError().getMessage()));
+    }
+    return operation;
+  }
+
+  private void recordLatency(String operationName, String outcome, Duration latency) {
+    Timer.builder(METRIC_NAME)
+        .description("Time from the start of polling until a Google operation completed")
+        .tag("operation", operationName)
+        .tag("outcome", outcome)
+        .serviceLevelObjectives(LATENCY_BUCKETS)
+        .register(meterRegistry)
+        .record(latency);
+  }
+
+  private static boolean isDone(OperationCow<?> operation) {
+    return Boolean.TRUE.equals(operation.getOperationAdapter().getDone());
+  }
+}
@@ -0,0 +1,13 @@
+package bio.terra.workspace.service.workspace.polling;
+
+import java.time.Duration;
+
+/** Decides how long to wait before each poll of a long-running operation. */
+public interface PollingStrategy {
+  /**
+   * Returns the delay before the next poll.
+   *
+   * @param attempt - number of polls already made for this operation, starting at 0
+   */
+  Duration nextDelay(int attempt);
+}
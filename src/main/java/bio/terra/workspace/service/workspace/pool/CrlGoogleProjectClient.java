@@ -0,0 +1,87 @@
+package bio.terra.workspace.service.workspace.pool;
+
+import bio.terra.cloudres.google.cloudresourcemanager.CloudResourceManagerCow;
+import bio.terra.cloudres.google.serviceusage.ServiceUsageCow;
+import bio.terra.workspace.common.utils.OutboundCallMetrics;
+import bio.terra.workspace.service.workspace.flight.GoogleUtils;
+import bio.terra.workspace.service.workspace.polling.OperationPoller;
+import com.google.api.services.cloudresourcemanager.model.Project;
+import com.google.api.services.cloudresourcemanager.model.ResourceId;
+import com.google.api.services.serviceusage.v1.model.BatchEnableServicesRequest;
+import java.io.IOException;
+import java.util.List;
+
+/** A {@link GoogleProjectClient} calling Google through the Terra Cloud Resource Library. */
+public class CrlGoogleProjectClient implements GoogleProjectClient {
+  private final CloudResourceManagerCow resourceManager;
+  private final ServiceUsageCow serviceUsage;
+  private final OperationPoller operationPoller;
+  private final OutboundCallMetrics outboundCallMetrics;
+
+  public CrlGoogleProjectClient(
+      CloudResourceManagerCow resourceManager,
+      ServiceUsageCow serviceUsage,
+      OperationPoller operationPoller,
+      OutboundCallMetrics outboundCallMetrics) {
+    this.resourceManager = resourceManager;
+    this.serviceUsage = serviceUsage;
+    this.operationPoller = operationPoller;
+    this.outboundCallMetrics = outboundCallMetrics;
+  }
+
+  @Override
+  public void createProject(String projectId, String folderId)
+      throws IOException, InterruptedException {
+    if (outboundCallMetrics
+        .record(
+            OutboundCallMetrics.GOOGLE,
+            "projects.get",
+            () -> GoogleUtils.retrieveProject(projectId, resourceManager))
+        .isPresent()) {
+      return;
+    }
+    Project project =
+        new Project()
+            .setProjectId(projectId)
+            .setParent(new ResourceId().setType("folder").setId(folderId));
+    // The operation's own latency is recorded by the poller.
+    operationPoller.pollUntilSuccess(
+        "projects.create",
+        resourceManager
+            .operations()
+            .operationCow(
+                outboundCallMetrics.record(
+                    OutboundCallMetrics.GOOGLE,
+                    "projects.create",
+                    () -> resourceManager.projects().create(project).execute())));
+  }
+
+  @Override
+  public void enableServices(String projectId, List<String> serviceIds)
+      throws IOException, InterruptedException {
+    String projectName = "projects/" + projectId;
+    operationPoller.pollUntilSuccess(
+        "services.batchEnable",
+        serviceUsage
+            .operations()
+            .operationCow(
+                outboundCallMetrics.record(
+                    OutboundCallMetrics.GOOGLE,
+                    "services.batchEnable",
+                    () ->
+                        serviceUsage
+                            .services()
+                            .batchEnable(
+                                projectName,
+                                new BatchEnableServicesRequest().setServiceIds(serviceIds))
+                            .execute())));
+  }
+
+  @Override
+  public void deleteProject(String projectId) throws IOException {
+    outboundCallMetrics.run(
+        OutboundCallMetrics.GOOGLE,
+        "projects.delete",
+        () -> GoogleUtils.deleteProject(projectId, resourceManager));
+  }
+}
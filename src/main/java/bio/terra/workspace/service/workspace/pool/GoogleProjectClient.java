@@ -0,0 +1,23 @@
+package bio.terra.workspace.service.workspace.pool;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The Google project operations needed to set up workspace projects. Each method returns once
+ * Google has finished the operation, and is safe to call again after a failure.
+ *
+ * <p>This is the seam between workspace code and the CRL clients, which are concrete classes that
+ * cannot be faked without a Google connection.
+ */
+public interface GoogleProjectClient {
+  /** Creates a project in a folder. Does nothing if the project already exists. */
+  void createProject(String projectId, String folderId) throws IOException, InterruptedException;
+
+  /** Enables service APIs, e.g. "storage-api.googleapis.com", on a project. */
+  void enableServices(String projectId, List<String> serviceIds)
+      throws IOException, InterruptedException;
+
+  /** Requests deletion of a project. Does nothing if it does not exist or is already deleting. */
+  void deleteProject(String projectId) throws IOException;
+}
@@ -0,0 +1,135 @@
+package bio.terra.workspace.service.workspace.pool;
+
+import bio.terra.workspace.app.configuration.external.GoogleProjectPoolConfiguration;
+import bio.terra.workspace.app.configuration.external.GoogleWorkspaceConfiguration;
+import bio.terra.workspace.db.GoogleProjectPoolDao;
+import bio.terra.workspace.service.workspace.flight.CreateProjectStep;
+import bio.terra.workspace.service.workspace.flight.GenerateProjectIdStep;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a pool of Google projects that are created in the workspace folder and have their services
+ * enabled, so that creating a Google cloud context only has to claim a project and link billing.
+ *
+ * <p>Every instance refills the pool periodically. Each refill creates at most the configured batch
+ * of projects, and never more than the pool is short of its target size, counting projects other
+ * instances are still creating. Pooled projects have no billing account, so an unclaimed project
+ * costs nothing.
+ */
+@Component
+public class GoogleProjectPoolService {
+  /** Maximum number of abandoned project creations to clean up in one refill. */
+  private static final int ABANDONED_BATCH_SIZE = 10;
+
+  private final GoogleProjectPoolConfiguration poolConfiguration;
+  private final GoogleWorkspaceConfiguration googleWorkspaceConfiguration;
+  private final GoogleProjectPoolDao poolDao;
+  private final GoogleProjectClient projectClient;
+
+  private final Logger logger = LoggerFactory.getLogger(GoogleProjectPoolService.class);
+
+  @Autowired
+  public GoogleProjectPoolService(
+      GoogleProjectPoolConfiguration poolConfiguration,
+      GoogleWorkspaceConfiguration googleWorkspaceConfiguration,
+      GoogleProjectPoolDao poolDao,
+      @Lazy GoogleProjectClient projectClient) {
+    this.poolConfiguration = poolConfiguration;
+    this.googleWorkspaceConfiguration = googleWorkspaceConfiguration;
+    this.poolDao = poolDao;
+    this.projectClient = projectClient;
+  }
+
+  /**
+   * Claims a ready project for a flight and returns its id, or empty if the pool is disabled or has
+   * no ready project. Claiming again for the same flight returns the same project.
+   */
+  public Optional<String> claimProject(String flightId) {
+    if (!poolConfiguration.isEnabled()) {
+      return Optional.empty();
+    }
+    Optional<String> projectId = poolDao.claimProject(flightId);
+    if (projectId.isEmpty()) {
+      logger.warn("Google project pool is empty; creating a project on demand");
+    }
+    return projectId;
+  }
+
+  /**
+   * Deletes the project claimed by a flight that is being undone, and removes it from the pool.
+   * Does nothing if the flight did not claim a project.
+   */
+  public void discardClaimedProject(String flightId) throws IOException {
+    Optional<String> projectId = poolDao.removeClaim(flightId);
+    if (projectId.isPresent()) {
+      // The flight may have linked billing to the project, so it cannot go back to the pool.
+      projectClient.deleteProject(projectId.get());
+    }
+  }
+
+  /** Refills the pool up to its target size. Runs periodically on every instance. */
+  @Scheduled(fixedDelayString = "PT${workspace.google.project-pool.refill-interval-seconds:60}S")
+  public void refill() {
+    if (!poolConfiguration.isEnabled()) {
+      return;
+    }
+    poolDao.removeStoredClaims();
+    deleteAbandonedProjects();
+
+    List<String> projectIds =
+        poolDao.reserveProjects(
+            poolConfiguration.getTargetSize(),
+            poolConfiguration.getRefillBatchSize(),
+            GenerateProjectIdStep::randomProjectId);
+    for (String projectId : projectIds) {
+      try {
+        projectClient.createProject(projectId, googleWorkspaceConfiguration.getFolderId());
+        projectClient.enableServices(projectId, CreateProjectStep.ENABLED_SERVICES);
+        poolDao.markReady(projectId);
+        logger.info(String.format("Added project %s to the Google project pool", projectId));
+      } catch (IOException | RuntimeException e) {
+        logger.error(String.format("Failed to create pooled project %s", projectId), e);
+        deleteProject(projectId);
+      } catch (InterruptedException e) {
+        // Shutting down; the reserved projects are cleaned up once they are abandoned.
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    if (!projectIds.isEmpty()) {
+      logger.info(
+          String.format("Google project pool has %d ready projects", poolDao.countReadyProjects()));
+    }
+  }
+
+  /** Deletes projects whose creation was left unfinished, e.g. by an instance that stopped. */
+  private void deleteAbandonedProjects() {
+    Duration abandonedAfter = Duration.ofSeconds(poolConfiguration.getCreatingAbandonSeconds());
+    for (String projectId : poolDao.claimAbandonedProjects(abandonedAfter, ABANDONED_BATCH_SIZE)) {
+      logger.warn(String.format("Deleting abandoned pooled project %s", projectId));
+      deleteProject(projectId);
+    }
+  }
+
+  /**
+   * Deletes a pooled project and removes it from the pool. If the deletion fails, the project stays
+   * in the pool as CREATING and is retried once it is considered abandoned.
+   */
+  private void deleteProject(String projectId) {
+    try {
+      projectClient.deleteProject(projectId);
+      poolDao.removeProject(projectId);
+    } catch (IOException | RuntimeException e) {
+      logger.error(String.format("Failed to delete pooled project %s", projectId), e);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package bio.terra.workspace.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.workspace.app.exception.StartupException;
+import bio.terra.workspace.common.BaseUnitTest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class StartupPhasesTest extends BaseUnitTest {
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  @Test
+  public void independentPhasesRunConcurrently() {
+    // Each phase waits for the other to start, so they only finish if they run at the same time.
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    Runnable awaitOther =
+        () -> {
+          bothStarted.countDown();
+          try {
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        };
+    AtomicBoolean dependentSawBoth = new AtomicBoolean();
+
+    Map<String, Duration> durations =
+        new StartupPhases()
+            .add("first", TIMEOUT, awaitOther)
+            .add("second", TIMEOUT, awaitOther)
+            .add(
+                "dependent",
+                TIMEOUT,
+                () -> dependentSawBoth.set(bothStarted.getCount() == 0),
+                "first",
+                "second")
+            .run();
+
+    assertTrue(dependentSawBoth.get());
+    assertEquals(List.of("first", "second", "dependent"), List.copyOf(durations.keySet()));
+  }
+
+  @Test
+  public void timedOutPhaseFailsStartupAndSkipsDependents() {
+    AtomicBoolean dependentRan = new AtomicBoolean();
+    StartupPhases phases =
+        new StartupPhases()
+            .add(
+                "slow",
+                Duration.ofMillis(100),
+                () -> {
+                  try {
+                    TimeUnit.SECONDS.sleep(10);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                })
+            .add("dependent", TIMEOUT, () -> dependentRan.set(true), "slow");
+
+    StartupException e = assertThrows(StartupException.class, phases::run);
+
+    assertTrue(e.getMessage().contains("slow"));
+    assertFalse(dependentRan.get());
+  }
+
+  @Test
+  public void unknownDependencyIsRejected() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new StartupPhases().add("phase", TIMEOUT, () -> {}, "missing"));
+  }
+}
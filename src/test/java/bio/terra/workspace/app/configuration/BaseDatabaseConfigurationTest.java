@@ -0,0 +1,31 @@
+package bio.terra.workspace.app.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.workspace.app.configuration.external.WorkspaceDatabaseConfiguration;
+import bio.terra.workspace.common.BaseUnitTest;
+import java.sql.Connection;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class BaseDatabaseConfigurationTest extends BaseUnitTest {
+
+  @Autowired private WorkspaceDatabaseConfiguration workspaceDatabaseConfiguration;
+
+  @Test
+  public void poolStatsTrackBorrowedConnections() throws Exception {
+    ConnectionPoolStats before = workspaceDatabaseConfiguration.currentPoolStats();
+    assertEquals("workspace-database", before.poolName());
+    assertEquals(workspaceDatabaseConfiguration.getPoolMaxTotal(), before.maxTotal());
+
+    try (Connection connection = workspaceDatabaseConfiguration.getDataSource().getConnection()) {
+      ConnectionPoolStats during = workspaceDatabaseConfiguration.currentPoolStats();
+      assertEquals(before.active() + 1, during.active());
+    }
+
+    ConnectionPoolStats after = workspaceDatabaseConfiguration.currentPoolStats();
+    assertEquals(before.active(), after.active());
+    assertTrue(after.idle() >= 1);
+  }
+}
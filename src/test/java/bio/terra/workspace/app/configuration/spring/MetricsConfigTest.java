@@ -0,0 +1,67 @@
+package bio.terra.workspace.app.configuration.spring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import bio.terra.workspace.app.StartupInitializer;
+import bio.terra.workspace.app.configuration.external.WorkspaceDatabaseConfiguration;
+import bio.terra.workspace.common.BaseUnitTest;
+import bio.terra.workspace.common.exception.WorkspaceNotFoundException;
+import bio.terra.workspace.db.DaoMetricsAspect;
+import bio.terra.workspace.db.WorkspaceDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+public class MetricsConfigTest extends BaseUnitTest {
+
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private MockMvc mockMvc;
+  @Autowired private WorkspaceDao workspaceDao;
+  @Autowired private WorkspaceDatabaseConfiguration workspaceDatabaseConfiguration;
+
+  @Test
+  public void requestsAreTaggedWithOperation() throws Exception {
+    mockMvc.perform(get("/version")).andExpect(status().isOk());
+
+    assertNotNull(
+        meterRegistry.find("http.server.requests").tag("operation", "serviceVersion").timer());
+  }
+
+  @Test
+  public void daoMethodsAreTimed() {
+    assertThrows(
+        WorkspaceNotFoundException.class, () -> workspaceDao.getWorkspace(UUID.randomUUID()));
+
+    assertNotNull(
+        meterRegistry
+            .find(DaoMetricsAspect.METRIC_NAME)
+            .tags("dao", "WorkspaceDao", "method", "getWorkspace", "outcome", "error")
+            .timer());
+  }
+
+  @Test
+  public void connectionPoolIsMeasured() {
+    assertEquals(
+        workspaceDatabaseConfiguration.getPoolMaxTotal(),
+        meterRegistry
+            .get("wsm.db.pool.max")
+            .tag("pool", workspaceDatabaseConfiguration.getPoolName())
+            .gauge()
+            .value());
+  }
+
+  @Test
+  public void startupPhasesAreMeasured() {
+    assertNotNull(
+        meterRegistry
+            .find("wsm.startup.phase.duration")
+            .tag("phase", StartupInitializer.WORKSPACE_MIGRATION_PHASE)
+            .timeGauge());
+  }
+}
@@ -0,0 +1,75 @@
+package bio.terra.workspace.benchmark;
+
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.HookAction;
+import bio.terra.workspace.common.utils.MdcHook;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+/**
+ * Measures the per-step overhead of {@link MdcHook}: one {@code startStep} and {@code endStep} pair
+ * for a flight that is already running, with an MDC context of {@code contextSize} entries captured
+ * when the flight was created.
+ *
+ * <p>Needs no database. Run with {@code ./gradlew jmh -PjmhInclude=MdcHookBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class MdcHookBenchmark {
+
+  @Param({"0", "4"})
+  public int contextSize;
+
+  private MdcHook mdcHook;
+  private FlightContext flightContext;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    mdcHook = new MdcHook(new ObjectMapper());
+
+    MDC.clear();
+    for (int i = 0; i < contextSize; i++) {
+      MDC.put("key" + i, "value-" + i);
+    }
+    FlightMap inputParameters = new FlightMap();
+    inputParameters.put(MdcHook.MDC_FLIGHT_MAP_KEY, mdcHook.getSerializedCurrentContext());
+    MDC.clear();
+
+    flightContext =
+        new FlightContext(
+            inputParameters, "BenchmarkFlight", List.of("BenchmarkStep", "BenchmarkStep"));
+    flightContext.setFlightId("benchmark-flight");
+    mdcHook.startFlight(flightContext);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    mdcHook.endFlight(flightContext);
+  }
+
+  @Benchmark
+  public HookAction step() {
+    mdcHook.startStep(flightContext);
+    return mdcHook.endStep(flightContext);
+  }
+}
@@ -0,0 +1,132 @@
+package bio.terra.workspace.benchmark;
+
+import bio.terra.workspace.app.configuration.external.WorkspaceDatabaseConfiguration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Compares primary key lookups on a text ID column, as workspace and reference IDs were stored
+ * before the uuid column migration, against the same lookups on a native uuid column.
+ *
+ * <p>Setup builds two scratch tables with the same IDs and logs the size of each primary key
+ * index, so one run reports both the index size and the lookup latency of each layout. Each lookup
+ * includes binding the ID and mapping it back to a UUID, as the DAOs do.
+ *
+ * <p>Uses the same database properties as {@link WorkspaceReadBenchmark}. Run with {@code ./gradlew
+ * jmh -PjmhInclude=UuidColumnBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UuidColumnBenchmark {
+
+  private static final String TEXT_TABLE = "benchmark_text_id";
+  private static final String UUID_TABLE = "benchmark_uuid_id";
+  private static final int LOOKUP_ID_COUNT = 10000;
+
+  private static final Logger logger = LoggerFactory.getLogger(UuidColumnBenchmark.class);
+
+  @Param({"100000"})
+  public int rowCount;
+
+  private NamedParameterJdbcTemplate jdbcTemplate;
+  private List<UUID> lookupIds;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    WorkspaceDatabaseConfiguration databaseConfig = new WorkspaceDatabaseConfiguration();
+    databaseConfig.setUri(
+        System.getProperty("benchmark.db.uri", "jdbc:postgresql://127.0.0.1:5432/testdb"));
+    databaseConfig.setUsername(System.getProperty("benchmark.db.username", "dbuser"));
+    databaseConfig.setPassword(System.getProperty("benchmark.db.password", "dbpwd"));
+    jdbcTemplate = new NamedParameterJdbcTemplate(databaseConfig.getDataSource());
+
+    dropTables();
+    MapSqlParameterSource params = new MapSqlParameterSource().addValue("row_count", rowCount);
+    jdbcTemplate.update(
+        "CREATE TABLE " + UUID_TABLE + " (id uuid PRIMARY KEY, name text NOT NULL)", params);
+    jdbcTemplate.update(
+        "INSERT INTO "
+            + UUID_TABLE
+            + " SELECT md5(random()::text || i)::uuid, 'name_' || i"
+            + " FROM generate_series(1, :row_count) AS i",
+        params);
+    jdbcTemplate.update(
+        "CREATE TABLE " + TEXT_TABLE + " (id text PRIMARY KEY, name text NOT NULL)", params);
+    jdbcTemplate.update(
+        "INSERT INTO " + TEXT_TABLE + " SELECT id::text, name FROM " + UUID_TABLE, params);
+    jdbcTemplate.update("ANALYZE " + UUID_TABLE, params);
+    jdbcTemplate.update("ANALYZE " + TEXT_TABLE, params);
+
+    logIndexSize(TEXT_TABLE);
+    logIndexSize(UUID_TABLE);
+
+    lookupIds =
+        jdbcTemplate.queryForList(
+            "SELECT id FROM " + UUID_TABLE + " ORDER BY random() LIMIT :limit",
+            new MapSqlParameterSource().addValue("limit", LOOKUP_ID_COUNT),
+            UUID.class);
+  }
+
+  private void logIndexSize(String table) {
+    Long bytes =
+        jdbcTemplate.queryForObject(
+            "SELECT pg_relation_size(:index::regclass)",
+            new MapSqlParameterSource().addValue("index", table + "_pkey"),
+            Long.class);
+    logger.info(String.format("Primary key index of %s: %d bytes", table, bytes));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    dropTables();
+  }
+
+  private void dropTables() {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    jdbcTemplate.update("DROP TABLE IF EXISTS " + TEXT_TABLE, params);
+    jdbcTemplate.update("DROP TABLE IF EXISTS " + UUID_TABLE, params);
+  }
+
+  private UUID randomLookupId() {
+    return lookupIds.get(ThreadLocalRandom.current().nextInt(lookupIds.size()));
+  }
+
+  @Benchmark
+  public UUID textIdLookup() {
+    return jdbcTemplate.queryForObject(
+        "SELECT id FROM " + TEXT_TABLE + " WHERE id = :id",
+        new MapSqlParameterSource().addValue("id", randomLookupId().toString()),
+        (rs, rowNum) -> UUID.fromString(rs.getString("id")));
+  }
+
+  @Benchmark
+  public UUID uuidIdLookup() {
+    return jdbcTemplate.queryForObject(
+        "SELECT id FROM " + UUID_TABLE + " WHERE id = :id",
+        new MapSqlParameterSource().addValue("id", randomLookupId()),
+        (rs, rowNum) -> rs.getObject("id", UUID.class));
+  }
+}
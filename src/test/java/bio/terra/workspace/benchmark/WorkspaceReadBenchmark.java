@@ -0,0 +1,115 @@
+package bio.terra.workspace.benchmark;
+
+import bio.terra.workspace.app.configuration.external.WorkspaceDatabaseConfiguration;
+import bio.terra.workspace.db.WorkspaceDao;
+import bio.terra.workspace.service.migrate.MigrateService;
+import bio.terra.workspace.service.workspace.WorkspaceCloudContext;
+import bio.terra.workspace.service.workspace.model.Workspace;
+import bio.terra.workspace.service.workspace.model.WorkspaceStage;
+import bio.terra.workspace.service.workspace.model.WorkspaceWithCloudContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares reading a workspace and its cloud context with two DAO calls against the single-query
+ * {@link WorkspaceDao#getWorkspaceWithCloudContext(UUID)}.
+ *
+ * <p>Runs against the local test database by default. Set the {@code benchmark.db.uri}, {@code
+ * benchmark.db.username} and {@code benchmark.db.password} system properties to use a different
+ * one. Run with {@code ./gradlew jmh -PjmhInclude=WorkspaceReadBenchmark}.
+ *
+ * <p>The DAO is used outside of Spring here, so each path is wrapped in a transaction template that
+ * matches the {@code @Transactional} settings of the DAO methods it calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WorkspaceReadBenchmark {
+
+  @Param({"1000"})
+  public int workspaceCount;
+
+  private WorkspaceDao workspaceDao;
+  private TransactionTemplate serializableTransaction;
+  private TransactionTemplate readOnlyTransaction;
+  private final List<UUID> workspaceIds = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void setup() {
+    WorkspaceDatabaseConfiguration databaseConfig = new WorkspaceDatabaseConfiguration();
+    databaseConfig.setUri(
+        System.getProperty("benchmark.db.uri", "jdbc:postgresql://127.0.0.1:5432/testdb"));
+    databaseConfig.setUsername(System.getProperty("benchmark.db.username", "dbuser"));
+    databaseConfig.setPassword(System.getProperty("benchmark.db.password", "dbpwd"));
+    new MigrateService().upgrade("db/changelog.xml", databaseConfig.getDataSource());
+
+    workspaceDao = new WorkspaceDao(new NamedParameterJdbcTemplate(databaseConfig.getDataSource()));
+    DataSourceTransactionManager transactionManager =
+        new DataSourceTransactionManager(databaseConfig.getDataSource());
+    serializableTransaction = new TransactionTemplate(transactionManager);
+    serializableTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    readOnlyTransaction.setReadOnly(true);
+
+    for (int i = 0; i < workspaceCount; i++) {
+      UUID workspaceId = UUID.randomUUID();
+      workspaceDao.createWorkspace(
+          Workspace.builder()
+              .workspaceId(workspaceId)
+              .workspaceStage(WorkspaceStage.MC_WORKSPACE)
+              .build());
+      workspaceDao.updateCloudContext(
+          workspaceId, WorkspaceCloudContext.createGoogleContext("benchmark-project-" + i));
+      workspaceIds.add(workspaceId);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    workspaceIds.forEach(workspaceDao::deleteWorkspace);
+  }
+
+  private UUID randomWorkspaceId() {
+    return workspaceIds.get(ThreadLocalRandom.current().nextInt(workspaceIds.size()));
+  }
+
+  @Benchmark
+  public WorkspaceWithCloudContext twoQueries() {
+    UUID workspaceId = randomWorkspaceId();
+    Workspace workspace = workspaceDao.getWorkspace(workspaceId);
+    WorkspaceCloudContext cloudContext =
+        serializableTransaction.execute(status -> workspaceDao.getCloudContext(workspaceId));
+    return WorkspaceWithCloudContext.create(workspace, cloudContext);
+  }
+
+  @Benchmark
+  public WorkspaceWithCloudContext singleJoinQuery() {
+    UUID workspaceId = randomWorkspaceId();
+    return readOnlyTransaction.execute(
+        status -> workspaceDao.getWorkspaceWithCloudContext(workspaceId));
+  }
+}
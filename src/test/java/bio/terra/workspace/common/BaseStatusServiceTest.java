@@ -1,13 +1,22 @@
 package bio.terra.workspace.common;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import bio.terra.workspace.common.utils.BaseStatusService;
+import bio.terra.workspace.common.utils.StatusCheckResult;
+import bio.terra.workspace.common.utils.StatusSnapshot;
 import bio.terra.workspace.common.utils.StatusSubsystem;
+import bio.terra.workspace.generated.model.SystemStatus;
 import bio.terra.workspace.generated.model.SystemStatusSystems;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import org.junit.jupiter.api.Test;
 
@@ -15,7 +24,11 @@ public class BaseStatusServiceTest extends BaseUnitTest {
 
   private class BaseStatusServiceTestImpl extends BaseStatusService {
     public BaseStatusServiceTestImpl(List<StatusSubsystem> subsystems) {
-      super(/*staleThresholdMillis=*/ 600000);
+      this(subsystems, /*historySize=*/ 60);
+    }
+
+    public BaseStatusServiceTestImpl(List<StatusSubsystem> subsystems, int historySize) {
+      super(/*staleThresholdMillis=*/ 600000, /*checkThreads=*/ 2, historySize);
       for (int i = 0; i < subsystems.size(); i++) {
         registerSubsystem("subsystem" + i, subsystems.get(i));
       }
@@ -81,4 +94,74 @@ public class BaseStatusServiceTest extends BaseUnitTest {
     statusService.checkSubsystems();
     assertTrue(statusService.getCurrentStatus().isOk());
   }
+
+  @Test
+  public void testOverrunningCheckIsCancelled() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    Supplier<SystemStatusSystems> hangingSupplier =
+        () -> {
+          try {
+            TimeUnit.MINUTES.sleep(1);
+          } catch (InterruptedException e) {
+            interrupted.countDown();
+          }
+          return new SystemStatusSystems().ok(true);
+        };
+    List<StatusSubsystem> subsystems = new ArrayList<>();
+    subsystems.add(new StatusSubsystem(hangingSupplier, true, Duration.ofMillis(100)));
+    subsystems.add(new StatusSubsystem(() -> new SystemStatusSystems().ok(true), true));
+
+    BaseStatusServiceTestImpl statusService = new BaseStatusServiceTestImpl(subsystems);
+    statusService.checkSubsystems();
+
+    assertFalse(statusService.getCurrentStatus().isOk());
+    assertFalse(statusService.getCurrentStatus().getSystems().get("subsystem0").isOk());
+    assertTrue(statusService.getCurrentStatus().getSystems().get("subsystem1").isOk());
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    assertEquals(
+        StatusCheckResult.Outcome.TIMED_OUT,
+        statusService.getCheckHistory().get("subsystem0").get(0).outcome());
+  }
+
+  @Test
+  public void testHistoryKeepsMostRecentChecks() throws Exception {
+    AtomicInteger checkCount = new AtomicInteger();
+    List<StatusSubsystem> subsystems = new ArrayList<>();
+    subsystems.add(
+        new StatusSubsystem(
+            () -> new SystemStatusSystems().ok(checkCount.incrementAndGet() != 2), true));
+
+    BaseStatusServiceTestImpl statusService =
+        new BaseStatusServiceTestImpl(subsystems, /*historySize=*/ 2);
+    statusService.checkSubsystems();
+    statusService.checkSubsystems();
+    statusService.checkSubsystems();
+
+    List<StatusCheckResult> history = statusService.getCheckHistory().get("subsystem0");
+    assertEquals(2, history.size());
+    assertEquals(StatusCheckResult.Outcome.FAILED, history.get(0).outcome());
+    assertEquals(StatusCheckResult.Outcome.OK, history.get(1).outcome());
+    assertEquals(
+        2, statusService.getStatusDetails().getSystems().get("subsystem0").getChecks().size());
+  }
+
+  @Test
+  public void testSnapshotJsonMatchesStatus() throws Exception {
+    List<StatusSubsystem> subsystems = new ArrayList<>();
+    subsystems.add(new StatusSubsystem(() -> new SystemStatusSystems().ok(true), true));
+    BaseStatusServiceTestImpl statusService = new BaseStatusServiceTestImpl(subsystems);
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    // Before the first check, the status is stale.
+    StatusSnapshot snapshot = statusService.getCurrentSnapshot();
+    assertFalse(snapshot.isOk());
+    assertEquals(
+        snapshot.getStatus(), objectMapper.readValue(snapshot.getJson(), SystemStatus.class));
+
+    statusService.checkSubsystems();
+    snapshot = statusService.getCurrentSnapshot();
+    assertTrue(snapshot.isOk());
+    assertEquals(
+        snapshot.getStatus(), objectMapper.readValue(snapshot.getJson(), SystemStatus.class));
+  }
 }
@@ -1,6 +1,7 @@
 package bio.terra.workspace.common.utils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import bio.terra.stairway.*;
 import bio.terra.workspace.common.BaseUnitTest;
@@ -67,6 +68,12 @@ public class MdcHookTest extends BaseUnitTest {
     assertEquals(FlightStatus.SUCCESS, stairway.getFlightState(flightId).getFlightStatus());
   }
 
+  @Test
+  public void emptyContextNotSerialized() {
+    MDC.clear();
+    assertNull(mdcHook.getSerializedCurrentContext());
+  }
+
   @Test
   public void inputParametersNotSetOk() throws Exception {
     Stairway stairway = jobService.getStairway();
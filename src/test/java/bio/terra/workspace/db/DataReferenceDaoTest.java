@@ -13,12 +13,15 @@ import bio.terra.workspace.common.exception.DataReferenceNotFoundException;
 import bio.terra.workspace.common.exception.DuplicateDataReferenceException;
 import bio.terra.workspace.service.datareference.model.CloningInstructions;
 import bio.terra.workspace.service.datareference.model.DataReference;
+import bio.terra.workspace.service.datareference.model.DataReferenceId;
 import bio.terra.workspace.service.datareference.model.DataReferenceRequest;
 import bio.terra.workspace.service.datareference.model.DataReferenceType;
 import bio.terra.workspace.service.datareference.model.SnapshotReference;
 import bio.terra.workspace.service.workspace.model.Workspace;
 import bio.terra.workspace.service.workspace.model.WorkspaceStage;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -70,6 +73,24 @@ public class DataReferenceDaoTest extends BaseUnitTest {
         });
   }
 
+  @Test
+  public void createDataReferencesSkipsDuplicates() {
+    UUID workspaceId = createDefaultWorkspace();
+    DataReferenceRequest existingRequest = defaultReferenceRequest(workspaceId).build();
+    dataReferenceDao.createDataReference(existingRequest, UUID.randomUUID());
+
+    DataReference duplicate = toReference(defaultReferenceRequest(workspaceId).build());
+    DataReference newReference =
+        toReference(defaultReferenceRequest(workspaceId).name("new_name").build());
+    List<Boolean> inserted =
+        dataReferenceDao.createDataReferences(List.of(duplicate, newReference));
+
+    assertThat(inserted, equalTo(List.of(false, true)));
+    assertThat(
+        dataReferenceDao.getDataReference(workspaceId, newReference.referenceId()),
+        equalTo(newReference));
+  }
+
   @Test
   public void verifyGetDataReferenceByName() {
     UUID workspaceId = createDefaultWorkspace();
@@ -170,6 +191,123 @@ public class DataReferenceDaoTest extends BaseUnitTest {
     assertTrue(result.isEmpty());
   }
 
+  @Test
+  public void enumerateReferencesAfterSeeksPastPreviousPage() {
+    UUID workspaceId = createDefaultWorkspace();
+    List<UUID> referenceIds = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      UUID referenceId = UUID.randomUUID();
+      dataReferenceDao.createDataReference(
+          defaultReferenceRequest(workspaceId).name("name_" + i).build(), referenceId);
+      referenceIds.add(referenceId);
+    }
+    // Postgres orders uuids bytewise, which matches the order of their text form. UUID.compareTo
+    // compares signed longs and does not.
+    referenceIds.sort(Comparator.comparing(UUID::toString));
+
+    List<DataReference> firstPage =
+        dataReferenceDao.enumerateDataReferencesAfter(workspaceId, null, 3);
+    List<DataReference> secondPage =
+        dataReferenceDao.enumerateDataReferencesAfter(
+            workspaceId, firstPage.get(firstPage.size() - 1).referenceId(), 3);
+
+    List<UUID> pagedIds = new ArrayList<>();
+    firstPage.forEach(reference -> pagedIds.add(reference.referenceId()));
+    secondPage.forEach(reference -> pagedIds.add(reference.referenceId()));
+    assertThat(firstPage.size(), equalTo(3));
+    assertThat(secondPage.size(), equalTo(2));
+    assertThat(pagedIds, equalTo(referenceIds));
+  }
+
+  @Test
+  public void pageThroughAllWorkspaceReferences() {
+    UUID workspaceId = createDefaultWorkspace();
+    UUID otherWorkspaceId = createDefaultWorkspace();
+    for (int i = 0; i < 3; i++) {
+      dataReferenceDao.createDataReference(
+          defaultReferenceRequest(workspaceId).name("name_" + i).build(), UUID.randomUUID());
+    }
+    dataReferenceDao.createDataReference(
+        defaultReferenceRequest(otherWorkspaceId).build(), UUID.randomUUID());
+
+    List<DataReference> paged = new ArrayList<>();
+    List<DataReference> page = dataReferenceDao.enumerateDataReferencesAfter(workspaceId, null, 2);
+    while (!page.isEmpty()) {
+      paged.addAll(page);
+      page =
+          dataReferenceDao.enumerateDataReferencesAfter(
+              workspaceId, page.get(page.size() - 1).referenceId(), 2);
+    }
+
+    DataReference[] expected =
+        dataReferenceDao.enumerateDataReferences(workspaceId, 0, 10).toArray(new DataReference[0]);
+    assertThat(paged, containsInAnyOrder(expected));
+    assertThat(paged.size(), equalTo(3));
+  }
+
+  @Test
+  public void enumerateSnapshotReferencesAfterMatchesInstanceNames() {
+    UUID workspaceId = createDefaultWorkspace();
+    UUID otherWorkspaceId = createDefaultWorkspace();
+    String snapshotId = UUID.randomUUID().toString();
+    UUID referenceId = UUID.randomUUID();
+    dataReferenceDao.createDataReference(
+        defaultReferenceRequest(workspaceId)
+            .referenceObject(SnapshotReference.create("foo", snapshotId))
+            .build(),
+        referenceId);
+    UUID otherReferenceId = UUID.randomUUID();
+    dataReferenceDao.createDataReference(
+        defaultReferenceRequest(otherWorkspaceId)
+            .referenceObject(SnapshotReference.create(" Foo", snapshotId))
+            .build(),
+        otherReferenceId);
+    dataReferenceDao.createDataReference(
+        defaultReferenceRequest(otherWorkspaceId).name("other_name").build(), UUID.randomUUID());
+
+    assertThat(
+        dataReferenceDao.enumerateSnapshotReferencesAfter("FOO", snapshotId, null, 10),
+        containsInAnyOrder(
+            DataReferenceId.create(workspaceId, referenceId),
+            DataReferenceId.create(otherWorkspaceId, otherReferenceId)));
+    assertTrue(
+        dataReferenceDao.enumerateSnapshotReferencesAfter("other", snapshotId, null, 10).isEmpty());
+  }
+
+  @Test
+  public void enumerateSnapshotReferencesAfterPagesAcrossWorkspaces() {
+    String snapshotId = UUID.randomUUID().toString();
+    List<DataReferenceId> referenceIds = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      UUID workspaceId = createDefaultWorkspace();
+      for (int j = 0; j < 2; j++) {
+        UUID referenceId = UUID.randomUUID();
+        dataReferenceDao.createDataReference(
+            defaultReferenceRequest(workspaceId)
+                .name("name_" + j)
+                .referenceObject(SnapshotReference.create("foo", snapshotId))
+                .build(),
+            referenceId);
+        referenceIds.add(DataReferenceId.create(workspaceId, referenceId));
+      }
+    }
+    // Postgres compares uuids bytewise, which matches the order of their string forms.
+    referenceIds.sort(
+        Comparator.comparing((DataReferenceId id) -> id.workspaceId().toString())
+            .thenComparing(id -> id.referenceId().toString()));
+
+    List<DataReferenceId> firstPage =
+        dataReferenceDao.enumerateSnapshotReferencesAfter("foo", snapshotId, null, 4);
+    List<DataReferenceId> secondPage =
+        dataReferenceDao.enumerateSnapshotReferencesAfter(
+            "foo", snapshotId, firstPage.get(firstPage.size() - 1), 4);
+
+    List<DataReferenceId> pagedIds = new ArrayList<>(firstPage);
+    pagedIds.addAll(secondPage);
+    assertThat(firstPage.size(), equalTo(4));
+    assertThat(pagedIds, equalTo(referenceIds));
+  }
+
   /**
    * Test utility which creates a workspace with a random ID, no spend profile, and stage
    * RAWLS_WORKSPACE. Returns the generated workspace ID.
@@ -200,6 +338,18 @@ public class DataReferenceDaoTest extends BaseUnitTest {
         .referenceObject(snapshot);
   }
 
+  /** Test utility which gives a reference request a new random ID. */
+  private DataReference toReference(DataReferenceRequest request) {
+    return DataReference.builder()
+        .workspaceId(request.workspaceId())
+        .referenceId(UUID.randomUUID())
+        .name(request.name())
+        .referenceType(request.referenceType())
+        .cloningInstructions(request.cloningInstructions())
+        .referenceObject(request.referenceObject())
+        .build();
+  }
+
   // TODO: currently no tests enumerating controlled data resources, as we have no way to create
   // them.
 }
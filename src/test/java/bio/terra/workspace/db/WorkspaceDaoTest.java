@@ -12,12 +12,15 @@ import bio.terra.workspace.service.spendprofile.SpendProfileId;
 import bio.terra.workspace.service.workspace.WorkspaceCloudContext;
 import bio.terra.workspace.service.workspace.model.Workspace;
 import bio.terra.workspace.service.workspace.model.WorkspaceStage;
+import bio.terra.workspace.service.workspace.model.WorkspaceWithCloudContext;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -33,7 +36,8 @@ public class WorkspaceDaoTest extends BaseUnitTest {
   private UUID workspaceId;
   private Optional<SpendProfileId> spendProfileId;
   private String readSql =
-      "SELECT workspace_id, spend_profile, profile_settable FROM workspace WHERE workspace_id = :id";
+      "SELECT workspace_id, workspace_uuid, spend_profile, profile_settable FROM workspace"
+          + " WHERE workspace_id = :id";
 
   @BeforeEach
   public void setup() {
@@ -52,10 +56,11 @@ public class WorkspaceDaoTest extends BaseUnitTest {
     workspaceDao.createWorkspace(workspace);
 
     MapSqlParameterSource params =
-        new MapSqlParameterSource().addValue("id", workspaceId.toString());
+        new MapSqlParameterSource().addValue("id", UuidColumns.bind(workspaceId));
     Map<String, Object> queryOutput = jdbcTemplate.queryForMap(readSql, params);
 
-    assertThat(queryOutput.get("workspace_id"), equalTo(workspaceId.toString()));
+    assertThat(queryOutput.get("workspace_id").toString(), equalTo(workspaceId.toString()));
+    assertThat(queryOutput.get("workspace_uuid"), equalTo(workspaceId));
     assertThat(queryOutput.get("spend_profile"), equalTo(spendProfileId.get().id()));
     assertThat(queryOutput.get("profile_settable"), equalTo(false));
 
@@ -68,10 +73,10 @@ public class WorkspaceDaoTest extends BaseUnitTest {
     workspaceDao.createWorkspace(defaultWorkspace());
 
     MapSqlParameterSource params =
-        new MapSqlParameterSource().addValue("id", workspaceId.toString());
+        new MapSqlParameterSource().addValue("id", UuidColumns.bind(workspaceId));
     Map<String, Object> queryOutput = jdbcTemplate.queryForMap(readSql, params);
 
-    assertThat(queryOutput.get("workspace_id"), equalTo(workspaceId.toString()));
+    assertThat(queryOutput.get("workspace_id").toString(), equalTo(workspaceId.toString()));
     assertThat(queryOutput.get("profile_settable"), equalTo(true));
 
     assertTrue(workspaceDao.deleteWorkspace(workspaceId));
@@ -205,17 +210,71 @@ public class WorkspaceDaoTest extends BaseUnitTest {
     assertEquals(WorkspaceCloudContext.none(), workspaceDao.getCloudContext(workspaceId));
   }
 
+  @Test
+  public void getWorkspaceIdByGoogleProjectId() {
+    workspaceDao.createWorkspace(defaultWorkspace());
+    String projectId = "my-project-" + workspaceId;
+    workspaceDao.updateCloudContext(
+        workspaceId, WorkspaceCloudContext.createGoogleContext(projectId));
+
+    assertEquals(Optional.of(workspaceId), workspaceDao.getWorkspaceIdByGoogleProjectId(projectId));
+    assertEquals(Optional.empty(), workspaceDao.getWorkspaceIdByGoogleProjectId("other-project"));
+  }
+
+  @Test
+  public void getWorkspaceIdsByGoogleProjectIds() {
+    workspaceDao.createWorkspace(defaultWorkspace());
+    String projectId = "my-project-" + workspaceId;
+    workspaceDao.updateCloudContext(
+        workspaceId, WorkspaceCloudContext.createGoogleContext(projectId));
+    UUID otherWorkspaceId = UUID.randomUUID();
+    workspaceDao.createWorkspace(
+        Workspace.builder()
+            .workspaceId(otherWorkspaceId)
+            .spendProfileId(Optional.empty())
+            .workspaceStage(WorkspaceStage.MC_WORKSPACE)
+            .build());
+    String otherProjectId = "my-project-" + otherWorkspaceId;
+    workspaceDao.updateCloudContext(
+        otherWorkspaceId, WorkspaceCloudContext.createGoogleContext(otherProjectId));
+
+    assertEquals(
+        Map.of(projectId, workspaceId, otherProjectId, otherWorkspaceId),
+        workspaceDao.getWorkspaceIdsByGoogleProjectIds(
+            List.of(projectId, otherProjectId, "other-project")));
+    assertTrue(workspaceDao.getWorkspaceIdsByGoogleProjectIds(List.of()).isEmpty());
+  }
+
   /**
    * Hard code serialized values to check that code changes do not break backwards compatibility of
    * stored JSON values. If this test fails, your change may not work with existing databases.
    */
   @Test
-  public void googleCloudContextBackwardsCompatibility() throws Exception {
-    WorkspaceDao.GoogleCloudContextV1 googleDeserialized =
-        WorkspaceDao.GoogleCloudContextV1.deserialize(
-            "{\"version\":1,\"googleProjectId\":\"foo\"}");
-    assertEquals(1, googleDeserialized.version);
-    assertEquals("foo", googleDeserialized.googleProjectId);
+  public void googleCloudContextBackwardsCompatibility() {
+    workspaceDao.createWorkspace(defaultWorkspace());
+    jdbcTemplate.update(
+        "INSERT INTO workspace_cloud_context (workspace_id, cloud_type, context)"
+            + " VALUES (:workspace_id, 'GOOGLE', :context::jsonb)",
+        new MapSqlParameterSource()
+            .addValue("workspace_id", UuidColumns.bind(workspaceId))
+            .addValue("context", "{\"version\":1,\"googleProjectId\":\"foo\"}"));
+
+    assertEquals(
+        WorkspaceCloudContext.createGoogleContext("foo"),
+        workspaceDao.getCloudContext(workspaceId));
+  }
+
+  @Test
+  public void googleCloudContextUnknownVersion() {
+    workspaceDao.createWorkspace(defaultWorkspace());
+    jdbcTemplate.update(
+        "INSERT INTO workspace_cloud_context (workspace_id, cloud_type, context)"
+            + " VALUES (:workspace_id, 'GOOGLE', :context::jsonb)",
+        new MapSqlParameterSource()
+            .addValue("workspace_id", UuidColumns.bind(workspaceId))
+            .addValue("context", "{\"version\":2,\"googleProjectId\":\"foo\"}"));
+
+    assertThrows(DataAccessException.class, () -> workspaceDao.getCloudContext(workspaceId));
   }
 
   @Test
@@ -225,6 +284,71 @@ public class WorkspaceDaoTest extends BaseUnitTest {
     assertEquals(1, WorkspaceDao.CloudType.values().length);
   }
 
+  @Test
+  public void getWorkspaceWithCloudContext() {
+    Workspace workspace = defaultWorkspace();
+    workspaceDao.createWorkspace(workspace);
+    WorkspaceCloudContext googleContext = WorkspaceCloudContext.createGoogleContext("my-project");
+    workspaceDao.updateCloudContext(workspaceId, googleContext);
+
+    WorkspaceWithCloudContext result = workspaceDao.getWorkspaceWithCloudContext(workspaceId);
+
+    assertEquals(workspace, result.workspace());
+    assertEquals(googleContext, result.cloudContext());
+  }
+
+  @Test
+  public void getWorkspaceWithoutCloudContext() {
+    Workspace workspace = defaultWorkspace();
+    workspaceDao.createWorkspace(workspace);
+
+    WorkspaceWithCloudContext result = workspaceDao.getWorkspaceWithCloudContext(workspaceId);
+
+    assertEquals(workspace, result.workspace());
+    assertEquals(WorkspaceCloudContext.none(), result.cloudContext());
+  }
+
+  @Test
+  public void getNonExistingWorkspaceWithCloudContext() {
+    assertThrows(
+        WorkspaceNotFoundException.class,
+        () -> workspaceDao.getWorkspaceWithCloudContext(workspaceId));
+  }
+
+  @Test
+  public void markWorkspaceDeletingKeepsFirstJob() {
+    workspaceDao.createWorkspace(defaultWorkspace());
+
+    assertEquals("first-job", workspaceDao.markWorkspaceDeleting(workspaceId, "first-job"));
+    assertEquals("first-job", workspaceDao.markWorkspaceDeleting(workspaceId, "second-job"));
+  }
+
+  @Test
+  public void isWorkspaceDeletingOnceMarked() {
+    workspaceDao.createWorkspace(defaultWorkspace());
+
+    assertFalse(workspaceDao.isWorkspaceDeleting(workspaceId));
+    workspaceDao.markWorkspaceDeleting(workspaceId, "job");
+    assertTrue(workspaceDao.isWorkspaceDeleting(workspaceId));
+  }
+
+  @Test
+  public void replaceDeleteJobOnlyReplacesExpectedJob() {
+    workspaceDao.createWorkspace(defaultWorkspace());
+    workspaceDao.markWorkspaceDeleting(workspaceId, "first-job");
+
+    assertFalse(workspaceDao.replaceDeleteJob(workspaceId, "other-job", "second-job"));
+    assertTrue(workspaceDao.replaceDeleteJob(workspaceId, "first-job", "second-job"));
+    assertEquals("second-job", workspaceDao.markWorkspaceDeleting(workspaceId, "third-job"));
+  }
+
+  @Test
+  public void markNonExistingWorkspaceDeleting() {
+    assertThrows(
+        WorkspaceNotFoundException.class,
+        () -> workspaceDao.markWorkspaceDeleting(workspaceId, "job"));
+  }
+
   private Workspace defaultWorkspace() {
     return Workspace.builder()
         .workspaceId(workspaceId)
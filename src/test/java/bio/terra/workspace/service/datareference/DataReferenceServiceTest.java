@@ -4,26 +4,35 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 
 import bio.terra.workspace.common.BaseUnitTest;
 import bio.terra.workspace.common.exception.DataReferenceNotFoundException;
+import bio.terra.workspace.common.exception.DuplicateDataReferenceException;
 import bio.terra.workspace.common.exception.SamUnauthorizedException;
+import bio.terra.workspace.service.datareference.exception.InvalidDataReferenceException;
 import bio.terra.workspace.service.datareference.model.CloningInstructions;
 import bio.terra.workspace.service.datareference.model.DataReference;
+import bio.terra.workspace.service.datareference.model.DataReferenceCreateResult;
+import bio.terra.workspace.service.datareference.model.DataReferenceId;
 import bio.terra.workspace.service.datareference.model.DataReferenceRequest;
 import bio.terra.workspace.service.datareference.model.DataReferenceType;
 import bio.terra.workspace.service.datareference.model.SnapshotReference;
+import bio.terra.workspace.service.datareference.model.SnapshotReferencePage;
 import bio.terra.workspace.service.datarepo.DataRepoService;
 import bio.terra.workspace.service.iam.AuthenticatedUserRequest;
 import bio.terra.workspace.service.iam.SamService;
 import bio.terra.workspace.service.workspace.WorkspaceService;
 import bio.terra.workspace.service.workspace.model.WorkspaceRequest;
 import bio.terra.workspace.service.workspace.model.WorkspaceStage;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -118,6 +127,72 @@ public class DataReferenceServiceTest extends BaseUnitTest {
     assertThat(result, containsInAnyOrder(equalTo(firstReference), equalTo(secondReference)));
   }
 
+  @Test
+  public void createDataReferencesReportsEachResult() {
+    doReturn(false).when(mockDataRepoService).snapshotExists(any(), eq("missing"), any());
+    UUID workspaceId = createDefaultWorkspace();
+    DataReferenceRequest validRequest = defaultReferenceRequest(workspaceId).build();
+    DataReferenceRequest missingSnapshotRequest =
+        defaultReferenceRequest(workspaceId)
+            .name("missing_snapshot")
+            .referenceObject(SnapshotReference.create("foo", "missing"))
+            .build();
+    // Repeats the name of the first request.
+    DataReferenceRequest duplicateRequest = defaultReferenceRequest(workspaceId).build();
+
+    List<DataReferenceCreateResult> results =
+        dataReferenceService.createDataReferences(
+            workspaceId,
+            List.of(validRequest, missingSnapshotRequest, duplicateRequest),
+            USER_REQUEST);
+
+    assertThat(results.size(), equalTo(3));
+    assertThat(results.get(0).reference().get().name(), equalTo(validRequest.name()));
+    assertTrue(results.get(1).error().get() instanceof InvalidDataReferenceException);
+    assertTrue(results.get(2).error().get() instanceof DuplicateDataReferenceException);
+    assertThat(
+        dataReferenceService.enumerateDataReferences(workspaceId, 0, 10, USER_REQUEST),
+        containsInAnyOrder(equalTo(results.get(0).reference().get())));
+  }
+
+  @Test
+  public void enumerateSnapshotReferencesSkipsUnreadableWorkspaces() {
+    UUID readableWorkspaceId = createDefaultWorkspace();
+    UUID unreadableWorkspaceId = createDefaultWorkspace();
+    doReturn(Set.of(readableWorkspaceId.toString()))
+        .when(mockSamService)
+        .getAuthorizedResourceIds(any(), any(), any(), any());
+    String snapshotId = UUID.randomUUID().toString();
+    List<DataReferenceId> readableReferences = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      DataReference reference =
+          dataReferenceService.createDataReference(
+              defaultReferenceRequest(readableWorkspaceId)
+                  .name("name_" + i)
+                  .referenceObject(SnapshotReference.create("foo", snapshotId))
+                  .build(),
+              USER_REQUEST);
+      readableReferences.add(DataReferenceId.create(readableWorkspaceId, reference.referenceId()));
+    }
+    dataReferenceService.createDataReference(
+        defaultReferenceRequest(unreadableWorkspaceId)
+            .referenceObject(SnapshotReference.create("foo", snapshotId))
+            .build(),
+        USER_REQUEST);
+
+    List<DataReferenceId> listed = new ArrayList<>();
+    String pageToken = null;
+    do {
+      SnapshotReferencePage page =
+          dataReferenceService.enumerateSnapshotReferencePage(
+              "foo", snapshotId, pageToken, 1, USER_REQUEST);
+      listed.addAll(page.references());
+      pageToken = page.nextPageToken().orElse(null);
+    } while (pageToken != null);
+
+    assertThat(listed, containsInAnyOrder(readableReferences.toArray()));
+  }
+
   @Test
   public void enumerateFailsUnauthorized() {
     String samMessage = "Fake Sam unauthorized message";
@@ -0,0 +1,89 @@
+package bio.terra.workspace.service.datarepo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.workspace.app.configuration.external.DataRepoConfiguration;
+import bio.terra.workspace.common.BaseUnitTest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+public class SnapshotExistenceCacheTest extends BaseUnitTest {
+
+  private static SnapshotExistenceCache newCache() {
+    DataRepoConfiguration config = new DataRepoConfiguration();
+    config.setSnapshotCacheEnabled(true);
+    config.setSnapshotCacheTtlSeconds(60);
+    config.setSnapshotCacheMaximumSize(100);
+    return new SnapshotExistenceCache(config);
+  }
+
+  @Test
+  public void existingSnapshotIsCachedPerToken() {
+    SnapshotExistenceCache cache = newCache();
+    AtomicInteger dataRepoCalls = new AtomicInteger();
+    BooleanSupplier dataRepoCheck = () -> dataRepoCalls.incrementAndGet() > 0;
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(cache.snapshotExists("token", "url", "snapshot", dataRepoCheck));
+    }
+    cache.snapshotExists("otherToken", "url", "snapshot", dataRepoCheck);
+
+    assertEquals(2, dataRepoCalls.get());
+    assertEquals(2, cache.stats().hitCount());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void missingSnapshotIsNotCached() {
+    SnapshotExistenceCache cache = newCache();
+
+    assertFalse(cache.snapshotExists("token", "url", "snapshot", () -> false));
+    assertTrue(cache.snapshotExists("token", "url", "snapshot", () -> true));
+    assertEquals(2, cache.stats().missCount());
+  }
+
+  @Test
+  public void concurrentChecksShareOneCall() throws Exception {
+    SnapshotExistenceCache cache = newCache();
+    AtomicInteger dataRepoCalls = new AtomicInteger();
+    CountDownLatch callStarted = new CountDownLatch(1);
+    CountDownLatch releaseCall = new CountDownLatch(1);
+
+    CompletableFuture<Boolean> first =
+        CompletableFuture.supplyAsync(
+            () ->
+                cache.snapshotExists(
+                    "token",
+                    "url",
+                    "snapshot",
+                    () -> {
+                      dataRepoCalls.incrementAndGet();
+                      callStarted.countDown();
+                      try {
+                        return releaseCall.await(10, TimeUnit.SECONDS);
+                      } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                      }
+                    }));
+    assertTrue(callStarted.await(10, TimeUnit.SECONDS));
+    CompletableFuture<Boolean> second =
+        CompletableFuture.supplyAsync(
+            () ->
+                cache.snapshotExists(
+                    "token", "url", "snapshot", () -> dataRepoCalls.incrementAndGet() > 0));
+    while (cache.getCoalescedCount() == 0) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    releaseCall.countDown();
+
+    assertTrue(first.get(10, TimeUnit.SECONDS));
+    assertTrue(second.get(10, TimeUnit.SECONDS));
+    assertEquals(1, dataRepoCalls.get());
+  }
+}
@@ -0,0 +1,80 @@
+package bio.terra.workspace.service.iam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.workspace.app.configuration.external.SamConfiguration;
+import bio.terra.workspace.common.BaseUnitTest;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class SamAuthorizationCacheTest extends BaseUnitTest {
+
+  private static SamConfiguration cacheConfig(boolean enabled) {
+    SamConfiguration config = new SamConfiguration();
+    config.setAuthzCacheEnabled(enabled);
+    config.setAuthzCacheAllowTtlSeconds(60);
+    config.setAuthzCacheDenyTtlSeconds(60);
+    config.setAuthzCacheMaximumSize(100);
+    return config;
+  }
+
+  @Test
+  public void repeatedCheckIsServedFromCache() {
+    SamAuthorizationCache cache = new SamAuthorizationCache(cacheConfig(true));
+    AtomicInteger samCalls = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(
+          cache.isAuthorized(
+              "token",
+              "workspace",
+              "id",
+              "read",
+              () -> {
+                samCalls.incrementAndGet();
+                return true;
+              }));
+    }
+
+    assertEquals(1, samCalls.get());
+    assertEquals(1, cache.stats().missCount());
+    assertEquals(2, cache.stats().hitCount());
+  }
+
+  @Test
+  public void denialsAreCachedSeparatelyPerToken() {
+    SamAuthorizationCache cache = new SamAuthorizationCache(cacheConfig(true));
+
+    assertFalse(cache.isAuthorized("token1", "workspace", "id", "read", () -> false));
+    assertTrue(cache.isAuthorized("token2", "workspace", "id", "read", () -> true));
+    // Served from cache; the supplier result is ignored.
+    assertFalse(cache.isAuthorized("token1", "workspace", "id", "read", () -> true));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void invalidateResourceDropsDecisions() {
+    SamAuthorizationCache cache = new SamAuthorizationCache(cacheConfig(true));
+    cache.isAuthorized("token", "workspace", "id", "read", () -> false);
+    cache.isAuthorized("token", "workspace", "other", "read", () -> false);
+
+    cache.invalidateResource("workspace", "id");
+
+    assertTrue(cache.isAuthorized("token", "workspace", "id", "read", () -> true));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void disabledCacheAlwaysCallsSam() {
+    SamAuthorizationCache cache = new SamAuthorizationCache(cacheConfig(false));
+    AtomicInteger samCalls = new AtomicInteger();
+
+    cache.isAuthorized("token", "workspace", "id", "read", () -> samCalls.incrementAndGet() > 0);
+    cache.isAuthorized("token", "workspace", "id", "read", () -> samCalls.incrementAndGet() > 0);
+
+    assertEquals(2, samCalls.get());
+    assertEquals(0, cache.size());
+  }
+}
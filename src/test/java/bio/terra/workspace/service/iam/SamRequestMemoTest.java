@@ -0,0 +1,59 @@
+package bio.terra.workspace.service.iam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import bio.terra.workspace.common.BaseUnitTest;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class SamRequestMemoTest extends BaseUnitTest {
+
+  private final SamRequestMemo memo = new SamRequestMemo();
+
+  @AfterEach
+  public void clearRequest() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void repeatedCheckInOneRequestCallsOnce() {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+    AtomicInteger calls = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      memo.isAuthorized("token", "workspace", "id", "read", () -> calls.incrementAndGet() < 0);
+    }
+
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void decisionsDoNotCrossRequests() {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+    assertFalse(memo.isAuthorized("token", "workspace", "id", "read", () -> false));
+
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+    AtomicInteger calls = new AtomicInteger();
+    memo.isAuthorized("token", "workspace", "id", "read", () -> calls.incrementAndGet() > 0);
+
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void checksOutsideRequestAreNotMemoized() {
+    AtomicInteger calls = new AtomicInteger();
+
+    memo.isAuthorized("token", "workspace", "id", "read", () -> calls.incrementAndGet() > 0);
+    memo.isAuthorized("token", "workspace", "id", "read", () -> calls.incrementAndGet() > 0);
+
+    assertEquals(2, calls.get());
+  }
+}
@@ -3,19 +3,28 @@ package bio.terra.workspace.service.job;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 
+import bio.terra.stairway.FlightStatus;
 import bio.terra.stairway.exception.StairwayException;
+import bio.terra.workspace.app.configuration.external.JobConfiguration;
 import bio.terra.workspace.common.BaseUnitTest;
 import bio.terra.workspace.generated.model.JobModel;
 import bio.terra.workspace.service.iam.AuthenticatedUserRequest;
 import bio.terra.workspace.service.iam.SamService;
 import bio.terra.workspace.service.job.exception.JobNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -31,6 +40,9 @@ public class JobServiceTest extends BaseUnitTest {
           .token(Optional.of("not-a-real-token"));
 
   @Autowired private JobService jobService;
+  @Autowired private JobConfiguration jobConfiguration;
+  @Autowired private FlightCompletionRegistry completionRegistry;
+  @Autowired private MeterRegistry meterRegistry;
 
   @MockBean private SamService mockSamService;
 
@@ -120,6 +132,88 @@ public class JobServiceTest extends BaseUnitTest {
         });
   }
 
+  @Test
+  public void submitAndWaitDoesNotWaitForPollingInterval() {
+    String jobId = UUID.randomUUID().toString();
+    Instant start = Instant.now();
+    try {
+      String result =
+          jobService
+              .newJob(makeDescription(0), jobId, JobServiceTestFlight.class, null, testUser)
+              .submitAndWait(String.class, false);
+      Duration elapsed = Duration.between(start, Instant.now());
+
+      assertThat(result, equalTo(makeDescription(0)));
+      assertTrue(
+          elapsed.compareTo(Duration.ofSeconds(jobConfiguration.getPollingIntervalSeconds())) < 0);
+      assertThat(completionRegistry.size(), equalTo(0));
+    } finally {
+      jobService.releaseJob(jobId, testUser);
+    }
+  }
+
+  @Test
+  public void completionRegistryTracksFlightUntilLastWaiterLeaves() {
+    String flightId = UUID.randomUUID().toString();
+
+    CompletableFuture<FlightStatus> completion = completionRegistry.register(flightId);
+    assertThat(completionRegistry.register(flightId), equalTo(completion));
+    completionRegistry.unregister(flightId);
+    assertThat(completionRegistry.size(), equalTo(1));
+    completionRegistry.unregister(flightId);
+    assertThat(completionRegistry.size(), equalTo(0));
+  }
+
+  @Test
+  public void flightAndStepDurationsAreRecorded() throws Exception {
+    String jobId = UUID.randomUUID().toString();
+    try {
+      jobService
+          .newJob(makeDescription(0), jobId, JobServiceTestFlight.class, null, testUser)
+          .submitAndWait(String.class, false);
+
+      assertNotNull(
+          meterRegistry
+              .find(FlightInstrumentationHook.FLIGHT_METRIC_NAME)
+              .tags("flight", "JobServiceTestFlight", "status", "SUCCESS")
+              .timer());
+      assertNotNull(
+          meterRegistry
+              .find(FlightInstrumentationHook.STEP_METRIC_NAME)
+              .tags("flight", "JobServiceTestFlight", "step", "JobServiceTestStep")
+              .timer());
+    } finally {
+      jobService.releaseJob(jobId, testUser);
+    }
+  }
+
+  @Test
+  public void stepRetriesAreCounted() throws Exception {
+    String jobId = UUID.randomUUID().toString();
+    try {
+      String result =
+          jobService
+              .newJob(makeDescription(0), jobId, JobServiceTestRetryFlight.class, null, testUser)
+              .submitAndWait(String.class, false);
+
+      assertThat(result, equalTo("retried"));
+      assertThat(
+          meterRegistry
+              .get(FlightInstrumentationHook.RETRY_METRIC_NAME)
+              .tags("flight", "JobServiceTestRetryFlight", "step", "JobServiceTestRetryStep")
+              .counter()
+              .count(),
+          equalTo(1.0));
+      assertNull(
+          meterRegistry
+              .find(FlightInstrumentationHook.UNDO_METRIC_NAME)
+              .tags("flight", "JobServiceTestRetryFlight")
+              .counter());
+    } finally {
+      jobService.releaseJob(jobId, testUser);
+    }
+  }
+
   @Test
   public void testBadIdRetrieveResult() {
     assertThrows(
@@ -0,0 +1,14 @@
+package bio.terra.workspace.service.job;
+
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.RetryRuleFixedInterval;
+
+public class JobServiceTestRetryFlight extends Flight {
+
+  public JobServiceTestRetryFlight(FlightMap inputParameters, Object applicationContext) {
+    super(inputParameters, applicationContext);
+
+    addStep(new JobServiceTestRetryStep(), new RetryRuleFixedInterval(0, 2));
+  }
+}
@@ -0,0 +1,28 @@
+package bio.terra.workspace.service.job;
+
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import bio.terra.stairway.StepStatus;
+import org.springframework.http.HttpStatus;
+
+/** A step that asks to be retried the first time it runs, and succeeds after that. */
+public class JobServiceTestRetryStep implements Step {
+  private static final String ATTEMPTED_KEY = "retryStepAttempted";
+
+  @Override
+  public StepResult doStep(FlightContext context) {
+    if (context.getWorkingMap().get(ATTEMPTED_KEY, Boolean.class) == null) {
+      context.getWorkingMap().put(ATTEMPTED_KEY, true);
+      return new StepResult(StepStatus.STEP_RESULT_FAILURE_RETRY);
+    }
+    context.getWorkingMap().put(JobMapKeys.RESPONSE.getKeyName(), "retried");
+    context.getWorkingMap().put(JobMapKeys.STATUS_CODE.getKeyName(), HttpStatus.I_AM_A_TEAPOT);
+    return StepResult.getStepResultSuccess();
+  }
+
+  @Override
+  public StepResult undoStep(FlightContext context) {
+    return StepResult.getStepResultSuccess();
+  }
+}
@@ -0,0 +1,148 @@
+package bio.terra.workspace.service.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import bio.terra.workspace.common.BaseUnitTest;
+import bio.terra.workspace.db.LocalFlightJournalDao;
+import bio.terra.workspace.service.job.exception.InternalStairwayException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class LocalFlightExecutorTest extends BaseUnitTest {
+  private static final String FAIL_AT_STEP_KEY = "failAtStep";
+
+  @Autowired private LocalFlightExecutor localFlightExecutor;
+  @Autowired private LocalFlightJournalDao journalDao;
+  @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+
+  /** Records the do and undo calls made on the test steps, in order. */
+  private static final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+  /** Records the working map's last step seen by each undo call, in order. */
+  private static final List<Integer> undoneLastSteps =
+      Collections.synchronizedList(new ArrayList<>());
+
+  @BeforeEach
+  public void setup() {
+    calls.clear();
+    undoneLastSteps.clear();
+    localFlightExecutor.registerFlight(TestFlight.class, TestFlight::buildSteps);
+  }
+
+  @Test
+  public void successfulFlightReturnsWorkingMap() {
+    String flightId = UUID.randomUUID().toString();
+
+    FlightMap result = localFlightExecutor.run(flightId, TestFlight.class, inputs(-1));
+
+    assertEquals(List.of("do0", "do1", "do2"), calls);
+    assertEquals(Integer.valueOf(2), result.get("lastStep", Integer.class));
+    assertEquals(0, journalRowCount(flightId));
+  }
+
+  @Test
+  public void failedFlightUndoesInReverse() {
+    String flightId = UUID.randomUUID().toString();
+
+    assertThrows(
+        InternalStairwayException.class,
+        () -> localFlightExecutor.run(flightId, TestFlight.class, inputs(1)));
+
+    assertEquals(List.of("do0", "do1", "undo1", "undo0"), calls);
+    assertEquals(0, journalRowCount(flightId));
+  }
+
+  @Test
+  public void abandonedFlightIsUndoneOnRecovery() {
+    String flightId = startAbandonedFlight();
+
+    localFlightExecutor.recoverAbandonedFlights();
+
+    assertEquals(List.of("undo1", "undo0"), calls);
+    // The undo steps see the working map journaled when step 1 started.
+    assertEquals(List.of(0, 0), undoneLastSteps);
+    assertEquals(0, journalRowCount(flightId));
+  }
+
+  /** Journals a flight that stopped at step 1 a day ago, and returns its ID. */
+  private String startAbandonedFlight() {
+    String flightId = UUID.randomUUID().toString();
+    journalDao.startFlight(flightId, TestFlight.class.getName(), inputs(-1).toJson());
+    FlightMap workingMap = new FlightMap();
+    workingMap.put("lastStep", 0);
+    journalDao.updateCurrentStep(flightId, 1, workingMap.toJson());
+    jdbcTemplate.update(
+        "UPDATE local_flight_journal SET updated_date = now() - interval '1 day'"
+            + " WHERE flight_id = :flight_id",
+        new MapSqlParameterSource().addValue("flight_id", flightId));
+    return flightId;
+  }
+
+  private static FlightMap inputs(int failAtStep) {
+    FlightMap inputs = new FlightMap();
+    inputs.put(FAIL_AT_STEP_KEY, failAtStep);
+    return inputs;
+  }
+
+  private int journalRowCount(String flightId) {
+    return jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM local_flight_journal WHERE flight_id = :flight_id",
+        new MapSqlParameterSource().addValue("flight_id", flightId),
+        Integer.class);
+  }
+
+  public static class TestFlight extends Flight {
+    public TestFlight(FlightMap inputParameters, Object applicationContext) {
+      super(inputParameters, applicationContext);
+      buildSteps(inputParameters, null).forEach(this::addStep);
+    }
+
+    static List<Step> buildSteps(FlightMap inputParameters, Object applicationContext) {
+      int failAtStep = inputParameters.get(FAIL_AT_STEP_KEY, Integer.class);
+      List<Step> steps = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        steps.add(new TestStep(i, i == failAtStep));
+      }
+      return steps;
+    }
+  }
+
+  private static class TestStep implements Step {
+    private final int index;
+    private final boolean fail;
+
+    TestStep(int index, boolean fail) {
+      this.index = index;
+      this.fail = fail;
+    }
+
+    @Override
+    public StepResult doStep(FlightContext context) {
+      calls.add("do" + index);
+      if (fail) {
+        throw new InternalStairwayException("step " + index + " failed");
+      }
+      context.getWorkingMap().put("lastStep", index);
+      return StepResult.getStepResultSuccess();
+    }
+
+    @Override
+    public StepResult undoStep(FlightContext context) {
+      calls.add("undo" + index);
+      undoneLastSteps.add(context.getWorkingMap().get("lastStep", Integer.class));
+      return StepResult.getStepResultSuccess();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package bio.terra.workspace.service.migrate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.workspace.app.configuration.external.WorkspaceDatabaseConfiguration;
+import bio.terra.workspace.common.BaseUnitTest;
+import bio.terra.workspace.service.migrate.exception.MigrateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class MigrateServiceTest extends BaseUnitTest {
+  private static final String CHANGELOG = "db/changelog.xml";
+  /** Matches the advisory lock key in MigrateService. */
+  private static final long MIGRATION_LOCK_KEY = 0x574d4d4947524154L;
+
+  private static final MigrateOptions LEADER_OPTIONS =
+      MigrateOptions.builder()
+          .skipIfCurrent(true)
+          .electLeader(true)
+          .leaderWait(Duration.ofSeconds(1))
+          .build();
+
+  @Autowired private MigrateService migrateService;
+  @Autowired private WorkspaceDatabaseConfiguration workspaceDatabaseConfiguration;
+  @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Test
+  public void currentSchemaSkipsLiquibase() {
+    DataSource dataSource = workspaceDatabaseConfiguration.getDataSource();
+    migrateService.upgrade(CHANGELOG, dataSource, LEADER_OPTIONS);
+
+    assertFalse(migrateService.upgrade(CHANGELOG, dataSource, LEADER_OPTIONS));
+  }
+
+  @Test
+  public void waitingForAnotherInstanceTimesOut() throws Exception {
+    DataSource dataSource = workspaceDatabaseConfiguration.getDataSource();
+    migrateService.upgrade(CHANGELOG, dataSource, LEADER_OPTIONS);
+    // Pretend another instance holds the lock and has not finished migrating.
+    jdbcTemplate.update(
+        "DELETE FROM schema_fingerprint WHERE changelog = :changelog",
+        new MapSqlParameterSource().addValue("changelog", CHANGELOG));
+    try (Connection otherInstance = dataSource.getConnection()) {
+      try (PreparedStatement statement =
+          otherInstance.prepareStatement("SELECT pg_advisory_lock(?)")) {
+        statement.setLong(1, MIGRATION_LOCK_KEY);
+        statement.executeQuery().close();
+      }
+      assertThrows(
+          MigrateException.class,
+          () -> migrateService.upgrade(CHANGELOG, dataSource, LEADER_OPTIONS));
+      try (PreparedStatement statement =
+          otherInstance.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+        statement.setLong(1, MIGRATION_LOCK_KEY);
+        statement.executeQuery().close();
+      }
+    }
+
+    // Once the other instance is gone, this instance migrates and records the fingerprint again.
+    migrateService.upgrade(CHANGELOG, dataSource, LEADER_OPTIONS);
+    assertFalse(migrateService.upgrade(CHANGELOG, dataSource, LEADER_OPTIONS));
+  }
+}
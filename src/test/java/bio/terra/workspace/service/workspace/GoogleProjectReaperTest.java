@@ -0,0 +1,75 @@
+package bio.terra.workspace.service.workspace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.workspace.app.configuration.external.WorkspaceDeletionConfiguration;
+import bio.terra.workspace.common.BaseUnitTest;
+import bio.terra.workspace.db.GoogleProjectTeardownDao;
+import bio.terra.workspace.service.workspace.pool.FakeGoogleProjectClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class GoogleProjectReaperTest extends BaseUnitTest {
+  @Autowired private GoogleProjectTeardownDao teardownDao;
+  @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+
+  private FakeGoogleProjectClient projectClient;
+  private GoogleProjectReaper reaper;
+
+  @BeforeEach
+  public void setup() {
+    jdbcTemplate.update("DELETE FROM google_project_teardown", new MapSqlParameterSource());
+    WorkspaceDeletionConfiguration deletionConfiguration = new WorkspaceDeletionConfiguration();
+    deletionConfiguration.setReaperBatchSize(2);
+    deletionConfiguration.setReaperConcurrency(2);
+    projectClient = new FakeGoogleProjectClient();
+    reaper = new GoogleProjectReaper(deletionConfiguration, teardownDao, projectClient);
+  }
+
+  @Test
+  public void reapDeletesQueuedProjectsInBatches() {
+    List<String> projectIds = List.of("project-1", "project-2", "project-3");
+    for (String projectId : projectIds) {
+      projectClient.createProject(projectId, "folder");
+      teardownDao.queueProject(projectId, UUID.randomUUID());
+    }
+
+    assertEquals(2, reaper.reap());
+    assertEquals(1, reaper.reap());
+    assertEquals(0, reaper.reap());
+    for (String projectId : projectIds) {
+      assertTrue(projectClient.isDeleted(projectId));
+    }
+  }
+
+  @Test
+  public void queueingTwiceDeletesOnce() {
+    UUID workspaceId = UUID.randomUUID();
+    projectClient.createProject("project", "folder");
+    teardownDao.queueProject("project", workspaceId);
+    teardownDao.queueProject("project", workspaceId);
+
+    assertEquals(1, reaper.reap());
+    assertEquals(0, reaper.reap());
+  }
+
+  @Test
+  public void claimedProjectIsNotUnqueued() {
+    teardownDao.queueProject("claimed", UUID.randomUUID());
+    teardownDao.queueProject("unclaimed", UUID.randomUUID());
+    teardownDao.claimProjects(1, Duration.ofHours(1));
+
+    // Undoing a deletion can only take back a project the reaper has not started on.
+    assertFalse(teardownDao.removeUnclaimedProject("claimed"));
+    assertTrue(teardownDao.removeUnclaimedProject("unclaimed"));
+    assertFalse(teardownDao.removeUnclaimedProject("unclaimed"));
+  }
+}
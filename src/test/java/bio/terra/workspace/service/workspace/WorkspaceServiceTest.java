@@ -8,6 +8,7 @@ import bio.terra.cloudres.google.cloudresourcemanager.CloudResourceManagerCow;
 import bio.terra.workspace.common.BaseConnectedTest;
 import bio.terra.workspace.common.exception.*;
 import bio.terra.workspace.common.utils.SamUtils;
+import bio.terra.workspace.db.WorkspaceDao;
 import bio.terra.workspace.service.datareference.DataReferenceService;
 import bio.terra.workspace.service.datareference.model.CloningInstructions;
 import bio.terra.workspace.service.datareference.model.DataReferenceRequest;
@@ -27,7 +28,11 @@ import bio.terra.workspace.service.workspace.model.Workspace;
 import bio.terra.workspace.service.workspace.model.WorkspaceRequest;
 import bio.terra.workspace.service.workspace.model.WorkspaceStage;
 import com.google.api.services.cloudresourcemanager.model.Project;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,6 +47,8 @@ public class WorkspaceServiceTest extends BaseConnectedTest {
   @Autowired private JobService jobService;
   @Autowired private CloudResourceManagerCow resourceManager;
   @Autowired private SpendConnectedTestUtils spendUtils;
+  @Autowired private GoogleProjectReaper googleProjectReaper;
+  @Autowired private WorkspaceDao workspaceDao;
 
   @MockBean private DataRepoService dataRepoService;
 
@@ -243,6 +250,136 @@ public class WorkspaceServiceTest extends BaseConnectedTest {
     assertEquals("DELETE_REQUESTED", project.getLifecycleState());
   }
 
+  @Test
+  public void asyncDeleteWorkspaceWithGoogleContext() throws Exception {
+    WorkspaceRequest request =
+        defaultRequestBuilder(UUID.randomUUID())
+            .spendProfileId(Optional.of(spendUtils.defaultSpendId()))
+            .workspaceStage(WorkspaceStage.MC_WORKSPACE)
+            .build();
+    workspaceService.createWorkspace(request, USER_REQUEST);
+    String contextJobId = workspaceService.createGoogleContext(request.workspaceId(), USER_REQUEST);
+    jobService.waitForJob(contextJobId);
+    String projectId =
+        workspaceService
+            .getCloudContext(request.workspaceId(), USER_REQUEST)
+            .googleProjectId()
+            .get();
+
+    String deleteJobId = workspaceService.deleteWorkspaceAsync(request.workspaceId(), USER_REQUEST);
+    jobService.waitForJob(deleteJobId);
+    assertThrows(
+        WorkspaceNotFoundException.class,
+        () -> workspaceService.getWorkspace(request.workspaceId(), USER_REQUEST));
+    // The deletion job leaves the project to the reaper.
+    assertEquals("ACTIVE", resourceManager.projects().get(projectId).execute().getLifecycleState());
+
+    googleProjectReaper.reap();
+    assertEquals(
+        "DELETE_REQUESTED",
+        resourceManager.projects().get(projectId).execute().getLifecycleState());
+  }
+
+  @Test
+  public void asyncDeleteAfterFailedDeleteStartsNewJob() throws Exception {
+    WorkspaceRequest request = defaultRequestBuilder(UUID.randomUUID()).build();
+    workspaceService.createWorkspace(request, USER_REQUEST);
+    doThrow(new SamApiException("fake SAM error message"))
+        .when(mockSamService)
+        .deleteWorkspace(any(), any());
+
+    String failedJobId = workspaceService.deleteWorkspaceAsync(request.workspaceId(), USER_REQUEST);
+    jobService.waitForJob(failedJobId);
+    // The flight failed, so the workspace still exists.
+    assertEquals(
+        request.workspaceId(),
+        workspaceService.getWorkspace(request.workspaceId(), USER_REQUEST).workspaceId());
+
+    doNothing().when(mockSamService).deleteWorkspace(any(), any());
+    String deleteJobId = workspaceService.deleteWorkspaceAsync(request.workspaceId(), USER_REQUEST);
+    assertNotEquals(failedJobId, deleteJobId);
+    jobService.waitForJob(deleteJobId);
+    assertThrows(
+        WorkspaceNotFoundException.class,
+        () -> workspaceService.getWorkspace(request.workspaceId(), USER_REQUEST));
+  }
+
+  @Test
+  public void createGoogleContextInDeletingWorkspace() {
+    WorkspaceRequest request = defaultRequestBuilder(UUID.randomUUID()).build();
+    workspaceService.createWorkspace(request, USER_REQUEST);
+    workspaceDao.markWorkspaceDeleting(request.workspaceId(), "delete-job");
+
+    assertThrows(
+        WorkspaceDeletingException.class,
+        () -> workspaceService.createGoogleContext(request.workspaceId(), USER_REQUEST));
+  }
+
+  @Test
+  public void getWorkspaceIdsByGoogleProjectIdsFiltersUnreadableWorkspaces() {
+    WorkspaceRequest readableRequest = defaultRequestBuilder(UUID.randomUUID()).build();
+    workspaceService.createWorkspace(readableRequest, USER_REQUEST);
+    String readableProjectId = "readable-project-" + readableRequest.workspaceId();
+    workspaceDao.updateCloudContext(
+        readableRequest.workspaceId(),
+        WorkspaceCloudContext.createGoogleContext(readableProjectId));
+    WorkspaceRequest unreadableRequest = defaultRequestBuilder(UUID.randomUUID()).build();
+    workspaceService.createWorkspace(unreadableRequest, USER_REQUEST);
+    String unreadableProjectId = "unreadable-project-" + unreadableRequest.workspaceId();
+    workspaceDao.updateCloudContext(
+        unreadableRequest.workspaceId(),
+        WorkspaceCloudContext.createGoogleContext(unreadableProjectId));
+    // Only the first workspace is readable.
+    Mockito.when(
+            mockSamService.getAuthorizedResourceIds(
+                Mockito.any(),
+                Mockito.eq(SamUtils.SAM_WORKSPACE_RESOURCE),
+                Mockito.eq(
+                    Set.of(
+                        readableRequest.workspaceId().toString(),
+                        unreadableRequest.workspaceId().toString())),
+                Mockito.eq(SamUtils.SAM_WORKSPACE_READ_ACTION)))
+        .thenReturn(Set.of(readableRequest.workspaceId().toString()));
+
+    assertEquals(
+        Map.of(readableProjectId, readableRequest.workspaceId()),
+        workspaceService.getWorkspaceIdsByGoogleProjectIds(
+            List.of(readableProjectId, unreadableProjectId, "unknown-project"), USER_REQUEST));
+  }
+
+  @Test
+  public void getWorkspaceIdsByGoogleProjectIdsRejectsOversizedBatch() {
+    List<String> projectIds =
+        Collections.nCopies(WorkspaceService.MAX_GOOGLE_PROJECT_BATCH_SIZE + 1, "some-project");
+
+    assertThrows(
+        ValidationException.class,
+        () -> workspaceService.getWorkspaceIdsByGoogleProjectIds(projectIds, USER_REQUEST));
+    verify(mockSamService, never()).getAuthorizedResourceIds(any(), any(), any(), any());
+  }
+
+  @Test
+  public void getWorkspaceIdByGoogleProjectIdHidesUnreadableOwner() {
+    WorkspaceRequest request = defaultRequestBuilder(UUID.randomUUID()).build();
+    workspaceService.createWorkspace(request, USER_REQUEST);
+    String projectId = "unreadable-project-" + request.workspaceId();
+    workspaceDao.updateCloudContext(
+        request.workspaceId(), WorkspaceCloudContext.createGoogleContext(projectId));
+
+    // isAuthorized returns false by Mockito default, so the caller cannot read the workspace.
+    WorkspaceNotFoundException unreadable =
+        assertThrows(
+            WorkspaceNotFoundException.class,
+            () -> workspaceService.getWorkspaceIdByGoogleProjectId(projectId, USER_REQUEST));
+    WorkspaceNotFoundException unowned =
+        assertThrows(
+            WorkspaceNotFoundException.class,
+            () -> workspaceService.getWorkspaceIdByGoogleProjectId("unowned", USER_REQUEST));
+
+    assertEquals(unowned.getMessage(), unreadable.getMessage());
+    assertFalse(unreadable.getMessage().contains(request.workspaceId().toString()));
+  }
+
   @Test
   public void createGetDeleteGoogleContext() {
     WorkspaceRequest request =
@@ -0,0 +1,52 @@
+package bio.terra.workspace.service.workspace.polling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.workspace.common.BaseUnitTest;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class BackoffPollingStrategyTest extends BaseUnitTest {
+  private static final Duration INITIAL = Duration.ofSeconds(1);
+  private static final Duration MAX = Duration.ofSeconds(30);
+
+  @Test
+  public void backsOffExponentiallyUpToMaximum() {
+    // A random value of 0.5 applies no jitter.
+    PollingStrategy strategy = new BackoffPollingStrategy(INITIAL, MAX, 2.0, 0.2, () -> 0.5);
+
+    assertEquals(Duration.ofSeconds(1), strategy.nextDelay(0));
+    assertEquals(Duration.ofSeconds(2), strategy.nextDelay(1));
+    assertEquals(Duration.ofSeconds(16), strategy.nextDelay(4));
+    assertEquals(MAX, strategy.nextDelay(5));
+    assertEquals(MAX, strategy.nextDelay(100));
+  }
+
+  @Test
+  public void jitterStaysWithinFractionAndMaximum() {
+    PollingStrategy shortest = new BackoffPollingStrategy(INITIAL, MAX, 2.0, 0.2, () -> 0.0);
+    PollingStrategy longest = new BackoffPollingStrategy(INITIAL, MAX, 2.0, 0.2, () -> 0.999999);
+
+    assertEquals(Duration.ofMillis(800), shortest.nextDelay(0));
+    assertEquals(Duration.ofMillis(1200), longest.nextDelay(0));
+    assertEquals(Duration.ofSeconds(24), shortest.nextDelay(10));
+    assertEquals(MAX, longest.nextDelay(10));
+  }
+
+  @Test
+  public void invalidSettingsAreRejected() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new BackoffPollingStrategy(MAX, INITIAL, 2.0, 0.2));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new BackoffPollingStrategy(Duration.ZERO, MAX, 2.0, 0.2));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new BackoffPollingStrategy(Duration.ZERO, Duration.ZERO, 2.0, 0.2));
+    assertThrows(
+        IllegalArgumentException.class, () -> new BackoffPollingStrategy(INITIAL, MAX, 0.5, 0.2));
+    assertThrows(
+        IllegalArgumentException.class, () -> new BackoffPollingStrategy(INITIAL, MAX, 2.0, 1.0));
+  }
+}
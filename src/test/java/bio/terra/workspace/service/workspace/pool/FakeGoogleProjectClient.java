@@ -0,0 +1,73 @@
+package bio.terra.workspace.service.workspace.pool;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-memory {@link GoogleProjectClient} standing in for the CRL resource manager and service
+ * usage clients, so that project setup can be tested without a Google connection.
+ */
+public class FakeGoogleProjectClient implements GoogleProjectClient {
+  private final Map<String, FakeProject> projects = new ConcurrentHashMap<>();
+  private volatile boolean failEnableServices = false;
+
+  @Override
+  public void createProject(String projectId, String folderId) {
+    projects.putIfAbsent(projectId, new FakeProject(folderId));
+  }
+
+  @Override
+  public void enableServices(String projectId, List<String> serviceIds) throws IOException {
+    if (failEnableServices) {
+      throw new IOException("Fake failure enabling services on " + projectId);
+    }
+    FakeProject project = projects.get(projectId);
+    if (project == null) {
+      throw new IOException("Fake project does not exist: " + projectId);
+    }
+    project.enabledServices.addAll(serviceIds);
+  }
+
+  @Override
+  public void deleteProject(String projectId) {
+    FakeProject project = projects.get(projectId);
+    if (project != null) {
+      project.deleted = true;
+    }
+  }
+
+  /** Makes every following call to {@link #enableServices} fail. */
+  public void failEnableServices() {
+    failEnableServices = true;
+  }
+
+  /** Returns the ids of all projects created, including deleted ones. */
+  public Set<String> createdProjectIds() {
+    return Set.copyOf(projects.keySet());
+  }
+
+  public boolean isDeleted(String projectId) {
+    return projects.get(projectId).deleted;
+  }
+
+  public String folderId(String projectId) {
+    return projects.get(projectId).folderId;
+  }
+
+  public Set<String> enabledServices(String projectId) {
+    return Set.copyOf(projects.get(projectId).enabledServices);
+  }
+
+  private static class FakeProject {
+    private final String folderId;
+    private final Set<String> enabledServices = ConcurrentHashMap.newKeySet();
+    private volatile boolean deleted = false;
+
+    private FakeProject(String folderId) {
+      this.folderId = folderId;
+    }
+  }
+}
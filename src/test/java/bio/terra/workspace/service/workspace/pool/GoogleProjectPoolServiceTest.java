@@ -0,0 +1,114 @@
+package bio.terra.workspace.service.workspace.pool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.workspace.app.configuration.external.GoogleProjectPoolConfiguration;
+import bio.terra.workspace.app.configuration.external.GoogleWorkspaceConfiguration;
+import bio.terra.workspace.common.BaseUnitTest;
+import bio.terra.workspace.db.GoogleProjectPoolDao;
+import bio.terra.workspace.service.workspace.flight.CreateProjectStep;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class GoogleProjectPoolServiceTest extends BaseUnitTest {
+  private static final String FOLDER_ID = "fake-folder";
+
+  @Autowired private GoogleProjectPoolDao poolDao;
+  @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+
+  private GoogleProjectPoolConfiguration poolConfiguration;
+  private FakeGoogleProjectClient projectClient;
+  private GoogleProjectPoolService poolService;
+
+  @BeforeEach
+  public void setup() {
+    jdbcTemplate.update("DELETE FROM google_project_pool", new MapSqlParameterSource());
+    poolConfiguration = new GoogleProjectPoolConfiguration();
+    poolConfiguration.setEnabled(true);
+    poolConfiguration.setTargetSize(3);
+    poolConfiguration.setRefillBatchSize(2);
+    GoogleWorkspaceConfiguration googleWorkspaceConfiguration = new GoogleWorkspaceConfiguration();
+    googleWorkspaceConfiguration.setFolderId(FOLDER_ID);
+    projectClient = new FakeGoogleProjectClient();
+    poolService =
+        new GoogleProjectPoolService(
+            poolConfiguration, googleWorkspaceConfiguration, poolDao, projectClient);
+  }
+
+  @Test
+  public void refillCreatesBatchesUpToTargetSize() {
+    poolService.refill();
+    assertEquals(2, poolDao.countReadyProjects());
+
+    poolService.refill();
+    poolService.refill();
+    assertEquals(3, poolDao.countReadyProjects());
+    assertEquals(3, projectClient.createdProjectIds().size());
+    for (String projectId : projectClient.createdProjectIds()) {
+      assertEquals(FOLDER_ID, projectClient.folderId(projectId));
+      assertEquals(
+          Set.copyOf(CreateProjectStep.ENABLED_SERVICES),
+          projectClient.enabledServices(projectId));
+    }
+  }
+
+  @Test
+  public void claimIsStablePerFlight() {
+    poolService.refill();
+
+    Optional<String> first = poolService.claimProject("flight-a");
+    assertTrue(first.isPresent());
+    assertEquals(first, poolService.claimProject("flight-a"));
+    Optional<String> second = poolService.claimProject("flight-b");
+    assertTrue(second.isPresent());
+    assertNotEquals(first, second);
+    assertEquals(Optional.empty(), poolService.claimProject("flight-c"));
+
+    // Claimed projects no longer count towards the target, so the next refill replaces them.
+    poolService.refill();
+    assertEquals(2, poolDao.countReadyProjects());
+  }
+
+  @Test
+  public void discardDeletesClaimedProject() throws Exception {
+    poolService.refill();
+    String projectId = poolService.claimProject("flight-a").get();
+
+    poolService.discardClaimedProject("flight-a");
+
+    assertTrue(projectClient.isDeleted(projectId));
+    // The claim is gone, so the flight would claim another project.
+    assertNotEquals(Optional.of(projectId), poolService.claimProject("flight-a"));
+  }
+
+  @Test
+  public void failedSetupDeletesProject() {
+    projectClient.failEnableServices();
+
+    poolService.refill();
+
+    assertEquals(0, poolDao.countReadyProjects());
+    assertEquals(2, projectClient.createdProjectIds().size());
+    for (String projectId : projectClient.createdProjectIds()) {
+      assertTrue(projectClient.isDeleted(projectId));
+    }
+  }
+
+  @Test
+  public void disabledPoolIsNotUsed() {
+    poolConfiguration.setEnabled(false);
+
+    poolService.refill();
+
+    assertTrue(projectClient.createdProjectIds().isEmpty());
+    assertFalse(poolService.claimProject("flight-a").isPresent());
+  }
+}